@@ -0,0 +1,53 @@
+package filesystem.dataclient;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// runs every request and every streamed response on its own virtual thread, the executor is looked up by reflection
+// because virtual threads need java 21 while the dataclient is still built for java 11
+@Configuration
+@ConditionalOnProperty(name = "dataclient.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    private static Logger logger = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+
+    
+    /** 
+     * @return AsyncTaskExecutor
+     */
+    @Bean(name = "applicationTaskExecutor")
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        logger.info("Running requests on virtual threads");
+        return new TaskExecutorAdapter(createVirtualThreadExecutor());
+    }
+
+    
+    /** 
+     * @param applicationTaskExecutor
+     * @return TomcatProtocolHandlerCustomizer<?>
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(AsyncTaskExecutor applicationTaskExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(applicationTaskExecutor);
+    }
+
+    
+    /** 
+     * @return ExecutorService
+     */
+    private ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21 or newer, running on Java " + System.getProperty("java.version"), e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package filesystem.dataclient.chunk;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({"hash", "offset", "length"})
+public class Chunk {
+
+    private final String hash;
+    private final long offset;
+    private final int length;
+
+    public Chunk(String hash, long offset, int length) {
+        this.hash = hash;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    
+    /** 
+     * @return String
+     */
+    // hex encoded sha-256 of the content of the chunk
+    public String getHash() {
+        return this.hash;
+    }
+
+    
+    /** 
+     * @return long
+     */
+    public long getOffset() {
+        return this.offset;
+    }
+
+    
+    /** 
+     * @return int
+     */
+    public int getLength() {
+        return this.length;
+    }
+}
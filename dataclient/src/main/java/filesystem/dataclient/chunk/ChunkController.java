@@ -0,0 +1,163 @@
+package filesystem.dataclient.chunk;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import filesystem.dataclient.node.Node;
+import filesystem.dataclient.tree.Tree;
+
+// content-addressed access to files, a file is transferred by sending only the chunks the receiver doesnt have yet
+@RestController
+@RequestMapping(path = "/api/chunk")
+public class ChunkController {
+
+    private final ChunkService chunkService;
+    private static Logger logger = LoggerFactory.getLogger(ChunkController.class);
+
+    @Autowired
+    public ChunkController(ChunkService chunkService) {
+        this.chunkService = chunkService;
+    }
+
+    
+    /** 
+     * @param stringPath
+     * @return FileChunks
+     */
+    @GetMapping("/file")
+    public FileChunks getFileChunks(@RequestParam("path") String stringPath) {
+        Path path = Paths.get(stringPath);
+        logger.info("Called: GET /api/chunk/file with path: " + path.toString());
+        checkTree();
+        Tree.getCheckedRealPath(path);
+        try {
+            return this.chunkService.getFileChunks(path);
+        } catch(NoSuchFileException e) {
+            logger.warn("Error: File not found");
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        } catch(IllegalArgumentException e) {
+            logger.warn("Error: " + e.getMessage());
+            throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE);
+        } catch(IOException e) {
+            logger.warn("Error: " + e.toString());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    
+    /** 
+     * @param stringPath
+     * @param overwrite
+     * @param hashes
+     * @return Node
+     */
+    @PostMapping("/file")
+    public Node postFile(@RequestParam("path") String stringPath, @RequestParam(defaultValue = "false") boolean overwrite, @RequestBody List<String> hashes) {
+        Path path = Paths.get(stringPath);
+        logger.info("Called: POST /api/chunk/file with path: " + path.toString() + " and " + hashes.size() + " chunks");
+        checkTree();
+        Tree.getCheckedRealPath(path);
+        try {
+            return this.chunkService.assembleFile(path, hashes, overwrite);
+        } catch(FileAlreadyExistsException e) {
+            logger.warn("Error: File already exists (" + e.getMessage() + ")");
+            throw new ResponseStatusException(HttpStatus.CONFLICT);
+        } catch(IllegalStateException e) {
+            logger.warn("Error: " + e.getMessage());
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch(IOException e) {
+            logger.warn("Error: " + e.toString());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    
+    /** 
+     * @param stringPath
+     * @return int
+     */
+    @PostMapping("/index")
+    public int postIndex(@RequestParam("path") String stringPath) {
+        Path path = Paths.get(stringPath);
+        logger.info("Called: POST /api/chunk/index with path: " + path.toString());
+        checkTree();
+        Tree.getCheckedRealPath(path);
+        try {
+            return this.chunkService.indexFiles(path);
+        } catch(NoSuchFileException e) {
+            logger.warn("Error: File/Directory not found");
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        } catch(IOException e) {
+            logger.warn("Error: " + e.toString());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    
+    /** 
+     * @param hashes
+     * @return List<String>
+     */
+    @PostMapping("/missing")
+    public List<String> postMissing(@RequestBody List<String> hashes) {
+        logger.info("Called: POST /api/chunk/missing with " + hashes.size() + " chunks");
+        return this.chunkService.findMissingChunks(hashes);
+    }
+
+    
+    /** 
+     * @param hash
+     * @return byte[]
+     */
+    @GetMapping(value = "/{hash}", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] getChunk(@PathVariable String hash) {
+        logger.info("Called: GET /api/chunk/" + hash);
+        try {
+            byte[] content = this.chunkService.readChunk(hash);
+            if (content == null) {
+                logger.warn("Error: Chunk not found");
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+            }
+            return content;
+        } catch(IOException e) {
+            logger.warn("Error: " + e.toString());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    
+    /** 
+     * @param hash
+     * @param content
+     */
+    @PutMapping(value = "/{hash}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void putChunk(@PathVariable String hash, @RequestBody byte[] content) {
+        logger.info("Called: PUT /api/chunk/" + hash);
+        try {
+            this.chunkService.storeChunk(hash, content);
+        } catch(IllegalArgumentException e) {
+            logger.warn("Error: " + e.getMessage());
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        } catch(IOException e) {
+            logger.warn("Error: " + e.toString());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private void checkTree() {
+        if (!Tree.isCreated()) {
+            logger.warn("Error: Tree not yet created");
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED);
+        }
+    }
+}
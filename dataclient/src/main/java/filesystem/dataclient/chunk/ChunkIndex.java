@@ -0,0 +1,166 @@
+package filesystem.dataclient.chunk;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.stereotype.Component;
+
+// knows which chunks are available locally, either inside a chunked file of the tree or as a received chunk
+@Component
+public class ChunkIndex {
+
+    private final Map<Path, IndexedFile> files = new HashMap<Path, IndexedFile>();
+    private final Map<String, ChunkLocation> locations = new HashMap<String, ChunkLocation>();
+
+    
+    /** 
+     * @param realPath
+     * @return FileChunks
+     */
+    // null if the file was not chunked yet or changed since
+    public synchronized FileChunks getFileChunks(Path realPath) {
+        IndexedFile indexedFile = this.files.get(realPath);
+        if (indexedFile == null || !indexedFile.isCurrent()) {
+            return null;
+        }
+        return indexedFile.fileChunks;
+    }
+
+    
+    /** 
+     * @param realPath
+     * @param attributes
+     * @param fileChunks
+     */
+    // the attributes have to be read before the file is chunked, so a change while chunking makes the entry stale
+    public synchronized void putFile(Path realPath, BasicFileAttributes attributes, FileChunks fileChunks) {
+        IndexedFile previousFile = this.files.get(realPath);
+        if (previousFile != null) {
+            this.remove(previousFile);
+        }
+        this.files.put(realPath, new IndexedFile(realPath, attributes, fileChunks));
+        for (Chunk chunk:fileChunks.getChunks()) {
+            this.locations.put(chunk.getHash(), new ChunkLocation(realPath, chunk.getOffset(), chunk.getLength()));
+        }
+    }
+
+    
+    /** 
+     * @param hash
+     * @param storedPath
+     * @param length
+     */
+    public synchronized void putStoredChunk(String hash, Path storedPath, int length) {
+        this.locations.put(hash, new ChunkLocation(storedPath, 0, length));
+    }
+
+    
+    /** 
+     * @param hash
+     * @return ChunkLocation
+     */
+    // null if the chunk is unknown or the file it was found in changed since
+    public synchronized ChunkLocation getLocation(String hash) {
+        ChunkLocation location = this.locations.get(hash);
+        if (location == null) {
+            return null;
+        }
+        IndexedFile indexedFile = this.files.get(location.getRealPath());
+        if (indexedFile != null && !indexedFile.isCurrent()) {
+            this.remove(indexedFile);
+            return null;
+        }
+        return location;
+    }
+
+    
+    /** 
+     * @param hash
+     */
+    // called when the content at the location didnt match the hash
+    public synchronized void removeLocation(String hash) {
+        this.locations.remove(hash);
+    }
+
+    
+    /** 
+     * @param indexedFile
+     */
+    private void remove(IndexedFile indexedFile) {
+        this.files.remove(indexedFile.realPath);
+        for (Chunk chunk:indexedFile.fileChunks.getChunks()) {
+            ChunkLocation location = this.locations.get(chunk.getHash());
+            if (location != null && location.getRealPath().equals(indexedFile.realPath)) {
+                this.locations.remove(chunk.getHash());
+            }
+        }
+    }
+
+    public static class ChunkLocation {
+
+        private final Path realPath;
+        private final long offset;
+        private final int length;
+
+        private ChunkLocation(Path realPath, long offset, int length) {
+            this.realPath = realPath;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        
+        /** 
+         * @return Path
+         */
+        public Path getRealPath() {
+            return this.realPath;
+        }
+
+        
+        /** 
+         * @return long
+         */
+        public long getOffset() {
+            return this.offset;
+        }
+
+        
+        /** 
+         * @return int
+         */
+        public int getLength() {
+            return this.length;
+        }
+    }
+
+    private static class IndexedFile {
+
+        private final Path realPath;
+        private final long size;
+        private final long lastModified;
+        private final FileChunks fileChunks;
+
+        private IndexedFile(Path realPath, BasicFileAttributes attributes, FileChunks fileChunks) {
+            this.realPath = realPath;
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+            this.fileChunks = fileChunks;
+        }
+
+        
+        /** 
+         * @return boolean
+         */
+        private boolean isCurrent() {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(this.realPath, BasicFileAttributes.class);
+                return attributes.size() == this.size && attributes.lastModifiedTime().toMillis() == this.lastModified;
+            } catch(IOException e) {
+                return false;
+            }
+        }
+    }
+}
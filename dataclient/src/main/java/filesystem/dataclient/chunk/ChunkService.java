@@ -0,0 +1,237 @@
+package filesystem.dataclient.chunk;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import filesystem.dataclient.node.Node;
+import filesystem.dataclient.node.UploadService;
+import filesystem.dataclient.tree.Tree;
+
+@Service
+public class ChunkService {
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final ChunkIndex chunkIndex;
+    private final UploadService uploadService;
+    private final Path directory;
+    private static Logger logger = LoggerFactory.getLogger(ChunkService.class);
+
+    @Autowired
+    public ChunkService(ChunkIndex chunkIndex, UploadService uploadService, @Value("${dataclient.chunk.directory:${java.io.tmpdir}/dataclient-chunks}") String directory) throws IOException {
+        this.chunkIndex = chunkIndex;
+        this.uploadService = uploadService;
+        this.directory = Files.createDirectories(Paths.get(directory));
+        this.recoverStoredChunks();
+    }
+
+    
+    /** 
+     * @throws IOException
+     */
+    // received chunks are kept across restarts, their file name is their hash
+    private void recoverStoredChunks() throws IOException {
+        int recovered = 0;
+        try (DirectoryStream<Path> storedPaths = Files.newDirectoryStream(this.directory)) {
+            for (Path storedPath:storedPaths) {
+                String hash = storedPath.getFileName().toString();
+                if (isHash(hash)) {
+                    this.chunkIndex.putStoredChunk(hash, storedPath, (int) Files.size(storedPath));
+                    recovered++;
+                }
+            }
+        }
+        if (recovered > 0) {
+            logger.info("Recovered " + recovered + " stored chunks from " + this.directory.toString());
+        }
+    }
+
+    
+    /** 
+     * @param path
+     * @return FileChunks
+     * @throws IOException
+     */
+    // a file is only chunked again when it changed since it was chunked the last time
+    public FileChunks getFileChunks(Path path) throws IOException {
+        Path realPath = Tree.getRealPath(path);
+        FileChunks fileChunks = this.chunkIndex.getFileChunks(realPath);
+        if (fileChunks != null) {
+            return fileChunks;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(realPath, BasicFileAttributes.class);
+        if (!attributes.isRegularFile()) {
+            throw new IllegalArgumentException("Path '" + path.toString() + "' has to be a file");
+        }
+        fileChunks = ContentChunker.chunk(realPath, path.toString());
+        this.chunkIndex.putFile(realPath, attributes, fileChunks);
+        return fileChunks;
+    }
+
+    
+    /** 
+     * @param path
+     * @return int
+     * @throws IOException
+     */
+    // chunks all files below the path, so their chunks are known before another dataclient asks for them
+    public int indexFiles(Path path) throws IOException {
+        Path realPath = Tree.getRealPath(path);
+        List<Path> realPaths;
+        try (Stream<Path> walk = Files.walk(realPath)) {
+            realPaths = walk.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        int indexed = 0;
+        for (Path filePath:realPaths) {
+            try {
+                this.getFileChunks(Paths.get(Tree.getRelativePath(filePath)));
+                indexed++;
+            } catch(IOException e) {
+                logger.warn("Error: Could not chunk " + filePath.toString() + ": " + e.toString());
+            }
+        }
+        return indexed;
+    }
+
+    
+    /** 
+     * @param hashes
+     * @return List<String>
+     */
+    public List<String> findMissingChunks(List<String> hashes) {
+        List<String> missingHashes = new ArrayList<String>();
+        for (String hash:new LinkedHashSet<String>(hashes)) {
+            if (this.chunkIndex.getLocation(hash) == null) {
+                missingHashes.add(hash);
+            }
+        }
+        return missingHashes;
+    }
+
+    
+    /** 
+     * @param hash
+     * @return byte[]
+     * @throws IOException
+     */
+    // null if the chunk is not available, the content is checked against the hash before it is returned
+    public byte[] readChunk(String hash) throws IOException {
+        ChunkIndex.ChunkLocation location = this.chunkIndex.getLocation(hash);
+        if (location == null) {
+            return null;
+        }
+        ByteBuffer content = ByteBuffer.allocate(location.getLength());
+        try (FileChannel channel = FileChannel.open(location.getRealPath(), StandardOpenOption.READ)) {
+            long position = location.getOffset();
+            int read;
+            while (content.hasRemaining() && (read = channel.read(content, position)) != -1) {
+                position += read;
+            }
+        } catch(NoSuchFileException e) {
+            this.chunkIndex.removeLocation(hash);
+            return null;
+        }
+        if (content.hasRemaining() || !ContentChunker.hash(content.array()).equals(hash)) {
+            this.chunkIndex.removeLocation(hash);
+            return null;
+        }
+        return content.array();
+    }
+
+    
+    /** 
+     * @param hash
+     * @param content
+     * @throws IOException
+     */
+    public void storeChunk(String hash, byte[] content) throws IOException {
+        if (!isHash(hash) || content.length > ContentChunker.MAX_CHUNK_SIZE || !ContentChunker.hash(content).equals(hash)) {
+            throw new IllegalArgumentException("Content doesnt match the chunk " + hash);
+        }
+        Path storedPath = this.directory.resolve(hash);
+        Path partPath = Files.createTempFile(this.directory, "chunk-", ".part");
+        try {
+            Files.write(partPath, content);
+            Files.move(partPath, storedPath, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partPath);
+        }
+        this.chunkIndex.putStoredChunk(hash, storedPath, content.length);
+    }
+
+    
+    /** 
+     * @param path
+     * @param hashes
+     * @param overwrite
+     * @return Node
+     * @throws IOException
+     */
+    // writes the file from local chunks, all chunks have to be available before the file is written
+    public Node assembleFile(Path path, List<String> hashes, boolean overwrite) throws IOException {
+        List<String> missingHashes = this.findMissingChunks(hashes);
+        if (!missingHashes.isEmpty()) {
+            throw new IllegalStateException("Missing chunks: " + String.join(",", missingHashes));
+        }
+        Iterator<String> remainingHashes = hashes.iterator();
+        try {
+            InputStream content = new SequenceInputStream(new Enumeration<InputStream>() {
+                @Override
+                public boolean hasMoreElements() {
+                    return remainingHashes.hasNext();
+                }
+
+                @Override
+                public InputStream nextElement() {
+                    String hash = remainingHashes.next();
+                    try {
+                        byte[] chunk = readChunk(hash);
+                        if (chunk == null) {
+                            throw new IOException("Chunk " + hash + " is no longer available");
+                        }
+                        return new ByteArrayInputStream(chunk);
+                    } catch(IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+            return this.uploadService.uploadFile(path, content, overwrite);
+        } catch(UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    
+    /** 
+     * @param hash
+     * @return boolean
+     */
+    private static boolean isHash(String hash) {
+        return HASH_PATTERN.matcher(hash).matches();
+    }
+}
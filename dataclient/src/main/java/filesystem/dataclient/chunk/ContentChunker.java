@@ -0,0 +1,110 @@
+package filesystem.dataclient.chunk;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// splits files into content-defined chunks with a gear rolling hash, so an insertion only changes the chunks around it
+public class ContentChunker {
+
+    public static final int MIN_CHUNK_SIZE = 16 * 1024;
+    public static final int MAX_CHUNK_SIZE = 256 * 1024;
+    // 16 bits of the rolling hash have to be zero for a cut, which is an average chunk size of 64 KiB above the minimum
+    private static final long CUT_MASK = 0xFFFF000000000000L;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    // every dataclient has to cut at the same positions, so the table is generated from a fixed seed
+    private static final long[] GEAR = new SplittableRandom(0x6765617274616231L).longs(256).toArray();
+
+    private ContentChunker() {
+    }
+
+    
+    /** 
+     * @param realPath
+     * @param path
+     * @return FileChunks
+     * @throws IOException
+     */
+    public static FileChunks chunk(Path realPath, String path) throws IOException {
+        MessageDigest contentDigest = newDigest();
+        MessageDigest chunkDigest = newDigest();
+        List<Chunk> chunks = new ArrayList<Chunk>();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        long size = 0;
+        long chunkOffset = 0;
+        int chunkLength = 0;
+        long hash = 0;
+        try (FileChannel channel = FileChannel.open(realPath, StandardOpenOption.READ)) {
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                if (read == 0) {
+                    continue;
+                }
+                contentDigest.update(bytes, 0, read);
+                int start = 0;
+                for (int i = 0; i < read; i++) {
+                    hash = (hash << 1) + GEAR[bytes[i] & 0xFF];
+                    chunkLength++;
+                    if ((chunkLength >= MIN_CHUNK_SIZE && (hash & CUT_MASK) == 0) || chunkLength == MAX_CHUNK_SIZE) {
+                        chunkDigest.update(bytes, start, i + 1 - start);
+                        chunks.add(new Chunk(toHex(chunkDigest.digest()), chunkOffset, chunkLength));
+                        chunkOffset += chunkLength;
+                        chunkLength = 0;
+                        hash = 0;
+                        start = i + 1;
+                    }
+                }
+                chunkDigest.update(bytes, start, read - start);
+                size += read;
+                buffer.clear();
+            }
+        }
+        if (chunkLength > 0) {
+            chunks.add(new Chunk(toHex(chunkDigest.digest()), chunkOffset, chunkLength));
+        }
+        return new FileChunks(path, size, toHex(contentDigest.digest()), chunks);
+    }
+
+    
+    /** 
+     * @param content
+     * @return String
+     */
+    public static String hash(byte[] content) {
+        return toHex(newDigest().digest(content));
+    }
+
+    
+    /** 
+     * @return MessageDigest
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch(NoSuchAlgorithmException e) {
+            // every java platform has to support sha-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    
+    /** 
+     * @param digest
+     * @return String
+     */
+    private static String toHex(byte[] digest) {
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b:digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
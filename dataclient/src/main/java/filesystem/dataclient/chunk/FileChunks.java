@@ -0,0 +1,53 @@
+package filesystem.dataclient.chunk;
+
+import java.util.List;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({"path", "size", "contentHash", "chunks"})
+public class FileChunks {
+
+    private final String path;
+    private final long size;
+    private final String contentHash;
+    private final List<Chunk> chunks;
+
+    public FileChunks(String path, long size, String contentHash, List<Chunk> chunks) {
+        this.path = path;
+        this.size = size;
+        this.contentHash = contentHash;
+        this.chunks = chunks;
+    }
+
+    
+    /** 
+     * @return String
+     */
+    public String getPath() {
+        return this.path;
+    }
+
+    
+    /** 
+     * @return long
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    
+    /** 
+     * @return String
+     */
+    // hex encoded sha-256 of the whole file, equal files have equal content hashes
+    public String getContentHash() {
+        return this.contentHash;
+    }
+
+    
+    /** 
+     * @return List<Chunk>
+     */
+    public List<Chunk> getChunks() {
+        return this.chunks;
+    }
+}
@@ -0,0 +1,294 @@
+package filesystem.dataclient.node;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// keeps the most recently read regions of files mapped, so repeated range reads dont open, seek and read the file again
+@Component
+public class MappedFileCache {
+
+    private static final Method INVOKE_CLEANER;
+    private static final Object UNSAFE;
+    private static Logger logger = LoggerFactory.getLogger(MappedFileCache.class);
+
+    // a mapping is released only by the garbage collector, unless it is unmapped through the cleaner of Unsafe
+    static {
+        Method invokeCleaner = null;
+        Object unsafe = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafe = theUnsafe.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch(ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Mapped regions can not be unmapped explicitly, they are released by the garbage collector");
+        }
+        INVOKE_CLEANER = invokeCleaner;
+        UNSAFE = unsafe;
+    }
+
+    private final int regionSize;
+    private final int maxRegions;
+    private final Map<RegionKey, Region> regions;
+
+    @Autowired
+    public MappedFileCache(@Value("${dataclient.mapped.region-size:4194304}") int regionSize, @Value("${dataclient.mapped.max-regions:64}") int maxRegions) {
+        if (regionSize <= 0 || maxRegions <= 0) {
+            throw new IllegalArgumentException("Region size and number of regions have to be positive");
+        }
+        this.regionSize = regionSize;
+        this.maxRegions = maxRegions;
+        this.regions = new LinkedHashMap<RegionKey, Region>(16, 0.75f, true);
+    }
+
+    
+    /** 
+     * @return int
+     */
+    public int getRegionSize() {
+        return this.regionSize;
+    }
+
+    
+    /** 
+     * @param realPath
+     * @param offset
+     * @param length
+     * @return byte[]
+     * @throws IOException
+     */
+    // reads up to length bytes at the offset, less if the file ends before, null if the offset is behind the end of the file
+    public byte[] read(Path realPath, long offset, int length) throws IOException {
+        if (offset < 0 || length < 0) {
+            throw new IllegalArgumentException("Offset and length have to be positive");
+        }
+        BasicFileAttributes attributes = Files.readAttributes(realPath, BasicFileAttributes.class);
+        if (!attributes.isRegularFile()) {
+            throw new IllegalArgumentException("Path '" + realPath.toString() + "' has to be a file");
+        }
+        long size = attributes.size();
+        if (offset > size) {
+            return null;
+        }
+        byte[] content = new byte[(int) Math.min(length, size - offset)];
+        int position = 0;
+        while (position < content.length) {
+            long regionIndex = (offset + position) / this.regionSize;
+            Region region = this.acquire(realPath, regionIndex, attributes);
+            try {
+                ByteBuffer buffer = region.buffer.duplicate();
+                buffer.position((int) (offset + position - regionIndex * this.regionSize));
+                int read = Math.min(buffer.remaining(), content.length - position);
+                buffer.get(content, position, read);
+                position += read;
+            } catch(InternalError e) {
+                // the file was truncated after its attributes were read, the mapped pages dont exist anymore
+                this.invalidate(realPath);
+                throw new IOException("File '" + realPath.toString() + "' changed while reading", e);
+            } finally {
+                this.release(region);
+            }
+        }
+        return content;
+    }
+
+    
+    /** 
+     * @param realPath
+     */
+    // removes all regions of the file or of the files below the directory, they are unmapped as soon as no read uses them anymore
+    public synchronized void invalidate(Path realPath) {
+        this.regions.entrySet().removeIf(entry -> {
+            if (entry.getKey().realPath.startsWith(realPath)) {
+                this.evict(entry.getValue());
+                return true;
+            }
+            return false;
+        });
+    }
+
+    
+    /** 
+     * @return int
+     */
+    public synchronized int size() {
+        return this.regions.size();
+    }
+
+    @PreDestroy
+    public synchronized void clear() {
+        this.regions.values().forEach(this::evict);
+        this.regions.clear();
+    }
+
+    
+    /** 
+     * @param realPath
+     * @param regionIndex
+     * @param attributes
+     * @return Region
+     * @throws IOException
+     */
+    // a region mapped before the file changed is replaced, the file is identified by its key, size and modification time
+    private Region acquire(Path realPath, long regionIndex, BasicFileAttributes attributes) throws IOException {
+        RegionKey key = new RegionKey(realPath, regionIndex);
+        synchronized (this) {
+            Region region = this.regions.get(key);
+            if (region != null && region.isCurrent(attributes)) {
+                region.references++;
+                return region;
+            }
+        }
+        Region region = this.map(realPath, regionIndex, attributes);
+        synchronized (this) {
+            Region previousRegion = this.regions.put(key, region);
+            if (previousRegion != null) {
+                this.evict(previousRegion);
+            }
+            while (this.regions.size() > this.maxRegions) {
+                Map.Entry<RegionKey, Region> eldest = this.regions.entrySet().iterator().next();
+                this.regions.remove(eldest.getKey());
+                this.evict(eldest.getValue());
+            }
+            region.references++;
+        }
+        return region;
+    }
+
+    
+    /** 
+     * @param realPath
+     * @param regionIndex
+     * @param attributes
+     * @return Region
+     * @throws IOException
+     */
+    // the mapping stays valid after the channel is closed
+    private Region map(Path realPath, long regionIndex, BasicFileAttributes attributes) throws IOException {
+        long position = regionIndex * this.regionSize;
+        try (FileChannel channel = FileChannel.open(realPath, StandardOpenOption.READ)) {
+            long length = Math.min(this.regionSize, Math.max(0, attributes.size() - position));
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            return new Region(buffer, attributes);
+        }
+    }
+
+    
+    /** 
+     * @param region
+     */
+    private synchronized void release(Region region) {
+        region.references--;
+        if (region.evicted && region.references == 0) {
+            unmap(region.buffer);
+        }
+    }
+
+    
+    /** 
+     * @param region
+     */
+    // a region still used by a read is unmapped when the read releases it
+    private void evict(Region region) {
+        region.evicted = true;
+        if (region.references == 0) {
+            unmap(region.buffer);
+        }
+    }
+
+    
+    /** 
+     * @param buffer
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null || buffer.capacity() == 0) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+        } catch(ReflectiveOperationException e) {
+            logger.warn("Error: Could not unmap region: " + e.toString());
+        }
+    }
+
+    private static class RegionKey {
+
+        private final Path realPath;
+        private final long index;
+
+        private RegionKey(Path realPath, long index) {
+            this.realPath = realPath;
+            this.index = index;
+        }
+
+        
+        /** 
+         * @param o
+         * @return boolean
+         */
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RegionKey)) {
+                return false;
+            }
+            RegionKey other = (RegionKey) o;
+            return this.index == other.index && this.realPath.equals(other.realPath);
+        }
+
+        
+        /** 
+         * @return int
+         */
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.realPath, this.index);
+        }
+    }
+
+    private static class Region {
+
+        private final MappedByteBuffer buffer;
+        private final Object fileKey;
+        private final long size;
+        private final long lastModified;
+        private int references;
+        private boolean evicted;
+
+        private Region(MappedByteBuffer buffer, BasicFileAttributes attributes) {
+            this.buffer = buffer;
+            this.fileKey = attributes.fileKey();
+            this.size = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+        }
+
+        
+        /** 
+         * @param attributes
+         * @return boolean
+         */
+        private boolean isCurrent(BasicFileAttributes attributes) {
+            return Objects.equals(this.fileKey, attributes.fileKey()) && this.size == attributes.size() && this.lastModified == attributes.lastModifiedTime().toMillis();
+        }
+    }
+}
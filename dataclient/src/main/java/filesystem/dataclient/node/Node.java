@@ -1,9 +1,10 @@
 package filesystem.dataclient.node;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.io.File;
-import java.nio.file.Path;
 import org.springframework.stereotype.Component;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -17,8 +18,13 @@ public class Node {
     @JsonIgnore
     private File file = null;
 
-    @JsonProperty("childNodes")
-    private List<Node> children = new ArrayList<Node>();
+    // cached file name, so serializing a node does not have to build a path object
+    @JsonIgnore
+    private String name = null;
+
+    // children are keyed by their file name, so the tree doubles as a trie of path segments
+    @JsonIgnore
+    private Map<String, Node> children = new LinkedHashMap<String, Node>();
 
     @JsonIgnore
     private Node parent = null;
@@ -31,11 +37,10 @@ public class Node {
     public String serializePath() {
         // uncomment to set name as path instead of just the filename:
         // return Tree.getPath().getRoot().resolve(Tree.getPath().relativize(this.file.toPath())).toString();
-        Path path = Tree.getPath().getRoot().resolve(Tree.getPath().relativize(this.file.toPath()));
-        if (path.getNameCount() == 0) {
-            return path.toString();
+        if (this.parent == null) {
+            return Tree.getPath().getRoot().toString();
         } else {
-            return path.getFileName().toString();
+            return this.name;
         }
     }
 
@@ -51,8 +56,35 @@ public class Node {
     /** 
      * @param file
      */
+    // careful, does not update the parent's child index or the files of the children (see moveTo)
     public void setFile(File file) {
         this.file = file;
+        this.name = file.getName();
+    }
+
+    
+    /** 
+     * @param newFile
+     */
+    // updates the file of this node and all of its descendants and re-keys it in the parent
+    public void moveTo(File newFile) {
+        if (this.parent != null && !this.name.equals(newFile.getName())) {
+            this.parent.children.remove(this.name);
+            this.parent.children.put(newFile.getName(), this);
+        }
+        this.updateFiles(newFile);
+    }
+
+    
+    /** 
+     * @param newFile
+     */
+    // only the files change below the moved node, so the child maps are never modified while they are iterated
+    private void updateFiles(File newFile) {
+        this.setFile(newFile);
+        for (Node child:this.children.values()) {
+            child.updateFiles(new File(newFile, child.name));
+        }
     }
 
     
@@ -73,15 +105,23 @@ public class Node {
     }
 
     
+    /** 
+     * @param name
+     * @return Node
+     */
+    public Node getChild(String name) {
+        return this.children.get(name);
+    }
+
+    
     /** 
      * @param file
      * @return Node
      */
     public Node getChild(File file) {
-        for (Node child:this.children) {
-            if (child.getFile().equals(file)) {
-                return child;
-            }
+        Node child = this.children.get(file.getName());
+        if (child != null && child.getFile().equals(file)) {
+            return child;
         }
         return null;
     }
@@ -89,12 +129,14 @@ public class Node {
     
     /** 
      * @param file
+     * @return Node
      */
-    public void addChild(File file) {
+    public Node addChild(File file) {
         Node child = new Node();
         child.setFile(file);
         child.setParent(this);
-        this.children.add(child);
+        this.children.put(child.name, child);
+        return child;
     }
 
     
@@ -102,15 +144,16 @@ public class Node {
      * @param node
      */
     public void removeChild(Node node) {
-        this.children.remove(node);
+        this.children.remove(node.name, node);
     }
 
     
     /** 
-     * @return List<Node>
+     * @return Collection<Node>
      */
-    public List<Node> getChildren() {
-        return children;
+    @JsonProperty("childNodes")
+    public Collection<Node> getChildren() {
+        return this.children.values();
     }
 
     
@@ -119,6 +162,9 @@ public class Node {
      */
     // careful, does not set the parents of the children
     public void setChildren(List<Node> children) {
-        this.children = children;
+        this.children = new LinkedHashMap<String, Node>();
+        for (Node child:children) {
+            this.children.put(child.name, child);
+        }
     }
 }
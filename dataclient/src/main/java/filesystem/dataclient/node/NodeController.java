@@ -6,11 +6,21 @@ import java.nio.file.Files;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.NoSuchFileException;
+import java.util.List;
 import com.fasterxml.jackson.databind.JsonNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.core.io.Resource;
 import filesystem.dataclient.tree.Tree;
 
 @RestController
@@ -18,11 +28,15 @@ import filesystem.dataclient.tree.Tree;
 public class NodeController {
 
     private final NodeService nodeService;
+    private final UploadService uploadService;
+    private final MappedFileCache mappedFileCache;
     private static Logger logger = LoggerFactory.getLogger(NodeController.class);
 
     @Autowired
-    public NodeController(NodeService nodeService) {
+    public NodeController(NodeService nodeService, UploadService uploadService, MappedFileCache mappedFileCache) {
         this.nodeService = nodeService;
+        this.uploadService = uploadService;
+        this.mappedFileCache = mappedFileCache;
     }
 
     
@@ -37,7 +51,7 @@ public class NodeController {
             logger.warn("Error: Tree not yet created");
             throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED);
         }
-        Path realPath = Tree.getRealPath(path);
+        Path realPath = Tree.getCheckedRealPath(path);
         if (Files.notExists(realPath)) {
             logger.warn("Error: File/Directory not found");
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
@@ -70,6 +84,7 @@ public class NodeController {
             logger.warn("Error: No path set");
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
         }
+        Tree.getCheckedRealPath(Paths.get(path));
         String content = json.get("content").asText();
         try {
             if (type.equals("file")) {
@@ -99,7 +114,7 @@ public class NodeController {
             logger.warn("Error: Tree not yet created");
             throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED);
         }
-        Path realPath = Tree.getRealPath(path);
+        Path realPath = Tree.getCheckedRealPath(path);
         if (Files.notExists(realPath)) {
             logger.warn("Error: File not found");
             throw new ResponseStatusException(HttpStatus.NOT_FOUND);
@@ -119,6 +134,110 @@ public class NodeController {
     }
 
     
+    /** 
+     * @param stringPath
+     * @return ResponseEntity<Resource>
+     */
+    // streams the bytes of the file unchanged, a range header is answered with 206 and only the requested ranges
+    @GetMapping("/content")
+    public ResponseEntity<Resource> getNodeContent(@RequestParam("path") String stringPath) {
+        Path path = Paths.get(stringPath);
+        logger.info("Called: GET /api/node/content with path: " + path.toString());
+        if (!Tree.isCreated()) {
+            logger.warn("Error: Tree not yet created");
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED);
+        }
+        Path realPath = Tree.getCheckedRealPath(path);
+        if (Files.notExists(realPath)) {
+            logger.warn("Error: File not found");
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        } else if (!Files.isRegularFile(realPath)) {
+            logger.warn("Error: Path has to be a file");
+            throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE);
+        } else if (!Files.isReadable(realPath)) {
+            logger.warn("Error: No permission to read file");
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+        ContentDisposition contentDisposition = ContentDisposition.attachment().filename(realPath.getFileName().toString()).build();
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_OCTET_STREAM)
+            .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+            .header(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+            .body(this.nodeService.getFileResource(realPath));
+    }
+
+    
+    /** 
+     * @param stringPath
+     * @param offset
+     * @param length
+     * @return byte[]
+     */
+    // small ranges are read from mapped regions of the file, the response is shorter than length if the file ends before
+    @GetMapping(value = "/range", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public byte[] getNodeRange(@RequestParam("path") String stringPath, @RequestParam long offset, @RequestParam int length) {
+        Path path = Paths.get(stringPath);
+        logger.info("Called: GET /api/node/range with path: " + path.toString() + ", offset: " + offset + " and length: " + length);
+        if (!Tree.isCreated()) {
+            logger.warn("Error: Tree not yet created");
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED);
+        }
+        if (offset < 0 || length < 0 || length > this.mappedFileCache.getRegionSize()) {
+            logger.warn("Error: Invalid range");
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Length has to be between 0 and " + this.mappedFileCache.getRegionSize());
+        }
+        Path realPath = Tree.getCheckedRealPath(path);
+        try {
+            byte[] content = this.mappedFileCache.read(realPath, offset, length);
+            if (content == null) {
+                logger.warn("Error: Offset behind the end of the file");
+                throw new ResponseStatusException(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            }
+            return content;
+        } catch(NoSuchFileException e) {
+            logger.warn("Error: File not found");
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        } catch(AccessDeniedException e) {
+            logger.warn("Error: No permission to read file");
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        } catch(IllegalArgumentException e) {
+            logger.warn("Error: " + e.getMessage());
+            throw new ResponseStatusException(HttpStatus.NOT_ACCEPTABLE);
+        } catch(IOException e) {
+            logger.warn("Error: " + e.toString());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    
+    /** 
+     * @param stringPath
+     * @param overwrite
+     * @param content
+     * @return Node
+     */
+    // the body is streamed to the upload directory and moved into place once it was received completely
+    @PutMapping(value = "/content", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Node putNodeContent(@RequestParam("path") String stringPath, @RequestParam(defaultValue = "false") boolean overwrite, InputStream content) {
+        Path path = Paths.get(stringPath);
+        logger.info("Called: PUT /api/node/content with path: " + path.toString());
+        if (!Tree.isCreated()) {
+            logger.warn("Error: Tree not yet created");
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED);
+        }
+        Tree.getCheckedRealPath(path);
+        try {
+            return this.uploadService.uploadFile(path, content, overwrite);
+        } catch(FileAlreadyExistsException e) {
+            logger.warn("Error: File already exists (" + e.getMessage() + ")");
+            throw new ResponseStatusException(HttpStatus.CONFLICT);
+        } catch(IOException e) {
+            logger.warn("Error: " + e.toString());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    
     /** 
      * @param json
      * @return Node
@@ -140,6 +259,7 @@ public class NodeController {
             logger.warn("Error: No name set");
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
         }
+        Tree.getCheckedRealPath(Paths.get(path));
         try {
             return this.nodeService.renameNode(Paths.get(path), name);
         } catch(IOException e) {
@@ -147,4 +267,25 @@ public class NodeController {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    
+    /** 
+     * @param operations
+     * @return List<NodeOperationResult>
+     */
+    @PostMapping("/batch")
+    public List<NodeOperationResult> postBatch(@RequestBody List<NodeOperation> operations) {
+        logger.info("Called: POST /api/node/batch with " + operations.size() + " operations");
+        if (!Tree.isCreated()) {
+            logger.warn("Error: Tree not yet created");
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED);
+        }
+        List<NodeOperationResult> results = this.nodeService.applyBatch(operations);
+        for (NodeOperationResult result:results) {
+            if (!result.isSuccess()) {
+                logger.warn("Error: Operation " + result.getIndex() + " failed (" + result.getError() + ")");
+            }
+        }
+        return results;
+    }
 }
@@ -0,0 +1,96 @@
+package filesystem.dataclient.node;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({"type", "path", "name", "content"})
+public class NodeOperation {
+
+    public enum Type {
+        CREATE_DIRECTORY,
+        CREATE_FILE,
+        RENAME,
+        DELETE
+    }
+
+    private Type type;
+    private String path;
+    private String name;
+    private String content;
+
+    public NodeOperation() {
+    }
+
+    public NodeOperation(Type type, String path, String name, String content) {
+        this.type = type;
+        this.path = path;
+        this.name = name;
+        this.content = content;
+    }
+
+    
+    /** 
+     * @return Type
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    
+    /** 
+     * @param type
+     */
+    public void setType(Type type) {
+        this.type = type;
+    }
+
+    
+    /** 
+     * @return String
+     */
+    // path relative to the root of the tree, in the same format as the paths of the node api
+    public String getPath() {
+        return this.path;
+    }
+
+    
+    /** 
+     * @param path
+     */
+    public void setPath(String path) {
+        this.path = path;
+    }
+
+    
+    /** 
+     * @return String
+     */
+    // new name of the node, only used by RENAME
+    public String getName() {
+        return this.name;
+    }
+
+    
+    /** 
+     * @param name
+     */
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    
+    /** 
+     * @return String
+     */
+    // content of the file, only used by CREATE_FILE
+    public String getContent() {
+        return this.content;
+    }
+
+    
+    /** 
+     * @param content
+     */
+    public void setContent(String content) {
+        this.content = content;
+    }
+}
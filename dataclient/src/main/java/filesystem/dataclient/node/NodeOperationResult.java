@@ -0,0 +1,63 @@
+package filesystem.dataclient.node;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({"index", "type", "path", "success", "error"})
+public class NodeOperationResult {
+
+    private final int index;
+    private final NodeOperation.Type type;
+    private final String path;
+    private final boolean success;
+    private final String error;
+
+    public NodeOperationResult(int index, NodeOperation.Type type, String path, boolean success, String error) {
+        this.index = index;
+        this.type = type;
+        this.path = path;
+        this.success = success;
+        this.error = error;
+    }
+
+    
+    /** 
+     * @return int
+     */
+    // position of the operation in the batch
+    public int getIndex() {
+        return this.index;
+    }
+
+    
+    /** 
+     * @return Type
+     */
+    public NodeOperation.Type getType() {
+        return this.type;
+    }
+
+    
+    /** 
+     * @return String
+     */
+    public String getPath() {
+        return this.path;
+    }
+
+    
+    /** 
+     * @return boolean
+     */
+    public boolean isSuccess() {
+        return this.success;
+    }
+
+    
+    /** 
+     * @return String
+     */
+    // null if the operation succeeded
+    public String getError() {
+        return this.error;
+    }
+}
@@ -3,25 +3,32 @@ package filesystem.dataclient.node;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.io.File;
-import java.util.Iterator;
 import java.nio.file.Files;
 import java.nio.charset.Charset;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.apache.commons.io.FileUtils;
-import java.util.Queue;
-import java.util.ArrayDeque;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import filesystem.dataclient.tree.Tree;
+import filesystem.dataclient.tree.TreeChange;
+import filesystem.dataclient.tree.TreeJournal;
 
 @Service
 public class NodeService {
 
     private final Tree tree;
+    private final TreeJournal treeJournal;
+    private final MappedFileCache mappedFileCache;
 
     @Autowired
-    public NodeService(Tree tree) {
+    public NodeService(Tree tree, TreeJournal treeJournal, MappedFileCache mappedFileCache) {
         this.tree = tree;
+        this.treeJournal = treeJournal;
+        this.mappedFileCache = mappedFileCache;
     }
 
     
@@ -30,17 +37,7 @@ public class NodeService {
      * @return Node
      */
     private Node findNode(Path realPath) {
-        Queue<Node> queue = new ArrayDeque<Node>();
-        queue.add(this.tree.getRoot());
-        while(!queue.isEmpty()) {
-            Node currentNode = queue.remove();
-            if (currentNode.getFile().toPath().equals(realPath)) {
-                return currentNode;
-            } else {
-                queue.addAll(currentNode.getChildren());
-            }
-        }
-        return null;
+        return this.tree.findNode(realPath);
     }
 
     
@@ -60,8 +57,16 @@ public class NodeService {
      * @throws IOException
      */
     public void deleteNode(Path realPath) throws IOException {
-        Node node = findNode(realPath);
-        deleteNode(node);
+        this.tree.lock();
+        try {
+            Node node = findNode(realPath);
+            deleteNode(node);
+            // mapped regions would keep the space of the deleted files allocated
+            this.mappedFileCache.invalidate(realPath);
+            this.treeJournal.record(TreeChange.Type.DELETED, realPath);
+        } finally {
+            this.tree.unlock();
+        }
     }
 
     
@@ -71,19 +76,25 @@ public class NodeService {
      * @throws IOException
      */
     public Node createDirectory(Path path) throws IOException {
-        Iterator<Path> pathIterator = path.iterator();
-        Path directoryPath = Tree.getPath();
-        while (pathIterator.hasNext()) {
-            directoryPath = Paths.get(directoryPath.toString(), pathIterator.next().toString());
-            Node directoryNode = this.findNode(directoryPath);
-            if (directoryNode == null) {
-                Files.createDirectory(directoryPath);
-                File file = directoryPath.toFile();
-                Node parent = this.findNode(directoryPath.getParent());
-                parent.addChild(file);
+        this.tree.lock();
+        try {
+            Node directoryNode = this.tree.getRoot();
+            for (Path segment:path) {
+                Node childNode = directoryNode.getChild(segment.toString());
+                if (childNode == null) {
+                    Path directoryPath = directoryNode.getFile().toPath().resolve(segment.toString());
+                    if (!Files.isDirectory(directoryPath)) {
+                        Files.createDirectory(directoryPath);
+                    }
+                    childNode = directoryNode.addChild(directoryPath.toFile());
+                    this.treeJournal.record(TreeChange.Type.CREATED, directoryPath);
+                }
+                directoryNode = childNode;
             }
+            return directoryNode;
+        } finally {
+            this.tree.unlock();
         }
-        return this.findNode(directoryPath);
     }
 
     
@@ -95,13 +106,18 @@ public class NodeService {
      */
     public Node createFile(Path path, String content) throws IOException {
         Path realPath = Tree.getRealPath(path);
-        this.createDirectory(path.getParent());
-        Files.createFile(realPath);
-        File file = realPath.toFile();
-        FileUtils.writeStringToFile(file, content, Charset.forName("utf-8"));
-        Node parent = findNode(realPath.getParent());
-        parent.addChild(file);
-        return parent.getChild(file);
+        this.tree.lock();
+        try {
+            Node parent = this.createDirectory(path.getParent());
+            Files.createFile(realPath);
+            File file = realPath.toFile();
+            FileUtils.writeStringToFile(file, content, Charset.forName("utf-8"));
+            Node node = parent.addChild(file);
+            this.treeJournal.record(TreeChange.Type.CREATED, realPath);
+            return node;
+        } finally {
+            this.tree.unlock();
+        }
     }
 
     
@@ -115,6 +131,16 @@ public class NodeService {
     }
 
     
+    /** 
+     * @param realPath
+     * @return Resource
+     */
+    // the resource is read while the response is written, so the file is never held in memory
+    public Resource getFileResource(Path realPath) {
+        return new FileSystemResource(realPath);
+    }
+
+    
     /** 
      * @param path
      * @param name
@@ -123,14 +149,107 @@ public class NodeService {
      */
     public Node renameNode(Path path, String name) throws IOException {
         Path realPath = Tree.getRealPath(path);
+        this.tree.lock();
+        try {
+            Node node = findNode(realPath);
+            File file = node.getFile();
+            File newFile = Paths.get(file.getParent(), name).toFile();
+            if (newFile.exists()) {
+                throw new IOException("File with the path '" + newFile.getPath() + "' already exists");
+            }
+            file.renameTo(newFile);
+            node.moveTo(newFile);
+            this.mappedFileCache.invalidate(realPath);
+            this.treeJournal.record(TreeChange.Type.DELETED, realPath);
+            this.treeJournal.recordCreated(node);
+            return node;
+        } finally {
+            this.tree.unlock();
+        }
+    }
+
+    
+    /** 
+     * @param operations
+     * @return List<NodeOperationResult>
+     */
+    // all operations are applied while holding the tree once, a failed operation doesnt stop the following ones
+    public List<NodeOperationResult> applyBatch(List<NodeOperation> operations) {
+        List<NodeOperationResult> results = new ArrayList<>(operations.size());
+        this.tree.lock();
+        try {
+            for (int index = 0; index < operations.size(); index++) {
+                NodeOperation operation = operations.get(index);
+                try {
+                    applyOperation(operation);
+                    results.add(new NodeOperationResult(index, operation.getType(), operation.getPath(), true, null));
+                } catch(IOException | RuntimeException e) {
+                    results.add(new NodeOperationResult(index, operation.getType(), operation.getPath(), false, e.toString()));
+                }
+            }
+        } finally {
+            this.tree.unlock();
+        }
+        return results;
+    }
+
+    
+    /** 
+     * @param operation
+     * @throws IOException
+     */
+    private void applyOperation(NodeOperation operation) throws IOException {
+        if (operation.getType() == null || operation.getPath() == null) {
+            throw new IllegalArgumentException("Type and path have to be set");
+        }
+        Path path = Paths.get(operation.getPath());
+        switch (operation.getType()) {
+            case CREATE_DIRECTORY:
+                requireParent(Tree.getRealPath(path));
+                this.createDirectory(path);
+                break;
+            case CREATE_FILE:
+                requireParent(Tree.getRealPath(path));
+                this.createFile(path, operation.getContent() == null ? "" : operation.getContent());
+                break;
+            case RENAME:
+                if (operation.getName() == null || operation.getName().contains("/")) {
+                    throw new IllegalArgumentException("Invalid name '" + operation.getName() + "'");
+                }
+                requireNode(Tree.getRealPath(path));
+                this.renameNode(path, operation.getName());
+                break;
+            case DELETE:
+                Path realPath = Tree.getRealPath(path);
+                requireNode(realPath);
+                this.deleteNode(realPath);
+                break;
+        }
+    }
+
+    
+    /** 
+     * @param realPath
+     * @throws IOException
+     */
+    // the root of the tree can neither be renamed nor deleted by a batch
+    private void requireNode(Path realPath) throws IOException {
         Node node = findNode(realPath);
-        File file = node.getFile();
-        File newFile = Paths.get(file.getParent(), name).toFile();
-        if (newFile.exists()) {
-            throw new IOException("File with the path '" + newFile.getPath() + "' already exists");
+        if (node == null || node.getParent() == null) {
+            throw new IOException("File/Directory '" + realPath + "' not found");
+        }
+    }
+
+    
+    /** 
+     * @param realPath
+     * @throws IOException
+     */
+    // unlike createDirectory, a batch doesnt create missing parents, so an operation depending on a failed one fails too
+    private void requireParent(Path realPath) throws IOException {
+        Node parent = findNode(realPath.getParent());
+        if (parent == null || !parent.getFile().isDirectory()) {
+            throw new IOException("Directory '" + realPath.getParent() + "' not found");
         }
-        file.renameTo(newFile);
-        node.setFile(newFile);
-        return node;
     }
 }
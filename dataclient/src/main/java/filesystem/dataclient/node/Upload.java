@@ -0,0 +1,86 @@
+package filesystem.dataclient.node;
+
+import java.util.concurrent.locks.ReentrantLock;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({"id", "path", "offset"})
+public class Upload {
+
+    private final String id;
+    private final String path;
+    private volatile long offset;
+    // last time a chunk was received, uploads not continued for too long are removed
+    @JsonIgnore
+    private volatile long updated;
+    // held while a chunk is received, which can take as long as the client needs to send it
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public Upload(String id, String path, long offset, long updated) {
+        this.id = id;
+        this.path = path;
+        this.offset = offset;
+        this.updated = updated;
+    }
+
+    
+    /** 
+     * @return String
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    
+    /** 
+     * @return String
+     */
+    // path the file is moved to when the upload is completed, in the same format as the paths of the node api
+    public String getPath() {
+        return this.path;
+    }
+
+    
+    /** 
+     * @return long
+     */
+    // number of bytes received so far, the next chunk has to start here
+    public long getOffset() {
+        return this.offset;
+    }
+
+    
+    /** 
+     * @param offset
+     */
+    public void setOffset(long offset) {
+        this.offset = offset;
+        this.updated = System.currentTimeMillis();
+    }
+
+    
+    /** 
+     * @return long
+     */
+    public long getUpdated() {
+        return this.updated;
+    }
+
+    // has to be released with unlock in a finally block
+    public void lock() {
+        this.lock.lock();
+    }
+
+    
+    /** 
+     * @return boolean
+     */
+    // false if a chunk is received right now
+    public boolean tryLock() {
+        return this.lock.tryLock();
+    }
+
+    public void unlock() {
+        this.lock.unlock();
+    }
+}
@@ -0,0 +1,138 @@
+package filesystem.dataclient.node;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.FileAlreadyExistsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.io.InputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import filesystem.dataclient.tree.Tree;
+
+// resumable uploads: start an upload, send its content in chunks and complete it, an interrupted upload continues at its offset
+@RestController
+@RequestMapping(path = "/api/node/upload")
+public class UploadController {
+
+    private final UploadService uploadService;
+    private static Logger logger = LoggerFactory.getLogger(UploadController.class);
+
+    @Autowired
+    public UploadController(UploadService uploadService) {
+        this.uploadService = uploadService;
+    }
+
+    
+    /** 
+     * @param stringPath
+     * @return Upload
+     */
+    @PostMapping
+    public Upload postUpload(@RequestParam("path") String stringPath) {
+        Path path = Paths.get(stringPath);
+        logger.info("Called: POST /api/node/upload with path: " + path.toString());
+        if (!Tree.isCreated()) {
+            logger.warn("Error: Tree not yet created");
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED);
+        }
+        Tree.getCheckedRealPath(path);
+        try {
+            return this.uploadService.startUpload(path);
+        } catch(IOException e) {
+            logger.warn("Error: " + e.toString());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    
+    /** 
+     * @param id
+     * @return Upload
+     */
+    @GetMapping("/{id}")
+    public Upload getUpload(@PathVariable String id) {
+        logger.info("Called: GET /api/node/upload/" + id);
+        return this.findUpload(id);
+    }
+
+    
+    /** 
+     * @param id
+     * @param offset
+     * @param content
+     * @return Upload
+     */
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public Upload putChunk(@PathVariable String id, @RequestParam long offset, InputStream content) {
+        logger.info("Called: PUT /api/node/upload/" + id + "?offset=" + offset);
+        Upload upload = this.findUpload(id);
+        try {
+            return this.uploadService.appendChunk(upload, offset, content);
+        } catch(IllegalStateException e) {
+            logger.warn("Error: " + e.getMessage());
+            throw new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage());
+        } catch(IOException e) {
+            logger.warn("Error: " + e.toString());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    
+    /** 
+     * @param id
+     * @param overwrite
+     * @return Node
+     */
+    @PostMapping("/{id}/complete")
+    public Node postComplete(@PathVariable String id, @RequestParam(defaultValue = "false") boolean overwrite) {
+        logger.info("Called: POST /api/node/upload/" + id + "/complete");
+        if (!Tree.isCreated()) {
+            logger.warn("Error: Tree not yet created");
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED);
+        }
+        Upload upload = this.findUpload(id);
+        try {
+            return this.uploadService.completeUpload(upload, overwrite);
+        } catch(FileAlreadyExistsException e) {
+            logger.warn("Error: File already exists (" + e.getMessage() + ")");
+            throw new ResponseStatusException(HttpStatus.CONFLICT);
+        } catch(IOException e) {
+            logger.warn("Error: " + e.toString());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    
+    /** 
+     * @param id
+     */
+    @DeleteMapping("/{id}")
+    public void deleteUpload(@PathVariable String id) {
+        logger.info("Called: DELETE /api/node/upload/" + id);
+        Upload upload = this.findUpload(id);
+        try {
+            this.uploadService.abortUpload(upload);
+        } catch(IOException e) {
+            logger.warn("Error: " + e.toString());
+            throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    
+    /** 
+     * @param id
+     * @return Upload
+     */
+    private Upload findUpload(String id) {
+        Upload upload = this.uploadService.getUpload(id);
+        if (upload == null) {
+            logger.warn("Error: Upload not found");
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        return upload;
+    }}
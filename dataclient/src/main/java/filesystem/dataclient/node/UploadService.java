@@ -0,0 +1,310 @@
+package filesystem.dataclient.node;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import filesystem.dataclient.tree.Tree;
+import filesystem.dataclient.tree.TreeChange;
+import filesystem.dataclient.tree.TreeJournal;
+
+@Service
+public class UploadService {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String PATH_SUFFIX = ".path";
+    // bytes handed to the channel per transfer, the request body is never held as a whole
+    private static final long TRANSFER_SIZE = 8 * 1024 * 1024;
+
+    private final Tree tree;
+    private final TreeJournal treeJournal;
+    private final NodeService nodeService;
+    private final MappedFileCache mappedFileCache;
+    private final Path directory;
+    private final Duration expiration;
+    private final Map<String, Upload> uploads = new ConcurrentHashMap<String, Upload>();
+    private static Logger logger = LoggerFactory.getLogger(UploadService.class);
+
+    @Autowired
+    public UploadService(Tree tree, TreeJournal treeJournal, NodeService nodeService, MappedFileCache mappedFileCache, @Value("${dataclient.upload.directory:${java.io.tmpdir}/dataclient-uploads}") String directory, @Value("${dataclient.upload.expiration:24h}") Duration expiration) throws IOException {
+        this.tree = tree;
+        this.treeJournal = treeJournal;
+        this.nodeService = nodeService;
+        this.mappedFileCache = mappedFileCache;
+        this.directory = Files.createDirectories(Paths.get(directory));
+        this.expiration = expiration;
+        this.recoverUploads();
+    }
+
+    
+    /** 
+     * @throws IOException
+     */
+    // uploads survive a restart, their target path is kept next to the received bytes
+    private void recoverUploads() throws IOException {
+        try (DirectoryStream<Path> pathFiles = Files.newDirectoryStream(this.directory, "*" + PATH_SUFFIX)) {
+            for (Path pathFile:pathFiles) {
+                String fileName = pathFile.getFileName().toString();
+                String id = fileName.substring(0, fileName.length() - PATH_SUFFIX.length());
+                Path partFile = this.getPartFile(id);
+                if (Files.exists(partFile)) {
+                    String path = Files.readString(pathFile, StandardCharsets.UTF_8);
+                    this.uploads.put(id, new Upload(id, path, Files.size(partFile), Files.getLastModifiedTime(partFile).toMillis()));
+                }
+            }
+        }
+        if (!this.uploads.isEmpty()) {
+            logger.info("Recovered " + this.uploads.size() + " unfinished uploads from " + this.directory.toString());
+        }
+    }
+
+    
+    /** 
+     * @param path
+     * @param content
+     * @param overwrite
+     * @return Node
+     * @throws IOException
+     */
+    public Node uploadFile(Path path, InputStream content, boolean overwrite) throws IOException {
+        Path partFile = Files.createTempFile(this.directory, "upload-", PART_SUFFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(partFile, StandardOpenOption.WRITE)) {
+                this.transfer(content, channel, 0);
+            }
+            return this.moveIntoPlace(partFile, path, overwrite);
+        } finally {
+            Files.deleteIfExists(partFile);
+        }
+    }
+
+    
+    /** 
+     * @param path
+     * @return Upload
+     * @throws IOException
+     */
+    public Upload startUpload(Path path) throws IOException {
+        String id = UUID.randomUUID().toString();
+        Files.createFile(this.getPartFile(id));
+        Files.writeString(this.getPathFile(id), path.toString(), StandardCharsets.UTF_8);
+        Upload upload = new Upload(id, path.toString(), 0, System.currentTimeMillis());
+        this.uploads.put(id, upload);
+        return upload;
+    }
+
+    
+    /** 
+     * @param id
+     * @return Upload
+     */
+    // null if there is no unfinished upload with this id
+    public Upload getUpload(String id) {
+        return this.uploads.get(id);
+    }
+
+    
+    /** 
+     * @param upload
+     * @param offset
+     * @param content
+     * @return Upload
+     * @throws IOException
+     */
+    // a chunk has to start where the previous one ended, so a client resumes at the offset of the upload
+    public Upload appendChunk(Upload upload, long offset, InputStream content) throws IOException {
+        upload.lock();
+        try {
+            if (offset != upload.getOffset()) {
+                throw new IllegalStateException("Chunk starts at " + offset + " but the upload continues at " + upload.getOffset());
+            }
+            try (FileChannel channel = FileChannel.open(this.getPartFile(upload.getId()), StandardOpenOption.WRITE)) {
+                try {
+                    this.transfer(content, channel, offset);
+                } finally {
+                    // bytes of an interrupted chunk are kept, the client continues after them
+                    upload.setOffset(channel.size());
+                }
+            }
+            return upload;
+        } finally {
+            upload.unlock();
+        }
+    }
+
+    
+    /** 
+     * @param upload
+     * @param overwrite
+     * @return Node
+     * @throws IOException
+     */
+    public Node completeUpload(Upload upload, boolean overwrite) throws IOException {
+        upload.lock();
+        try {
+            Node node = this.moveIntoPlace(this.getPartFile(upload.getId()), Paths.get(upload.getPath()), overwrite);
+            this.removeUpload(upload);
+            return node;
+        } finally {
+            upload.unlock();
+        }
+    }
+
+    
+    /** 
+     * @param upload
+     * @throws IOException
+     */
+    public void abortUpload(Upload upload) throws IOException {
+        upload.lock();
+        try {
+            Files.deleteIfExists(this.getPartFile(upload.getId()));
+            this.removeUpload(upload);
+        } finally {
+            upload.unlock();
+        }
+    }
+
+    
+    /** 
+     * @param upload
+     * @throws IOException
+     */
+    private void removeUpload(Upload upload) throws IOException {
+        this.uploads.remove(upload.getId());
+        Files.deleteIfExists(this.getPathFile(upload.getId()));
+    }
+
+    
+    /** 
+     * @throws IOException
+     */
+    // uploads a client gave up on would keep their bytes in the upload directory forever
+    @Scheduled(fixedDelayString = "${dataclient.upload.cleanup-interval:3600000}", initialDelayString = "${dataclient.upload.cleanup-interval:3600000}")
+    public void removeExpiredUploads() throws IOException {
+        long expired = System.currentTimeMillis() - this.expiration.toMillis();
+        for (Upload upload:this.uploads.values()) {
+            // an upload receiving a chunk right now is skipped, it is continued after all
+            if (upload.getUpdated() < expired && upload.tryLock()) {
+                try {
+                    if (this.uploads.containsKey(upload.getId())) {
+                        logger.info("Removing upload " + upload.getId() + " of " + upload.getPath() + ", it was not continued for " + this.expiration.toString());
+                        Files.deleteIfExists(this.getPartFile(upload.getId()));
+                        this.removeUpload(upload);
+                    }
+                } finally {
+                    upload.unlock();
+                }
+            }
+        }
+        // files left behind by a crash, like the part file of an upload without its path file
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, "*{" + PART_SUFFIX + "," + PATH_SUFFIX + "}")) {
+            for (Path file:files) {
+                String fileName = file.getFileName().toString();
+                String id = fileName.substring(0, fileName.lastIndexOf('.'));
+                if (!this.uploads.containsKey(id) && Files.getLastModifiedTime(file).toMillis() < expired) {
+                    logger.info("Removing abandoned upload file " + file.toString());
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    
+    /** 
+     * @param content
+     * @param channel
+     * @param position
+     * @throws IOException
+     */
+    private void transfer(InputStream content, FileChannel channel, long position) throws IOException {
+        ReadableByteChannel source = Channels.newChannel(content);
+        long transferred;
+        while ((transferred = channel.transferFrom(source, position, TRANSFER_SIZE)) > 0) {
+            position += transferred;
+        }
+    }
+
+    
+    /** 
+     * @param partFile
+     * @param path
+     * @param overwrite
+     * @return Node
+     * @throws IOException
+     */
+    // readers see either the old or the complete new file, never a partially written one
+    private Node moveIntoPlace(Path partFile, Path path, boolean overwrite) throws IOException {
+        Path realPath = Tree.getRealPath(path);
+        if (!Tree.contains(realPath)) {
+            // recovered uploads werent checked by the controller
+            throw new IOException("Path '" + path + "' is outside of the tree");
+        }
+        this.tree.lock();
+        try {
+            Node parent = path.getParent() == null ? this.tree.getRoot() : this.nodeService.createDirectory(path.getParent());
+            boolean exists = Files.exists(realPath);
+            if (exists && (!overwrite || Files.isDirectory(realPath))) {
+                throw new FileAlreadyExistsException(realPath.toString());
+            }
+            try {
+                Files.move(partFile, realPath, StandardCopyOption.ATOMIC_MOVE);
+            } catch(AtomicMoveNotSupportedException e) {
+                logger.warn("Upload directory " + this.directory.toString() + " is not on the filesystem of the tree, moving " + path.toString() + " without atomicity");
+                Files.move(partFile, realPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+            // the regions of a replaced file map the old content, which stays allocated until they are unmapped
+            this.mappedFileCache.invalidate(realPath);
+            File file = realPath.toFile();
+            Node node = parent.getChild(file);
+            if (node == null) {
+                node = parent.addChild(file);
+                this.treeJournal.record(TreeChange.Type.CREATED, realPath);
+            } else {
+                this.treeJournal.record(TreeChange.Type.MODIFIED, realPath);
+            }
+            return node;
+        } finally {
+            this.tree.unlock();
+        }
+    }
+
+    
+    /** 
+     * @param id
+     * @return Path
+     */
+    private Path getPartFile(String id) {
+        return this.directory.resolve(id + PART_SUFFIX);
+    }
+
+    
+    /** 
+     * @param id
+     * @return Path
+     */
+    private Path getPathFile(String id) {
+        return this.directory.resolve(id + PATH_SUFFIX);
+    }
+}
@@ -1,11 +1,14 @@
 package filesystem.dataclient.tree;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
 import filesystem.dataclient.node.Node;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 public class Tree {
@@ -16,6 +19,10 @@ public class Tree {
     @JsonUnwrapped
     private Node root;
 
+    // guards the nodes of the tree, a lock instead of a monitor so a virtual thread doing file io while holding it doesnt pin its carrier thread
+    @JsonIgnore
+    private final ReentrantLock lock = new ReentrantLock();
+
     public Tree(Node root) {
         this.root = root;
     }
@@ -36,6 +43,39 @@ public class Tree {
         this.root = root;
     }
 
+    // has to be released with unlock in a finally block
+    public void lock() {
+        this.lock.lock();
+    }
+
+    public void unlock() {
+        this.lock.unlock();
+    }
+
+    
+    /** 
+     * @param realPath
+     * @return Node
+     */
+    // walks the path segment by segment, so a lookup costs O(depth) instead of O(tree size)
+    public Node findNode(Path realPath) {
+        if (this.root == null || !realPath.startsWith(Tree.getPath())) {
+            return null;
+        }
+        Node node = this.root;
+        for (Path segment:Tree.getPath().relativize(realPath)) {
+            String name = segment.toString();
+            if (name.isEmpty()) {
+                continue;
+            }
+            node = node.getChild(name);
+            if (node == null) {
+                return null;
+            }
+        }
+        return node;
+    }
+
     
     /** 
      * @return Path
@@ -57,8 +97,41 @@ public class Tree {
      * @param path
      * @return Path
      */
+    // normalized, so a path containing .. can be checked with contains before it is used
     public static Path getRealPath(Path path) {
-        return Paths.get(Tree.getPath().toString(), path.toString());
+        return Paths.get(Tree.getPath().toString(), path.toString()).normalize();
+    }
+
+    
+    /** 
+     * @param realPath
+     * @return boolean
+     */
+    public static boolean contains(Path realPath) {
+        return realPath.normalize().startsWith(Tree.getPath());
+    }
+
+    
+    /** 
+     * @param path
+     * @return Path
+     */
+    // paths of requests leaving the tree with .. are rejected with 400 before anything is read or written
+    public static Path getCheckedRealPath(Path path) {
+        Path realPath = Tree.getRealPath(path);
+        if (!Tree.contains(realPath)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Path outside of the tree");
+        }
+        return realPath;
+    }
+
+    
+    /** 
+     * @param realPath
+     * @return String
+     */
+    public static String getRelativePath(Path realPath) {
+        return Tree.getPath().getRoot().resolve(Tree.getPath().relativize(realPath)).toString();
     }
 
     
@@ -0,0 +1,48 @@
+package filesystem.dataclient.tree;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({"sequence", "type", "path"})
+public class TreeChange {
+
+    public enum Type {
+        CREATED,
+        DELETED,
+        MODIFIED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final String path;
+
+    public TreeChange(long sequence, Type type, String path) {
+        this.sequence = sequence;
+        this.type = type;
+        this.path = path;
+    }
+
+    
+    /** 
+     * @return long
+     */
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    
+    /** 
+     * @return Type
+     */
+    public Type getType() {
+        return this.type;
+    }
+
+    
+    /** 
+     * @return String
+     */
+    // path relative to the root of the tree, in the same format as the paths of the node api
+    public String getPath() {
+        return this.path;
+    }
+}
@@ -0,0 +1,44 @@
+package filesystem.dataclient.tree;
+
+import java.util.List;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({"sequence", "complete", "changes"})
+public class TreeChanges {
+
+    private final long sequence;
+    private final boolean complete;
+    private final List<TreeChange> changes;
+
+    public TreeChanges(long sequence, boolean complete, List<TreeChange> changes) {
+        this.sequence = sequence;
+        this.complete = complete;
+        this.changes = changes;
+    }
+
+    
+    /** 
+     * @return long
+     */
+    // sequence number of the last change, to be passed as 'since' on the next request
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    
+    /** 
+     * @return boolean
+     */
+    // false if the requested changes are no longer in the journal, the whole tree has to be fetched again then
+    public boolean isComplete() {
+        return this.complete;
+    }
+
+    
+    /** 
+     * @return List<TreeChange>
+     */
+    public List<TreeChange> getChanges() {
+        return this.changes;
+    }
+}
@@ -9,28 +9,38 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping(path = "/api/tree")
 public class TreeController {
 
+    // sequence number of the change journal the returned tree corresponds to
+    public static final String SEQUENCE_HEADER = "X-Tree-Sequence";
+
     private Tree tree;
     private final TreeService treeService;
+    private final TreeJournal treeJournal;
+    private final TreeWriter treeWriter;
     private static Logger logger = LoggerFactory.getLogger(TreeController.class);
 
     @Autowired
-    public TreeController(Tree tree, TreeService treeService) {
+    public TreeController(Tree tree, TreeService treeService, TreeJournal treeJournal, TreeWriter treeWriter) {
         this.tree = tree;
         this.treeService = treeService;
+        this.treeJournal = treeJournal;
+        this.treeWriter = treeWriter;
     }
 
     
     /** 
      * @param stringPath
-     * @return Tree
+     * @return ResponseEntity<StreamingResponseBody>
      */
     @PostMapping
-    public Tree postTree(@RequestBody String stringPath) {
+    public ResponseEntity<StreamingResponseBody> postTree(@RequestBody String stringPath) {
         Path rootPath = Paths.get(stringPath);
         logger.info("Called: POST /api/tree with path: " + rootPath.toString());
         try {
@@ -48,20 +58,50 @@ public class TreeController {
             throw new ResponseStatusException(HttpStatus.FORBIDDEN);
         }
         this.tree = this.treeService.initTree(rootPath);
-        return this.tree;
+        return this.streamTree();
     }
 
     
     /** 
-     * @return Tree
+     * @return ResponseEntity<StreamingResponseBody>
      */
     @GetMapping
-    public Tree getTree() {
+    public ResponseEntity<StreamingResponseBody> getTree() {
         logger.info("Called: GET /api/tree");
         if (!Tree.isCreated()) {
             logger.warn("Error: Tree not initialized yet");
             throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED);
         }
-        return this.tree;
+        return this.streamTree();
+    }
+
+    
+    /** 
+     * @return ResponseEntity<StreamingResponseBody>
+     */
+    // the tree is written node by node while the response is sent, so it is never buffered as a whole
+    private ResponseEntity<StreamingResponseBody> streamTree() {
+        // replaying changes that are already part of the tree is harmless, so the sequence is read before serializing
+        long sequence = this.treeJournal.getSequence();
+        Tree currentTree = this.tree;
+        return ResponseEntity.ok()
+            .header(SEQUENCE_HEADER, String.valueOf(sequence))
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(outputStream -> this.treeWriter.write(currentTree, outputStream));
+    }
+
+    
+    /** 
+     * @param since
+     * @return TreeChanges
+     */
+    @GetMapping(path = "/changes")
+    public TreeChanges getChanges(@RequestParam long since) {
+        logger.info("Called: GET /api/tree/changes?since=" + since);
+        if (!Tree.isCreated()) {
+            logger.warn("Error: Tree not initialized yet");
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_REQUIRED);
+        }
+        return this.treeJournal.getTreeChanges(since);
     }
 }
@@ -0,0 +1,111 @@
+package filesystem.dataclient.tree;
+
+import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import filesystem.dataclient.node.Node;
+
+@Component
+public class TreeJournal {
+
+    private final int capacity;
+    private final Deque<TreeChange> changes = new ArrayDeque<TreeChange>();
+
+    // last sequence number handed out
+    private long sequence = 0;
+    // changes after this sequence number are complete, anything before it requires a full resync
+    private long baseSequence = 0;
+
+    @Autowired
+    public TreeJournal(@Value("${dataclient.tree.journal-capacity:100000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    
+    /** 
+     * @param type
+     * @param realPath
+     * @return long
+     */
+    public synchronized long record(TreeChange.Type type, Path realPath) {
+        this.sequence++;
+        this.changes.addLast(new TreeChange(this.sequence, type, Tree.getRelativePath(realPath)));
+        if (this.changes.size() > this.capacity) {
+            this.baseSequence = this.changes.removeFirst().getSequence();
+        }
+        return this.sequence;
+    }
+
+    
+    /** 
+     * @param node
+     */
+    // records the node and all of its descendants as created, parents before their children
+    public synchronized void recordCreated(Node node) {
+        this.record(TreeChange.Type.CREATED, node.getFile().toPath());
+        for (Node child:node.getChildren()) {
+            this.recordCreated(child);
+        }
+    }
+
+    
+    /** 
+     * @return long
+     */
+    public synchronized long getSequence() {
+        return this.sequence;
+    }
+
+    
+    /** 
+     * @param since
+     * @return boolean
+     */
+    public synchronized boolean isComplete(long since) {
+        return since >= this.baseSequence && since <= this.sequence;
+    }
+
+    
+    /** 
+     * @param since
+     * @return List<TreeChange>
+     */
+    public synchronized List<TreeChange> getChangesSince(long since) {
+        List<TreeChange> result = new ArrayList<TreeChange>();
+        Iterator<TreeChange> iterator = this.changes.descendingIterator();
+        while (iterator.hasNext()) {
+            TreeChange change = iterator.next();
+            if (change.getSequence() <= since) {
+                break;
+            }
+            result.add(change);
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    
+    /** 
+     * @param since
+     * @return TreeChanges
+     */
+    public synchronized TreeChanges getTreeChanges(long since) {
+        if (!this.isComplete(since)) {
+            return new TreeChanges(this.sequence, false, Collections.emptyList());
+        }
+        return new TreeChanges(this.sequence, true, this.getChangesSince(since));
+    }
+
+    // drops all recorded changes, consumers that are behind the current sequence have to fetch the whole tree again
+    public synchronized void reset() {
+        this.changes.clear();
+        this.baseSequence = this.sequence;
+    }
+}
@@ -0,0 +1,87 @@
+package filesystem.dataclient.tree;
+
+import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import javax.annotation.PreDestroy;
+import filesystem.dataclient.node.Node;
+
+@Component
+public class TreeScanner {
+
+    private static Logger logger = LoggerFactory.getLogger(TreeScanner.class);
+
+    private final ForkJoinPool pool;
+
+    @Autowired
+    public TreeScanner(@Value("${dataclient.tree.scan-parallelism:0}") int parallelism) {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    
+    /** 
+     * @return int
+     */
+    public int getParallelism() {
+        return this.pool.getParallelism();
+    }
+
+    
+    /** 
+     * @param node
+     */
+    // populates the children of the node and all of its subdirectories, every directory is listed by its own task
+    public void scan(Node node) {
+        this.pool.invoke(new ScanTask(node));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.pool.shutdownNow();
+    }
+
+    // each task only touches the children of its own node, so no locking is needed while the tree is built
+    private static class ScanTask extends RecursiveAction {
+
+        private final Node node;
+
+        ScanTask(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        protected void compute() {
+            Path path = this.node.getFile().toPath();
+            if (!Files.isReadable(path)) {
+                return;
+            }
+            List<ScanTask> subtasks = new ArrayList<ScanTask>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path)) {
+                for (Path child:stream) {
+                    Node childNode = this.node.addChild(child.toFile());
+                    // symbolic links are not followed to avoid scanning cycles
+                    if (Files.isDirectory(child, LinkOption.NOFOLLOW_LINKS)) {
+                        subtasks.add(new ScanTask(childNode));
+                    }
+                }
+            } catch (IOException e) {
+                logger.warn("Error: Could not list directory " + path.toString() + ": " + e.toString());
+            }
+            invokeAll(subtasks);
+        }
+    }
+}
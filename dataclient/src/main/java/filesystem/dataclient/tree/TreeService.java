@@ -2,19 +2,28 @@ package filesystem.dataclient.tree;
 
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Path;
-import java.nio.file.Files;
 import filesystem.dataclient.node.Node;
 
 @Service
 public class TreeService {
 
     private final Tree tree;
+    private final TreeScanner treeScanner;
+    private final TreeWatcher treeWatcher;
+    private final TreeJournal treeJournal;
+    private static Logger logger = LoggerFactory.getLogger(TreeService.class);
 
     @Autowired
-    public TreeService(Tree tree) {
+    public TreeService(Tree tree, TreeScanner treeScanner, TreeWatcher treeWatcher, TreeJournal treeJournal) {
         this.tree = tree;
+        this.treeScanner = treeScanner;
+        this.treeWatcher = treeWatcher;
+        this.treeJournal = treeJournal;
     }
 
     
@@ -23,29 +32,25 @@ public class TreeService {
      * @return Tree
      */
     public Tree initTree(Path rootPath) {
+        // real paths are normalized, so the root has to be too
+        rootPath = rootPath.normalize();
         File rootFile = rootPath.toFile();
         Node root = new Node();
         root.setFile(rootFile);
-        Tree.setPath(rootPath);
-        this.tree.setRoot(root);
-        expandNode(root);
-        return tree;
-    }
-
-    
-    /** 
-     * @param node
-     */
-    private void expandNode(Node node) {
-        File file = node.getFile();
-        if (!Files.isReadable(file.toPath())) {
-            return;
+        this.treeScanner.scan(root);
+        this.tree.lock();
+        try {
+            Tree.setPath(rootPath);
+            this.tree.setRoot(root);
+            this.treeJournal.reset();
+        } finally {
+            this.tree.unlock();
         }
-        for (File child:file.listFiles()) {
-            node.addChild(child);
-            if (child.isDirectory()) {
-                expandNode(node.getChild(child));
-            }
+        try {
+            this.treeWatcher.start(root);
+        } catch (IOException e) {
+            logger.warn("Error: Could not watch " + rootPath.toString() + " for changes: " + e.toString());
         }
+        return tree;
     }
 }
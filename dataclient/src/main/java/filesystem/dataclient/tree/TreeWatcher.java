@@ -0,0 +1,221 @@
+package filesystem.dataclient.tree;
+
+import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.annotation.PreDestroy;
+import filesystem.dataclient.node.MappedFileCache;
+import filesystem.dataclient.node.Node;
+
+@Component
+public class TreeWatcher {
+
+    private static Logger logger = LoggerFactory.getLogger(TreeWatcher.class);
+
+    private final Tree tree;
+    private final TreeScanner treeScanner;
+    private final TreeJournal treeJournal;
+    private final MappedFileCache mappedFileCache;
+    // the watched node instead of its path, inotify keeps following a renamed directory and so does the node (see Node.moveTo)
+    private final Map<WatchKey, Node> directories = new ConcurrentHashMap<WatchKey, Node>();
+    private WatchService watchService;
+    private Thread thread;
+    // guards the watch service and the thread, registering the directories of the tree does file io
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Autowired
+    public TreeWatcher(Tree tree, TreeScanner treeScanner, TreeJournal treeJournal, MappedFileCache mappedFileCache) {
+        this.tree = tree;
+        this.treeScanner = treeScanner;
+        this.treeJournal = treeJournal;
+        this.mappedFileCache = mappedFileCache;
+    }
+
+    
+    /** 
+     * @param root
+     * @throws IOException
+     */
+    // (re)starts watching, has to be called whenever the root of the tree is replaced
+    public void start(Node root) throws IOException {
+        this.lock.lock();
+        try {
+            this.stop();
+            this.watchService = FileSystems.getDefault().newWatchService();
+            this.tree.lock();
+            try {
+                this.register(root);
+            } finally {
+                this.tree.unlock();
+            }
+            WatchService currentWatchService = this.watchService;
+            this.thread = new Thread(() -> this.processEvents(currentWatchService), "tree-watcher");
+            this.thread.setDaemon(true);
+            this.thread.start();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        this.lock.lock();
+        try {
+            if (this.watchService == null) {
+                return;
+            }
+            try {
+                this.watchService.close();
+            } catch (IOException e) {
+                logger.warn("Error: " + e.toString());
+            }
+            this.thread.interrupt();
+            this.directories.clear();
+            this.watchService = null;
+            this.thread = null;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    
+    /** 
+     * @param node
+     */
+    private void register(Node node) {
+        Path path = node.getFile().toPath();
+        if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        try {
+            WatchKey key = path.register(this.watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+            this.directories.put(key, node);
+        } catch (IOException e) {
+            logger.warn("Error: Could not watch directory " + path.toString() + ": " + e.toString());
+            return;
+        }
+        for (Node child:node.getChildren()) {
+            this.register(child);
+        }
+    }
+
+    
+    /** 
+     * @param watchService
+     */
+    private void processEvents(WatchService watchService) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            Node directory = this.directories.get(key);
+            for (WatchEvent<?> event:key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    this.rescan();
+                    return;
+                }
+                if (directory == null) {
+                    continue;
+                }
+                try {
+                    this.applyEvent(event.kind(), directory, (Path) event.context());
+                } catch (RuntimeException e) {
+                    // the tree may be inconsistent now, so it is rebuilt instead of letting the watcher die
+                    logger.warn("Error: Could not apply " + event.kind().name() + " of " + event.context() + ": " + e.toString());
+                    this.rescan();
+                    return;
+                }
+            }
+            if (!key.reset()) {
+                this.directories.remove(key);
+            }
+        }
+    }
+
+    
+    /** 
+     * @param kind
+     * @param directory
+     * @param name
+     */
+    private void applyEvent(WatchEvent.Kind<?> kind, Node directory, Path name) {
+        this.tree.lock();
+        try {
+            Path directoryPath = directory.getFile().toPath();
+            if (this.tree.findNode(directoryPath) != directory) {
+                // the watched directory was removed from the tree, its remaining events are outdated
+                return;
+            }
+            Path realPath = directoryPath.resolve(name);
+            Node node = this.tree.findNode(realPath);
+            if (node != null && node.getParent() == null) {
+                // events of the root itself cant be applied to the tree
+                return;
+            }
+            if (kind == StandardWatchEventKinds.ENTRY_CREATE && node == null) {
+                if (Files.notExists(realPath, LinkOption.NOFOLLOW_LINKS)) {
+                    return;
+                }
+                node = directory.addChild(realPath.toFile());
+                if (Files.isDirectory(realPath, LinkOption.NOFOLLOW_LINKS)) {
+                    // the directory may already have content, e.g. when it was moved into the tree
+                    this.treeScanner.scan(node);
+                    this.register(node);
+                }
+                this.treeJournal.recordCreated(node);
+            } else if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+                // directories created through the node service are already in the tree, but not watched yet
+                this.register(node);
+            } else if (kind == StandardWatchEventKinds.ENTRY_DELETE && node != null) {
+                node.getParent().removeChild(node);
+                // files changed outside of the node api arent mapped anymore either
+                this.mappedFileCache.invalidate(realPath);
+                this.treeJournal.record(TreeChange.Type.DELETED, realPath);
+            } else if (kind == StandardWatchEventKinds.ENTRY_MODIFY && node != null && !Files.isDirectory(realPath, LinkOption.NOFOLLOW_LINKS)) {
+                this.mappedFileCache.invalidate(realPath);
+                this.treeJournal.record(TreeChange.Type.MODIFIED, realPath);
+            }
+        } finally {
+            this.tree.unlock();
+        }
+    }
+
+    // events were lost, so the tree is rebuilt from disk and consumers of the journal have to resync
+    private void rescan() {
+        logger.warn("Watch events overflowed, rescanning " + Tree.getPath().toString());
+        File rootFile = Tree.getPath().toFile();
+        Node root = new Node();
+        root.setFile(rootFile);
+        this.treeScanner.scan(root);
+        this.tree.lock();
+        try {
+            this.tree.setRoot(root);
+            this.treeJournal.reset();
+        } finally {
+            this.tree.unlock();
+        }
+        try {
+            this.start(root);
+        } catch (IOException e) {
+            logger.warn("Error: " + e.toString());
+        }
+    }
+}
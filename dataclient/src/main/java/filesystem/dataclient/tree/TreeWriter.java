@@ -0,0 +1,96 @@
+package filesystem.dataclient.tree;
+
+import org.springframework.stereotype.Component;
+import org.springframework.beans.factory.annotation.Autowired;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import filesystem.dataclient.node.Node;
+
+/** 
+ * Writes the tree as json without building the json in memory. The writer still takes a snapshot of the
+ * names and child counts of all N nodes under the tree lock, so the lock is held for O(N) time and the
+ * snapshot takes O(N) memory, only the json itself isnt held in memory.
+ */
+@Component
+public class TreeWriter {
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public TreeWriter(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    
+    /** 
+     * @param tree
+     * @param outputStream
+     * @throws IOException
+     */
+    // writes the same json as serializing the tree with jackson, but node by node instead of building it in memory
+    public void write(Tree tree, OutputStream outputStream) throws IOException {
+        // the tree is only held while taking the O(N) snapshot, a slow client must not block changes of the tree
+        Snapshot snapshot;
+        tree.lock();
+        try {
+            snapshot = new Snapshot();
+            snapshot.add(tree.getRoot());
+        } finally {
+            tree.unlock();
+        }
+        try (JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            this.writeNode(snapshot, 0, generator);
+        }
+    }
+
+    
+    /** 
+     * @param snapshot
+     * @param index
+     * @param generator
+     * @return int
+     * @throws IOException
+     */
+    // returns the index of the node following the subtree
+    private int writeNode(Snapshot snapshot, int index, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("name", snapshot.names[index]);
+        generator.writeArrayFieldStart("childNodes");
+        int next = index + 1;
+        for (int i = 0; i < snapshot.childCounts[index]; i++) {
+            next = this.writeNode(snapshot, next, generator);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        return next;
+    }
+
+    // the names and number of children of all nodes in depth-first order, the names are shared with the nodes
+    private static class Snapshot {
+
+        private String[] names = new String[1024];
+        private int[] childCounts = new int[1024];
+        private int size = 0;
+
+        
+        /** 
+         * @param node
+         */
+        private void add(Node node) {
+            if (this.size == this.names.length) {
+                this.names = Arrays.copyOf(this.names, this.size * 2);
+                this.childCounts = Arrays.copyOf(this.childCounts, this.size * 2);
+            }
+            this.names[this.size] = node.serializePath();
+            this.childCounts[this.size] = node.getChildren().size();
+            this.size++;
+            for (Node child:node.getChildren()) {
+                this.add(child);
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package filesystem.dataclient.benchmark;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import filesystem.dataclient.node.Node;
+import filesystem.dataclient.tree.Tree;
+
+// compares the path-indexed lookup of Tree.findNode against the breadth-first search it replaced
+// run with: mvn test-compile && java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" filesystem.dataclient.benchmark.NodeLookupBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeLookupBenchmark {
+
+    @Param({"10000", "100000", "300000"})
+    private int size;
+
+    private Tree tree;
+    private List<Path> paths;
+
+    
+    /** 
+     * @param args
+     * @throws RunnerException
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NodeLookupBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() {
+        Path rootPath = Paths.get("/benchmark");
+        Node root = new Node();
+        root.setFile(rootPath.toFile());
+        Tree.setPath(rootPath);
+        this.tree = new Tree(root);
+        this.paths = new ArrayList<Path>(this.size);
+
+        // ten directories per level, ten files per directory
+        Queue<Node> queue = new ArrayDeque<Node>();
+        queue.add(root);
+        while (this.paths.size() < this.size) {
+            Node parent = queue.remove();
+            for (int i = 0; i < 10 && this.paths.size() < this.size; i++) {
+                Node child = parent.addChild(new File(parent.getFile(), "entry" + i));
+                this.paths.add(child.getFile().toPath());
+                queue.add(child);
+            }
+        }
+    }
+
+    
+    /** 
+     * @return Node
+     */
+    @Benchmark
+    public Node indexedLookup() {
+        return this.tree.findNode(randomPath());
+    }
+
+    
+    /** 
+     * @return Node
+     */
+    @Benchmark
+    public Node breadthFirstLookup() {
+        Path realPath = randomPath();
+        Queue<Node> queue = new ArrayDeque<Node>();
+        queue.add(this.tree.getRoot());
+        while (!queue.isEmpty()) {
+            Node currentNode = queue.remove();
+            if (currentNode.getFile().toPath().equals(realPath)) {
+                return currentNode;
+            } else {
+                queue.addAll(currentNode.getChildren());
+            }
+        }
+        return null;
+    }
+
+    private Path randomPath() {
+        return this.paths.get(ThreadLocalRandom.current().nextInt(this.paths.size()));
+    }
+}
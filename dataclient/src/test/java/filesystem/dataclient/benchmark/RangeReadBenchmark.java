@@ -0,0 +1,120 @@
+package filesystem.dataclient.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import filesystem.dataclient.node.MappedFileCache;
+
+// compares range reads from mapped regions against reading the whole file with Files.readString and against opening the file for every read
+// run with: mvn test-compile && java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" filesystem.dataclient.benchmark.RangeReadBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RangeReadBenchmark {
+
+    @Param({"1048576", "67108864"})
+    private int fileSize;
+
+    @Param({"4096"})
+    private int rangeLength;
+
+    private Path filePath;
+    private MappedFileCache mappedFileCache;
+
+    
+    /** 
+     * @param args
+     * @throws RunnerException
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RangeReadBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        // readString needs valid utf-8, so the file only contains letters
+        byte[] content = new byte[this.fileSize];
+        Random random = new Random(0);
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) ('a' + random.nextInt(26));
+        }
+        this.filePath = Files.createTempFile("dataclient_range_benchmark", null);
+        Files.write(this.filePath, content);
+        this.mappedFileCache = new MappedFileCache(4 * 1024 * 1024, 64);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        this.mappedFileCache.clear();
+        Files.deleteIfExists(this.filePath);
+    }
+
+    
+    /** 
+     * @return byte[]
+     * @throws IOException
+     */
+    @Benchmark
+    public byte[] mappedRead() throws IOException {
+        return this.mappedFileCache.read(this.filePath, randomOffset(), this.rangeLength);
+    }
+
+    
+    /** 
+     * @return String
+     * @throws IOException
+     */
+    @Benchmark
+    public String readString() throws IOException {
+        int offset = (int) randomOffset();
+        return Files.readString(this.filePath, Charset.forName("utf-8")).substring(offset, offset + this.rangeLength);
+    }
+
+    
+    /** 
+     * @return ByteBuffer
+     * @throws IOException
+     */
+    @Benchmark
+    public ByteBuffer channelRead() throws IOException {
+        ByteBuffer content = ByteBuffer.allocate(this.rangeLength);
+        try (FileChannel channel = FileChannel.open(this.filePath, StandardOpenOption.READ)) {
+            long position = randomOffset();
+            int read;
+            while (content.hasRemaining() && (read = channel.read(content, position)) != -1) {
+                position += read;
+            }
+        }
+        return content;
+    }
+
+    private long randomOffset() {
+        return ThreadLocalRandom.current().nextInt(this.fileSize - this.rangeLength);
+    }
+}
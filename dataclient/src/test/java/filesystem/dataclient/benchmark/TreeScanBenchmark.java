@@ -0,0 +1,93 @@
+package filesystem.dataclient.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import filesystem.dataclient.node.Node;
+import filesystem.dataclient.tree.TreeScanner;
+
+// scans a synthetic directory tree (ten subdirectories and ten files per directory) with different parallelism levels
+// run with: mvn test-compile && java -cp "target/test-classes:target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" filesystem.dataclient.benchmark.TreeScanBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TreeScanBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int entries;
+
+    @Param({"1", "4", "16"})
+    private int parallelism;
+
+    private Path rootPath;
+    private TreeScanner treeScanner;
+
+    
+    /** 
+     * @param args
+     * @throws RunnerException
+     */
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TreeScanBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.rootPath = Files.createTempDirectory("dataclient-scan-benchmark");
+        this.treeScanner = new TreeScanner(this.parallelism);
+        Queue<Path> queue = new ArrayDeque<Path>();
+        queue.add(this.rootPath);
+        int created = 0;
+        while (created < this.entries) {
+            Path parent = queue.remove();
+            for (int i = 0; i < 10 && created < this.entries; i++, created++) {
+                queue.add(Files.createDirectory(parent.resolve("dir" + i)));
+            }
+            for (int i = 0; i < 10 && created < this.entries; i++, created++) {
+                Files.createFile(parent.resolve("file" + i));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        this.treeScanner.shutdown();
+        FileUtils.deleteDirectory(this.rootPath.toFile());
+    }
+
+    
+    /** 
+     * @return Node
+     */
+    @Benchmark
+    public Node scan() {
+        Node root = new Node();
+        root.setFile(this.rootPath.toFile());
+        this.treeScanner.scan(root);
+        return root;
+    }
+}
@@ -0,0 +1,110 @@
+package filesystem.dataclient.chunk;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.beans.factory.annotation.Autowired;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import filesystem.dataclient.tree.TreeService;
+
+// tests only run on linux! (because of /tmp directory), received chunks are stored below the test directory so they are removed with it
+@SpringBootTest(properties = "dataclient.chunk.directory=/tmp/dataclient_chunk_tests/chunks")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ChunkTests {
+
+    private final ChunkService chunkService;
+    private final TreeService treeService;
+    private final Path testPath = Paths.get("/tmp/dataclient_chunk_tests");
+
+    @Autowired
+    public ChunkTests(ChunkService chunkService, TreeService treeService) {
+        this.chunkService = chunkService;
+        this.treeService = treeService;
+    }
+
+    @BeforeAll
+    public void setUp() throws IOException {
+        Files.createDirectories(this.testPath);
+        this.treeService.initTree(Paths.get("/tmp"));
+    }
+
+    @AfterAll
+    public void cleanUp() throws IOException {
+        FileUtils.deleteDirectory(this.testPath.toFile());
+    }
+
+    @Test
+    public void chunkFile() throws IOException {
+        byte[] content = randomContent(4 * 1024 * 1024, 1);
+        Files.write(this.testPath.resolve("file1"), content);
+        FileChunks fileChunks = this.chunkService.getFileChunks(Paths.get("/dataclient_chunk_tests/file1"));
+        assertEquals(content.length, fileChunks.getSize());
+        long offset = 0;
+        for (Chunk chunk:fileChunks.getChunks()) {
+            assertEquals(offset, chunk.getOffset());
+            assertTrue(chunk.getLength() <= ContentChunker.MAX_CHUNK_SIZE);
+            offset += chunk.getLength();
+        }
+        assertEquals(content.length, offset);
+        assertEquals(ContentChunker.hash(content), fileChunks.getContentHash());
+    }
+
+    @Test
+    public void insertionKeepsChunks() throws IOException {
+        byte[] content = randomContent(4 * 1024 * 1024, 2);
+        byte[] shiftedContent = new byte[content.length + 100];
+        System.arraycopy(content, 0, shiftedContent, 100, content.length);
+        Files.write(this.testPath.resolve("file2"), content);
+        Files.write(this.testPath.resolve("file3"), shiftedContent);
+        List<Chunk> chunks = this.chunkService.getFileChunks(Paths.get("/dataclient_chunk_tests/file2")).getChunks();
+        List<Chunk> shiftedChunks = this.chunkService.getFileChunks(Paths.get("/dataclient_chunk_tests/file3")).getChunks();
+        Set<String> hashes = chunks.stream().map(Chunk::getHash).collect(Collectors.toSet());
+        Set<String> sharedHashes = new HashSet<String>(hashes);
+        sharedHashes.retainAll(shiftedChunks.stream().map(Chunk::getHash).collect(Collectors.toSet()));
+        // only the chunks around the insertion differ
+        assertTrue(sharedHashes.size() >= hashes.size() - 2);
+    }
+
+    @Test
+    public void assembleFile() throws IOException {
+        byte[] content = randomContent(1024 * 1024, 3);
+        Files.write(this.testPath.resolve("file4"), content);
+        List<String> hashes = this.chunkService.getFileChunks(Paths.get("/dataclient_chunk_tests/file4")).getChunks().stream().map(Chunk::getHash).collect(Collectors.toList());
+        assertTrue(this.chunkService.findMissingChunks(hashes).isEmpty());
+        this.chunkService.assembleFile(Paths.get("/dataclient_chunk_tests/file5"), hashes, false);
+        assertArrayEquals(content, Files.readAllBytes(this.testPath.resolve("file5")));
+    }
+
+    @Test
+    public void storeChunk() throws IOException {
+        byte[] chunk = randomContent(1000, 4);
+        String hash = ContentChunker.hash(chunk);
+        assertEquals(List.of(hash), this.chunkService.findMissingChunks(List.of(hash, hash)));
+        assertThrows(IllegalArgumentException.class, () -> this.chunkService.storeChunk(hash, new byte[] {1}));
+        this.chunkService.storeChunk(hash, chunk);
+        assertTrue(this.chunkService.findMissingChunks(List.of(hash)).isEmpty());
+        assertArrayEquals(chunk, this.chunkService.readChunk(hash));
+    }
+
+    private byte[] randomContent(int length, long seed) {
+        byte[] content = new byte[length];
+        new Random(seed).nextBytes(content);
+        return content;
+    }
+}
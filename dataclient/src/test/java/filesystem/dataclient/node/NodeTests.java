@@ -1,9 +1,16 @@
 package filesystem.dataclient.node;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Order;
@@ -11,26 +18,45 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 import org.junit.jupiter.api.TestMethodOrder;
 import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import org.springframework.beans.factory.annotation.Autowired;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import filesystem.dataclient.tree.TreeService;
 
 // tests only run on linux! (because of /tmp directory)
 @SpringBootTest
+@AutoConfigureMockMvc
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @TestMethodOrder(OrderAnnotation.class)
 class NodeTests {
 
     private final NodeService nodeService;
+    private final UploadService uploadService;
+    private final MappedFileCache mappedFileCache;
     private final TreeService treeService;
+    private final MockMvc mockMvc;
 
     @Autowired
-    public NodeTests(NodeService nodeService, TreeService treeService) {
+    public NodeTests(NodeService nodeService, UploadService uploadService, MappedFileCache mappedFileCache, TreeService treeService, MockMvc mockMvc) {
         this.nodeService = nodeService;
+        this.uploadService = uploadService;
+        this.mappedFileCache = mappedFileCache;
         this.treeService = treeService;
+        this.mockMvc = mockMvc;
     }
 
     @BeforeAll
@@ -78,4 +104,136 @@ class NodeTests {
         this.nodeService.deleteNode(file1Path);
         assertTrue(Files.notExists(file1Path));
     }
+
+    @Test
+    @Order(6)
+    public void renameDirectory() throws IOException {
+        Node dirA = this.nodeService.renameNode(Paths.get("/dataclient_tests/dir1"), "dirA");
+        assertEquals(Paths.get("/tmp/dataclient_tests/dirA").toFile(), dirA.getFile());
+        Node dir3 = this.nodeService.createDirectory(Paths.get("/dataclient_tests/dirA/dir2/dir3"));
+        assertEquals(Paths.get("/tmp/dataclient_tests/dirA/dir2/dir3").toFile(), dir3.getFile());
+    }
+
+    @Test
+    @Order(7)
+    public void applyBatch() throws IOException {
+        List<NodeOperationResult> results = this.nodeService.applyBatch(List.of(
+            new NodeOperation(NodeOperation.Type.CREATE_DIRECTORY, "/dataclient_tests/batch", null, null),
+            new NodeOperation(NodeOperation.Type.CREATE_FILE, "/dataclient_tests/batch/file1", null, "batch content"),
+            new NodeOperation(NodeOperation.Type.RENAME, "/dataclient_tests/batch/file1", "file2", null),
+            new NodeOperation(NodeOperation.Type.DELETE, "/dataclient_tests/missing", null, null),
+            new NodeOperation(NodeOperation.Type.DELETE, "/dataclient_tests/dirA", null, null),
+            new NodeOperation(NodeOperation.Type.CREATE_DIRECTORY, "/dataclient_tests/missing/dir", null, null)));
+        assertEquals(6, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertFalse(results.get(3).isSuccess());
+        assertTrue(results.get(4).isSuccess());
+        assertFalse(results.get(5).isSuccess());
+        assertEquals("batch content", this.nodeService.readFile(Paths.get("/tmp/dataclient_tests/batch/file2")));
+        assertTrue(Files.notExists(Paths.get("/tmp/dataclient_tests/batch/file1")));
+        assertTrue(Files.notExists(Paths.get("/tmp/dataclient_tests/dirA")));
+        assertTrue(Files.notExists(Paths.get("/tmp/dataclient_tests/missing")));
+    }
+
+    @Test
+    @Order(8)
+    public void getFileContent() throws Exception {
+        byte[] content = new byte[] {0, 1, 2, (byte) 0xC3, (byte) 0x28, 5, 6, 7, 8, 9};
+        Files.write(Paths.get("/tmp/dataclient_tests/batch/binary"), content);
+        this.mockMvc.perform(get("/api/node/content").param("path", "/dataclient_tests/batch/binary"))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(content));
+        this.mockMvc.perform(get("/api/node/content").param("path", "/dataclient_tests/batch/binary").header(HttpHeaders.RANGE, "bytes=2-5"))
+            .andExpect(status().isPartialContent())
+            .andExpect(content().bytes(new byte[] {2, (byte) 0xC3, (byte) 0x28, 5}));
+        this.mockMvc.perform(get("/api/node/content").param("path", "/dataclient_tests/batch/missing"))
+            .andExpect(status().isNotFound());
+        this.mockMvc.perform(get("/api/node/content").param("path", "/../etc/hostname"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Order(9)
+    public void uploadFile() throws Exception {
+        byte[] content = new byte[] {(byte) 0xFF, 0, (byte) 0xC3, 1};
+        this.mockMvc.perform(put("/api/node/content").param("path", "/dataclient_tests/upload/file1").contentType(MediaType.APPLICATION_OCTET_STREAM).content(content))
+            .andExpect(status().isOk());
+        assertArrayEquals(content, Files.readAllBytes(Paths.get("/tmp/dataclient_tests/upload/file1")));
+        this.mockMvc.perform(put("/api/node/content").param("path", "/dataclient_tests/upload/file1").contentType(MediaType.APPLICATION_OCTET_STREAM).content(content))
+            .andExpect(status().isConflict());
+        this.mockMvc.perform(put("/api/node/content").param("path", "/dataclient_tests/upload/file1").param("overwrite", "true").contentType(MediaType.APPLICATION_OCTET_STREAM).content(new byte[] {2}))
+            .andExpect(status().isOk());
+        assertArrayEquals(new byte[] {2}, Files.readAllBytes(Paths.get("/tmp/dataclient_tests/upload/file1")));
+        this.mockMvc.perform(put("/api/node/content").param("path", "/dataclient_tests/../../dataclient_outside").contentType(MediaType.APPLICATION_OCTET_STREAM).content(content))
+            .andExpect(status().isBadRequest());
+        assertTrue(Files.notExists(Paths.get("/dataclient_outside")));
+    }
+
+    @Test
+    @Order(10)
+    public void uploadFileInChunks() throws IOException {
+        Upload upload = this.uploadService.startUpload(Paths.get("/dataclient_tests/upload/file2"));
+        this.uploadService.appendChunk(upload, 0, new ByteArrayInputStream(new byte[] {1, 2, 3}));
+        // a chunk which doesnt continue at the offset is rejected
+        assertThrows(IllegalStateException.class, () -> this.uploadService.appendChunk(upload, 1, new ByteArrayInputStream(new byte[] {4})));
+        this.uploadService.appendChunk(upload, 3, new ByteArrayInputStream(new byte[] {4, 5}));
+        assertEquals(5, this.uploadService.getUpload(upload.getId()).getOffset());
+        assertTrue(Files.notExists(Paths.get("/tmp/dataclient_tests/upload/file2")));
+        Node file2 = this.uploadService.completeUpload(upload, false);
+        assertEquals(Paths.get("/tmp/dataclient_tests/upload/file2").toFile(), file2.getFile());
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 5}, Files.readAllBytes(Paths.get("/tmp/dataclient_tests/upload/file2")));
+        assertNull(this.uploadService.getUpload(upload.getId()));
+        // files of uploads abandoned before a restart are removed once they expired
+        Path abandoned = Paths.get(System.getProperty("java.io.tmpdir"), "dataclient-uploads", "abandoned.part");
+        Files.write(abandoned, new byte[] {1});
+        Files.setLastModifiedTime(abandoned, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        Upload unfinished = this.uploadService.startUpload(Paths.get("/dataclient_tests/upload/file3"));
+        this.uploadService.removeExpiredUploads();
+        assertTrue(Files.notExists(abandoned));
+        assertEquals(unfinished, this.uploadService.getUpload(unfinished.getId()));
+        this.uploadService.abortUpload(unfinished);
+    }
+
+    @Test
+    @Order(11)
+    public void readFileRange() throws Exception {
+        // spans two mapped regions
+        byte[] content = new byte[5 * 1024 * 1024];
+        new Random(1).nextBytes(content);
+        Path filePath = Files.createDirectories(Paths.get("/tmp/dataclient_tests/range")).resolve("file1");
+        Files.write(filePath, content);
+        int offset = 4 * 1024 * 1024 - 10;
+        this.mockMvc.perform(get("/api/node/range").param("path", "/dataclient_tests/range/file1").param("offset", String.valueOf(offset)).param("length", "20"))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(Arrays.copyOfRange(content, offset, offset + 20)));
+        // a changed file isnt read from the regions mapped before
+        Files.write(filePath, new byte[] {1, 2, 3});
+        this.mockMvc.perform(get("/api/node/range").param("path", "/dataclient_tests/range/file1").param("offset", "1").param("length", "20"))
+            .andExpect(status().isOk())
+            .andExpect(content().bytes(new byte[] {2, 3}));
+        this.mockMvc.perform(get("/api/node/range").param("path", "/dataclient_tests/range/file1").param("offset", "4").param("length", "20"))
+            .andExpect(status().isRequestedRangeNotSatisfiable());
+        this.mockMvc.perform(get("/api/node/range").param("path", "/dataclient_tests/range/file2").param("offset", "0").param("length", "20"))
+            .andExpect(status().isNotFound());
+        // the regions of deleted files are unmapped right away
+        assertTrue(this.mappedFileCache.size() > 0);
+        this.nodeService.deleteNode(Paths.get("/tmp/dataclient_tests/range"));
+        assertEquals(0, this.mappedFileCache.size());
+    }
+
+    @Test
+    @Order(12)
+    public void renameDirectoryWithChildren() throws IOException {
+        this.nodeService.createDirectory(Paths.get("/dataclient_tests/dirB/dir1/dir2"));
+        this.nodeService.createFile(Paths.get("/dataclient_tests/dirB/file1"), "first");
+        this.nodeService.createFile(Paths.get("/dataclient_tests/dirB/file2"), "second");
+        Node dirC = this.nodeService.renameNode(Paths.get("/dataclient_tests/dirB"), "dirC");
+        assertEquals(3, dirC.getChildren().size());
+        assertEquals(Paths.get("/tmp/dataclient_tests/dirC/file1").toFile(), dirC.getChild("file1").getFile());
+        assertEquals(Paths.get("/tmp/dataclient_tests/dirC/file2").toFile(), dirC.getChild("file2").getFile());
+        assertEquals(Paths.get("/tmp/dataclient_tests/dirC/dir1/dir2").toFile(), dirC.getChild("dir1").getChild("dir2").getFile());
+        assertEquals("second", this.nodeService.readFile(Paths.get("/tmp/dataclient_tests/dirC/file2")));
+    }
 }
@@ -1,21 +1,39 @@
 package filesystem.dataclient.tree;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.function.BooleanSupplier;
+import org.apache.commons.io.FileUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.beans.factory.annotation.Autowired;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import filesystem.dataclient.node.NodeService;
 
 // tests only run on linux! (because of /tmp directory)
 @SpringBootTest
 class TreeTests {
 
 	private final TreeService treeService;
+	private final TreeJournal treeJournal;
+	private final TreeWriter treeWriter;
+	private final NodeService nodeService;
+	private final ObjectMapper objectMapper;
 
     @Autowired
-    public TreeTests(TreeService treeService) {
+    public TreeTests(TreeService treeService, TreeJournal treeJournal, TreeWriter treeWriter, NodeService nodeService, ObjectMapper objectMapper) {
         this.treeService = treeService;
+        this.nodeService = nodeService;
+        this.treeJournal = treeJournal;
+        this.treeWriter = treeWriter;
+        this.objectMapper = objectMapper;
     }
 
 	@Test
@@ -24,4 +42,68 @@ class TreeTests {
 		Tree testTree = treeService.initTree(testPath);
 		assertEquals(testTree.getRoot().getFile().toPath(), testPath);
 	}
+
+	@Test
+	public void watchTree() throws IOException, InterruptedException {
+		Path testPath = Files.createTempDirectory("dataclient_watch_tests");
+		try {
+			Tree testTree = treeService.initTree(testPath);
+			long sequence = treeJournal.getSequence();
+			Path filePath = Files.createDirectory(testPath.resolve("dir1")).resolve("file1");
+			Files.createFile(filePath);
+			assertTrue(waitFor(() -> testTree.findNode(filePath) != null));
+			assertTrue(treeJournal.isComplete(sequence));
+			assertEquals("/dir1", treeJournal.getChangesSince(sequence).get(0).getPath());
+
+			Files.delete(filePath);
+			assertTrue(waitFor(() -> testTree.findNode(filePath) == null));
+		} finally {
+			FileUtils.deleteDirectory(testPath.toFile());
+		}
+	}
+
+	@Test
+	public void watchRenamedDirectory() throws IOException, InterruptedException {
+		Path testPath = Files.createTempDirectory("dataclient_watch_tests");
+		try {
+			Tree testTree = treeService.initTree(testPath);
+			Path directoryPath = Files.createDirectory(testPath.resolve("dir1"));
+			assertTrue(waitFor(() -> testTree.findNode(directoryPath) != null));
+			// the watch of the renamed directory has to resolve its events against the new path
+			nodeService.renameNode(Paths.get("/dir1"), "dir2");
+			Path filePath = Files.createFile(testPath.resolve("dir2/file1"));
+			assertTrue(waitFor(() -> testTree.findNode(filePath) != null));
+			// directories created below the renamed directory are watched as well
+			Path subPath = Files.createDirectory(testPath.resolve("dir2/dir3"));
+			assertTrue(waitFor(() -> testTree.findNode(subPath) != null));
+			Path subFilePath = Files.createFile(subPath.resolve("file2"));
+			assertTrue(waitFor(() -> testTree.findNode(subFilePath) != null));
+		} finally {
+			FileUtils.deleteDirectory(testPath.toFile());
+		}
+	}
+
+	@Test
+	public void writeTree() throws IOException {
+		Path testPath = Files.createTempDirectory("dataclient_writer_tests");
+		try {
+			Files.createFile(Files.createDirectories(testPath.resolve("dir1/dir2")).resolve("file1"));
+			Tree testTree = treeService.initTree(testPath);
+			ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+			treeWriter.write(testTree, outputStream);
+			assertEquals(objectMapper.writeValueAsString(testTree), outputStream.toString(StandardCharsets.UTF_8));
+		} finally {
+			FileUtils.deleteDirectory(testPath.toFile());
+		}
+	}
+
+	private boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			if (condition.getAsBoolean()) {
+				return true;
+			}
+			Thread.sleep(100);
+		}
+		return false;
+	}
 }
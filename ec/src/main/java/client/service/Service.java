@@ -8,6 +8,8 @@ import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse.BodyHandlers;
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -16,8 +18,12 @@ import org.json.JSONArray;
 
 public class Service {
 
+    // child nodes are fetched page by page, so huge directories dont have to be loaded at once
+    private static final int PAGE_SIZE = 100;
+
     private List<Node> currentNodes;
     private String parentId;
+    private String nextCursor;
     private String serverIP = "http://192.168.178.41:8080";
     private HttpClient client = HttpClient.newHttpClient();
     
@@ -49,6 +55,30 @@ public class Service {
         this.currentNodes = nodes;
     }
 
+    private void loadChildNodes(String parentId, String cursor) {
+        String uri = serverIP + "/api/nodes/" + parentId + "/children?limit=" + PAGE_SIZE + "&fields=id,name";
+        if (cursor != null) {
+            uri += "&cursor=" + cursor;
+        }
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(uri))
+                .GET()
+                .header("Content-Type", "application/json")
+                .build();
+        String response = this.sendToServer(request);
+        JSONObject jsonPage = new JSONObject(response);
+        JSONArray jsonChildren = jsonPage.getJSONArray("items");
+        if (cursor == null) {
+            this.updateNodes(jsonChildren, parentId);
+        } else {
+            for (int i = 0; i < jsonChildren.length(); i++) {
+                JSONObject child = jsonChildren.getJSONObject(i);
+                this.currentNodes.add(new Node(child.getString("name"), child.getString("id"), parentId));
+            }
+        }
+        this.nextCursor = jsonPage.isNull("nextCursor") ? null : jsonPage.getString("nextCursor");
+    }
+
     private String sendToServer(HttpRequest request) {
         try {
             HttpResponse<String> response = this.client.send(request, BodyHandlers.ofString());
@@ -69,8 +99,7 @@ public class Service {
             String response = this.sendToServer(request);
             JSONObject jsonBody = new JSONObject(response);
             String parentId = jsonBody.getString("id");
-            JSONArray jsonChildren = jsonBody.getJSONArray("childNodes");
-            this.updateNodes(jsonChildren, parentId);
+            this.loadChildNodes(parentId, null);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -116,29 +145,36 @@ public class Service {
             JSONArray jsonBody = new JSONArray(response);
             JSONObject jsonRoot = jsonBody.getJSONObject(0);
             String rootId = jsonRoot.getString("id");
-            JSONArray JSONChildren = jsonRoot.getJSONArray("childNodes");
-            this.updateNodes(JSONChildren, rootId);
+            this.loadChildNodes(rootId, null);
         } catch (Exception e) {
             e.printStackTrace();
         }
         return this.getCurrentNodes();
     }
 
+    // searches by glob if the name contains wildcards, otherwise by substring
     public String[] searchForNode(String name) {
+        String mode = name.contains("*") || name.contains("?") ? "glob" : "substring";
         try {
             HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(serverIP + "/api/nodes/name/" + name))
+                    .uri(URI.create(serverIP + "/api/nodes/search?mode=" + mode + "&limit=" + PAGE_SIZE + "&query=" + URLEncoder.encode(name, StandardCharsets.UTF_8)))
                     .GET()
                     .header("Content-Type", "application/json")
                     .build();
             String response = this.sendToServer(request);
             System.out.println(response.toString());
             JSONArray jsonBody = new JSONArray(response);
-            JSONObject jsonNode = jsonBody.getJSONObject(0);
-            String jsonParentId = jsonNode.getJSONObject("parentNode").getString("id");
-            JSONArray jsonArray = new JSONArray();
-            jsonArray.put(jsonNode);
-            this.updateNodes(jsonArray, jsonParentId);
+            List<Node> nodes = new ArrayList<Node>();
+            for (int i = 0; i < jsonBody.length(); i++) {
+                JSONObject jsonNode = jsonBody.getJSONObject(i);
+                String jsonParentId = jsonNode.isNull("parentNode") ? null : jsonNode.getString("parentNode");
+                nodes.add(new Node(jsonNode.getString("name"), jsonNode.getString("id"), jsonParentId));
+            }
+            if (!nodes.isEmpty()) {
+                this.parentId = nodes.get(0).getParentId();
+                this.currentNodes = nodes;
+                this.nextCursor = null;
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -155,8 +191,24 @@ public class Service {
             String response = this.sendToServer(request);
             JSONObject jsonBody = new JSONObject(response);
             String parentId = jsonBody.getString("id");
-            JSONArray jsonChildren = jsonBody.getJSONArray("childNodes");
-            this.updateNodes(jsonChildren, parentId);
+            this.loadChildNodes(parentId, null);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return this.getCurrentNodes();
+    }
+
+    public boolean hasMoreNodes() {
+        return this.nextCursor != null;
+    }
+
+    // appends the next page of child nodes of the current folder
+    public String[] loadMoreNodes() {
+        if (this.nextCursor == null) {
+            return this.getCurrentNodes();
+        }
+        try {
+            this.loadChildNodes(this.parentId, this.nextCursor);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -190,6 +242,37 @@ public class Service {
         return this.getCurrentNodes();
     }
 
+    // creates several folders in the current folder with a single request
+    public String[] createNodes(List<String> names) {
+        JSONArray operations = new JSONArray();
+        for (String name : names) {
+            JSONObject operation = new JSONObject();
+            operation.put("type", "CREATE");
+            operation.put("nodeId", this.parentId);
+            operation.put("name", name);
+            operations.put(operation);
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(serverIP + "/api/nodes/batch"))
+                    .POST(BodyPublishers.ofString(operations.toString()))
+                    .header("Content-Type", "application/json")
+                    .build();
+            String response = this.sendToServer(request);
+            JSONArray results = new JSONArray(response);
+            for (int i = 0; i < results.length(); i++) {
+                JSONObject result = results.getJSONObject(i);
+                if (!result.getBoolean("success")) {
+                    System.out.println(names.get(i) + ": " + result.optString("error"));
+                }
+            }
+            this.loadChildNodes(this.parentId, null);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return this.getCurrentNodes();
+    }
+
     public String[] renameNode(String oldName, String newName) {
         Node node = this.getNodeFromName(oldName);
         try {
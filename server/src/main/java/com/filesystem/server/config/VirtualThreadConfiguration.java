@@ -0,0 +1,59 @@
+package com.filesystem.server.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class runs the request handling of the blocking stack on virtual threads. Requests waiting for a DataClient
+ * then no longer hold a thread of the Tomcat thread pool.
+ * <p>
+ * Virtual threads need Java 21, but the server is still built for Java 11. The executor is therefore looked up by
+ * reflection, and the configuration is only active with server.virtual-threads.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "server.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfiguration.class);
+
+    /**
+     * Executor starting a new virtual thread per task. Replaces the application task executor, so asynchronous
+     * requests run on virtual threads as well.
+     *
+     * @return the virtual thread executor
+     */
+    @Bean(name = "applicationTaskExecutor")
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        logger.info("Running requests on virtual threads");
+
+        return new TaskExecutorAdapter(createVirtualThreadExecutor());
+    }
+
+    /**
+     * Lets Tomcat handle every request on a virtual thread instead of a thread of its pool.
+     *
+     * @param applicationTaskExecutor the virtual thread executor
+     * @return the customizer of the Tomcat protocol handler
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(AsyncTaskExecutor applicationTaskExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(applicationTaskExecutor);
+    }
+
+    private ExecutorService createVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21 or newer, the server runs on Java " + System.getProperty("java.version"), e);
+        }
+    }
+}
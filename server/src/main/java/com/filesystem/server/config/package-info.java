@@ -0,0 +1,4 @@
+/**
+ * This package provides the configuration of the infrastructure the server runs on.
+ */
+package com.filesystem.server.config;
@@ -1,6 +1,7 @@
 package com.filesystem.server.controllers;
 
 import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.DataClientPoolMetricsDTO;
 import com.filesystem.server.entities.InitDataClientDTO;
 import com.filesystem.server.entities.Node;
 import com.filesystem.server.services.DataClientConnectionService;
@@ -14,6 +15,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,6 +25,7 @@ import java.util.List;
  * Controller class to describe all endpoints regarding the DataClientConnections used by the virtual filesystem.
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping(path = "/api/dataclientconnections")
 public class DataClientConnectionController {
 
@@ -75,7 +78,7 @@ public class DataClientConnectionController {
 
         this.nodeService.initDataStructure(newStructure, dataClientConnection);
 
-        return dataClientConnection;
+        return this.dataClientConnectionService.saveDataClientConnection(dataClientConnection);
     }
 
      /**
@@ -134,6 +137,25 @@ public class DataClientConnectionController {
 
         this.nodeService.deleteNodesForDataClientConnection(dataClientConnection);
         this.dataClientConnectionService.deleteDataClientConnection(dataClientConnection);
+        this.dataClientService.evictWebClient(dataClientConnection);
+    }
+
+    /**
+     * Get-mapping which returns the utilization of the connection pools to all DataClients.
+     *
+     * @return the metrics of every connection pool
+     */
+    @Operation(summary = "Returns the utilization of the connection pools to all Dataclients")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the connection pool metrics of every Dataclient Connection in use",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/pools", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<DataClientPoolMetricsDTO> getPoolMetrics() {
+        logger.info("Called: GET /api/dataclientconnections/pools");
+
+        return this.dataClientService.getPoolMetrics();
     }
 
 }
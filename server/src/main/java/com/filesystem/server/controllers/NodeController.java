@@ -1,6 +1,15 @@
 package com.filesystem.server.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.filesystem.server.entities.DeletedNodesDTO;
 import com.filesystem.server.entities.Node;
+import com.filesystem.server.entities.NodeBatchOperationDTO;
+import com.filesystem.server.entities.NodeBatchResultDTO;
+import com.filesystem.server.entities.NodePageDTO;
+import com.filesystem.server.entities.NodeTransferDTO;
+import com.filesystem.server.services.NodeBatchService;
+import com.filesystem.server.services.NodeChunkService;
+import com.filesystem.server.services.NodeContentService;
 import com.filesystem.server.services.NodeService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,31 +20,55 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
 import java.awt.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Controller class to describe all endpoints regarding the Nodes contained in the virtual filesystem.
  */
 @RestController
+@Profile("!reactive")
 @RequestMapping(path = "/api/nodes")
 public class NodeController {
 
     private static final Logger logger = LoggerFactory.getLogger(NodeController.class);
 
     private final NodeService nodeService;
+    private final NodeBatchService nodeBatchService;
+    private final NodeContentService nodeContentService;
+    private final NodeChunkService nodeChunkService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Instantiates a new Node-Controller and autowires the needed beans to work properly.
      *
-     * @param nodeService the Node-Service
+     * @param nodeService      the Node-Service
+     * @param nodeBatchService   the NodeBatch-Service
+     * @param nodeContentService the NodeContent-Service relaying the content of files
+     * @param nodeChunkService   the NodeChunk-Service indexing and transferring the chunks of files
+     * @param objectMapper       the object mapper writing the exported Nodes
      */
     @Autowired
-    public NodeController(NodeService nodeService) {
+    public NodeController(NodeService nodeService, NodeBatchService nodeBatchService, NodeContentService nodeContentService,
+                          NodeChunkService nodeChunkService, ObjectMapper objectMapper) {
         this.nodeService = nodeService;
+        this.nodeBatchService = nodeBatchService;
+        this.nodeContentService = nodeContentService;
+        this.nodeChunkService = nodeChunkService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -58,21 +91,95 @@ public class NodeController {
     }
 
     /**
-     * Get-mapping returning all Nodes which currently exist in the system.
+     * Get-mapping returning one page of the ChildNodes of the Node referenced by the Node-Id given as PathVariable.
+     * The ChildNodes are ordered by Name, the next page is requested with the cursor returned by the previous one.
      *
-     * @return list of all existing Nodes
+     * @param nodeId the Node-Id
+     * @param cursor the cursor of the page, empty for the first page
+     * @param limit  the maximum number of ChildNodes on the page
+     * @param fields the comma separated fields of the ChildNodes to be returned
+     * @return the page of ChildNodes
      */
-    @Operation(summary = "Returns all Nodes which are currently stored in the database")
+    @Operation(summary = "Returns one page of the child nodes of the node referenced by the given id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
-                    description = "All nodes were collected and returned successfully",
+                    description = "Return the child nodes and the cursor of the next page",
                     content = {@Content(mediaType = "application/json")})
     })
-    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
-    public List<Node> getAllNodes() {
+    @GetMapping(value = "/{nodeId}/children", produces = MediaType.APPLICATION_JSON_VALUE)
+    public NodePageDTO getChildNodes(@Parameter(description = "id of the parent node") @PathVariable String nodeId,
+                                     @Parameter(description = "cursor returned with the previous page") @RequestParam(required = false) String cursor,
+                                     @Parameter(description = "maximum number of child nodes") @RequestParam(defaultValue = "100") int limit,
+                                     @Parameter(description = "fields to be returned, out of id, name, path and parentNode") @RequestParam(required = false) String fields) {
+        logger.info(String.format("Called: GET /api/nodes/%s/children", nodeId));
+
+        return this.nodeService.readChildNodes(nodeId, cursor, limit, fields);
+    }
+
+    /**
+     * Get-mapping returning the content of the file referenced by the Node-Id given as PathVariable. The content is
+     * read from a DataClient holding the file and written to the caller as it arrives, a Range-Header is passed on.
+     *
+     * @param nodeId the Node-Id
+     * @param range  the requested byte ranges
+     * @return the content of the file
+     */
+    @Operation(summary = "Returns the content of the file referenced by the given id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the content of the file",
+                    content = {@Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)}),
+            @ApiResponse(responseCode = "206",
+                    description = "Return the requested ranges of the content",
+                    content = {@Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)})
+    })
+    @GetMapping(value = "/{nodeId}/content")
+    public ResponseEntity<StreamingResponseBody> getNodeContent(@Parameter(description = "id of the file node") @PathVariable String nodeId,
+                                                                @Parameter(description = "the requested byte ranges") @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        logger.info(String.format("Called: GET /api/nodes/%s/content", nodeId));
+
+        // only the headers are awaited here, the content is read from the DataClient while it is written
+        ResponseEntity<Flux<DataBuffer>> response = this.nodeContentService.readContent(this.nodeService.readNode(nodeId), range).block();
+
+        StreamingResponseBody content = outputStream -> DataBufferUtils.write(response.getBody(), outputStream)
+                .map(DataBufferUtils::release)
+                .blockLast();
+
+        return ResponseEntity.status(response.getStatusCode()).headers(response.getHeaders()).body(content);
+    }
+
+    /**
+     * Get-mapping exporting all Nodes which currently exist in the system as newline delimited JSON. The Nodes are
+     * written while they are read from the database, their references are written as Ids.
+     *
+     * @return the streamed export of all existing Nodes
+     */
+    @Operation(summary = "Exports all Nodes which are currently stored in the database as newline delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "All nodes are streamed one per line",
+                    content = {@Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)})
+    })
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getAllNodes() {
         logger.info("Called: GET /api/nodes");
 
-        return this.nodeService.readAllNodes();
+        StreamingResponseBody export = outputStream -> {
+            try {
+                this.nodeService.exportAllNodes(node -> {
+                    try {
+                        outputStream.write(this.objectMapper.writeValueAsBytes(node));
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(export);
     }
 
     /**
@@ -112,6 +219,50 @@ public class NodeController {
         return this.nodeService.readNodeByName(nodeName);
     }
 
+    /**
+     * Get-mapping to return all nodes with the given path, resolved with a single query on the materialized paths.
+     *
+     * @param path the path starting with the Name of the Root-Node
+     * @return the list of Nodes
+     */
+    @Operation(summary = "Returns the nodes with the given path")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the stored information about the nodes",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/path", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<Node> getNodeFromPath(@Parameter(description = "path of the node starting with the name of the root node") @RequestParam String path) {
+        logger.info(String.format("Called: GET /api/nodes/path?path=%s", path));
+
+        return this.nodeService.readNodeByPath(path);
+    }
+
+    /**
+     * Get-mapping searching Nodes by prefix, substring or glob of their Name or path.
+     *
+     * @param query the searched term
+     * @param mode  the search mode, prefix, substring or glob
+     * @param in    the searched field, name or path
+     * @param limit the maximum number of Nodes to be returned
+     * @return list of the matching Nodes
+     */
+    @Operation(summary = "Searches nodes by prefix, substring or glob of their name or path")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the id, name, path and parent node id of the matching nodes",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<Map<String, Object>> searchNodes(@Parameter(description = "the searched term") @RequestParam String query,
+                                                 @Parameter(description = "prefix, substring (case insensitive) or glob (with * and ?)") @RequestParam(defaultValue = "substring") String mode,
+                                                 @Parameter(description = "name or path") @RequestParam(defaultValue = "name") String in,
+                                                 @Parameter(description = "maximum number of nodes") @RequestParam(defaultValue = "50") int limit) {
+        logger.info(String.format("Called: GET /api/nodes/search?query=%s&mode=%s&in=%s", query, mode, in));
+
+        return this.nodeService.searchNodes(query, mode, in, limit);
+    }
+
     /**
      * Get-mapping to return the ParentNode for a given Node-Id.
      *
@@ -171,21 +322,103 @@ public class NodeController {
         return this.nodeService.createChildNode(nodeId, childNode);
     }
 
+    /**
+     * Post-mapping to execute a batch of create, rename and delete operations. The operations are executed in order,
+     * a Node created by an earlier operation is referenced as "$" followed by the index of that operation.
+     *
+     * @param operations the operations to be executed
+     * @return the result of every operation
+     */
+    @Operation(summary = "Executes a batch of create, rename and delete operations")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the result of every operation",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<NodeBatchResultDTO> postBatch(@Parameter(description = "the operations to be executed") @RequestBody List<NodeBatchOperationDTO> operations) {
+        logger.info(String.format("Called: POST /api/nodes/batch with %s operations", operations.size()));
+
+        return this.nodeBatchService.executeBatch(operations);
+    }
+
+    /**
+     * Post-mapping to index the chunks of the file referenced by the Node-Id. The content hash of the file is stored
+     * in the Node, so other files with the same content can be found.
+     *
+     * @param nodeId the Node-Id
+     * @return the indexed Node
+     */
+    @Operation(summary = "Indexes the content-defined chunks of the file with the given id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the indexed node",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @PostMapping(value = "/{nodeId}/chunks", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Node postNodeChunks(@Parameter(description = "id of the file node") @PathVariable String nodeId) {
+        logger.info(String.format("Called: POST /api/nodes/%s/chunks", nodeId));
+
+        return this.nodeChunkService.indexNode(nodeId);
+    }
+
+    /**
+     * Get-mapping returning all indexed Nodes with the same content as the file referenced by the Node-Id.
+     *
+     * @param nodeId the Node-Id
+     * @return the Id, Name and path of the Nodes with the same content
+     */
+    @Operation(summary = "Returns all indexed nodes with the same content as the file with the given id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the id, name and path of the duplicates",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/{nodeId}/duplicates", produces = MediaType.APPLICATION_JSON_VALUE)
+    public List<Map<String, Object>> getNodeDuplicates(@Parameter(description = "id of the file node") @PathVariable String nodeId) {
+        logger.info(String.format("Called: GET /api/nodes/%s/duplicates", nodeId));
+
+        return this.nodeChunkService.findDuplicates(nodeId);
+    }
+
+    /**
+     * Post-mapping to copy the file referenced by the Node-Id to another DataClient. Only the chunks the DataClient
+     * doesnt have yet are sent.
+     *
+     * @param nodeId                 the Node-Id
+     * @param dataClientConnectionId the Id of the DataClientConnection the file is copied to
+     * @return the statistics of the transfer
+     */
+    @Operation(summary = "Copies the file with the given id to another dataclient, skipping the chunks it already has")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the number of transferred and skipped chunks and bytes",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @PostMapping(value = "/{nodeId}/transfer/{dataClientConnectionId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public NodeTransferDTO postNodeTransfer(@Parameter(description = "id of the file node") @PathVariable String nodeId,
+                                           @Parameter(description = "id of the target dataclient") @PathVariable String dataClientConnectionId) {
+        logger.info(String.format("Called: POST /api/nodes/%s/transfer/%s", nodeId, dataClientConnectionId));
+
+        return this.nodeChunkService.transferNode(nodeId, dataClientConnectionId);
+    }
+
     /**
      * Delete-mapping to delete a Node referenced by Node-Id.
      *
      * @param nodeId the Node-Id to be deleted
+     * @return the number of deleted Nodes
      */
     @Operation(summary = "Deletes a node and all child nodes")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200",
-                    description = "Node deleted",
+                    description = "Return the number of deleted nodes",
                     content = {@Content(mediaType = "application/json")})
     })
-    @DeleteMapping(value ="/{nodeId}")
-    public void deleteNode(@Parameter(description = "name of the node which should get deleted") @PathVariable String nodeId) {
+    @DeleteMapping(value ="/{nodeId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public DeletedNodesDTO deleteNode(@Parameter(description = "name of the node which should get deleted") @PathVariable String nodeId) {
         logger.info(String.format("Called: DELETE /api/nodes/%s", nodeId));
 
-        this.nodeService.deleteNode(nodeId);
+        return this.nodeService.deleteNode(nodeId);
     }
 }
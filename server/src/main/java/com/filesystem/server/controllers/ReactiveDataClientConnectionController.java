@@ -0,0 +1,157 @@
+package com.filesystem.server.controllers;
+
+import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.DataClientPoolMetricsDTO;
+import com.filesystem.server.entities.InitDataClientDTO;
+import com.filesystem.server.services.DataClientService;
+import com.filesystem.server.services.NodeService;
+import com.filesystem.server.services.ReactiveDataClientConnectionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive counterpart of the DataClientConnection-Controller, which is used instead of it when the server runs with
+ * the reactive profile.
+ * <p>
+ * Importing and removing the Node-Structure of a DataClient still uses the bulk writes of the Node-Service. These run
+ * on the bounded elastic scheduler, so they never block a request thread.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(path = "/api/dataclientconnections")
+public class ReactiveDataClientConnectionController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveDataClientConnectionController.class);
+
+    private final ReactiveDataClientConnectionService reactiveDataClientConnectionService;
+    private final NodeService nodeService;
+    private final DataClientService dataClientService;
+
+    /**
+     * Instantiates a new ReactiveDataClientConnection-Controller and autowires the needed beans to work properly.
+     *
+     * @param reactiveDataClientConnectionService the ReactiveDataClientConnection-Service
+     * @param nodeService                         the Node-Service
+     * @param dataClientService                   the DataClient-Service
+     */
+    @Autowired
+    public ReactiveDataClientConnectionController(ReactiveDataClientConnectionService reactiveDataClientConnectionService, NodeService nodeService, DataClientService dataClientService) {
+        this.reactiveDataClientConnectionService = reactiveDataClientConnectionService;
+        this.nodeService = nodeService;
+        this.dataClientService = dataClientService;
+    }
+
+    /**
+     * Post-mapping which creates and instantiates a new DataClientConnection by a given InitDataClientDTO which contains the information
+     * the DataClientConnection and which path to initialize the structure with.
+     *
+     * @param initDataClientDTO the InitDataClient to instantiate and store
+     * @return the stored DataClientConnection
+     */
+    @Operation(summary = "Creates a new Dataclient Connection")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the stored information about the new Dataclient Connection",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @PostMapping(value = "/{initDataClientDTO}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<DataClientConnection> postDataClientConnection(@Parameter(description = "The new Dataclient Connection") @RequestBody InitDataClientDTO initDataClientDTO) {
+        logger.info(String.format("Called: POST /api/dataclientconnections initDataClientDTO=%s", initDataClientDTO));
+
+        return this.reactiveDataClientConnectionService.readOrSaveDataClientConnection(initDataClientDTO.getDataClientConnection())
+                .flatMap(dataClientConnection -> this.dataClientService.initDataClientAsync(dataClientConnection, initDataClientDTO.getInitPath())
+                        .publishOn(Schedulers.boundedElastic())
+                        .map(newStructure -> this.nodeService.initDataStructure(newStructure, dataClientConnection))
+                        .then(Mono.defer(() -> this.reactiveDataClientConnectionService.saveDataClientConnection(dataClientConnection))));
+    }
+
+    /**
+     * Get-mapping which returns the node which was referenced by the endpoints PathVariable.
+     *
+     * @param dataClientId the DataClient-Id to be returned
+     * @return the corresponding DataClientConnection
+     */
+    @Operation(summary = "Returns Dataclient Connection referenced by the given id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the stored information about the Dataclient Connection",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/{dataClientId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<DataClientConnection> getDataClientConnection(@Parameter(description = "id of the Dataclient Connection to be searched") @PathVariable String dataClientId) {
+        logger.info(String.format("Called: GET /api/dataclientconnections/%s",dataClientId));
+
+        return this.reactiveDataClientConnectionService.readDataClientConnectionById(dataClientId);
+    }
+
+    /**
+     * Get-mapping which returns all stored DataClientConnections.
+     *
+     * @return all DataClientConnections
+     */
+    @Operation(summary = "Returns all Dataclient Connections")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the stored information about the Dataclient Connections",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DataClientConnection> getAllDataClientConnection() {
+        logger.info("Called: GET /api/dataclientconnections");
+
+        return this.reactiveDataClientConnectionService.readAllDataClientConnection();
+    }
+
+    /**
+     * Delete-mapping which deletes a DataClientConnection by a given DataClientConnection-Id (referenced via PathVariable).
+     *
+     * @param dataClientId the DataClientConnection-Id
+     * @return a Mono completing when the DataClientConnection is deleted
+     */
+    @Operation(summary = "Deletes Dataclient Connection referenced by the given id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Dataclient Connection with all nodes which are referenced only to this Dataclient Connection get deleted",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @DeleteMapping(value = "/{dataClientId}")
+    public Mono<Void> deleteDataClientConnection(@Parameter(description = "id of the Dataclient Connection to be deleted") @PathVariable String dataClientId) {
+        logger.info(String.format("Called: DELETE /api/dataclientconnections/%s", dataClientId));
+
+        return this.reactiveDataClientConnectionService.readDataClientConnectionById(dataClientId)
+                .flatMap(dataClientConnection -> Mono.fromRunnable(() -> this.nodeService.deleteNodesForDataClientConnection(dataClientConnection))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .then(this.reactiveDataClientConnectionService.deleteDataClientConnection(dataClientConnection))
+                        .doOnSuccess(deleted -> this.dataClientService.evictWebClient(dataClientConnection)));
+    }
+
+    /**
+     * Get-mapping which returns the utilization of the connection pools to all DataClients.
+     *
+     * @return the metrics of every connection pool
+     */
+    @Operation(summary = "Returns the utilization of the connection pools to all Dataclients")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the connection pool metrics of every Dataclient Connection in use",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/pools", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<DataClientPoolMetricsDTO> getPoolMetrics() {
+        logger.info("Called: GET /api/dataclientconnections/pools");
+
+        return Flux.fromIterable(this.dataClientService.getPoolMetrics());
+    }
+}
@@ -0,0 +1,395 @@
+package com.filesystem.server.controllers;
+
+import com.filesystem.server.entities.DeletedNodesDTO;
+import com.filesystem.server.entities.Node;
+import com.filesystem.server.entities.NodeBatchOperationDTO;
+import com.filesystem.server.entities.NodeBatchResultDTO;
+import com.filesystem.server.entities.NodePageDTO;
+import com.filesystem.server.entities.NodeTransferDTO;
+import com.filesystem.server.services.NodeBatchService;
+import com.filesystem.server.services.NodeChunkService;
+import com.filesystem.server.services.NodeContentService;
+import com.filesystem.server.services.ReactiveNodeService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reactive counterpart of the Node-Controller, which is used instead of it when the server runs with the reactive
+ * profile. It provides the same endpoints without blocking a thread per request.
+ */
+@RestController
+@Profile("reactive")
+@RequestMapping(path = "/api/nodes")
+public class ReactiveNodeController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveNodeController.class);
+
+    private final ReactiveNodeService reactiveNodeService;
+    private final NodeBatchService nodeBatchService;
+    private final NodeContentService nodeContentService;
+    private final NodeChunkService nodeChunkService;
+
+    /**
+     * Instantiates a new ReactiveNode-Controller and autowires the needed beans to work properly.
+     *
+     * @param reactiveNodeService the ReactiveNode-Service
+     * @param nodeBatchService    the NodeBatch-Service, which is called on a bounded elastic thread
+     * @param nodeContentService  the NodeContent-Service relaying the content of files
+     * @param nodeChunkService    the NodeChunk-Service, which is called on a bounded elastic thread
+     */
+    @Autowired
+    public ReactiveNodeController(ReactiveNodeService reactiveNodeService, NodeBatchService nodeBatchService, NodeContentService nodeContentService,
+                                  NodeChunkService nodeChunkService) {
+        this.reactiveNodeService = reactiveNodeService;
+        this.nodeBatchService = nodeBatchService;
+        this.nodeContentService = nodeContentService;
+        this.nodeChunkService = nodeChunkService;
+    }
+
+    /**
+     * Get-mapping returning the Node referenced by the Node-Id given as PathVariable.
+     *
+     * @param nodeId the Node-Id
+     * @return the referenced Node
+     */
+    @Operation(summary = "Returns node referenced by the given id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the stored information about the node",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/{nodeId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Node> getNode(@Parameter(description = "id of the node to be searched") @PathVariable String nodeId) {
+        logger.info(String.format("Called: GET /api/nodes/%s", nodeId));
+
+        return this.reactiveNodeService.readNode(nodeId);
+    }
+
+    /**
+     * Get-mapping returning one page of the ChildNodes of the Node referenced by the Node-Id given as PathVariable.
+     * The ChildNodes are ordered by Name, the next page is requested with the cursor returned by the previous one.
+     *
+     * @param nodeId the Node-Id
+     * @param cursor the cursor of the page, empty for the first page
+     * @param limit  the maximum number of ChildNodes on the page
+     * @param fields the comma separated fields of the ChildNodes to be returned
+     * @return the page of ChildNodes
+     */
+    @Operation(summary = "Returns one page of the child nodes of the node referenced by the given id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the child nodes and the cursor of the next page",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/{nodeId}/children", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<NodePageDTO> getChildNodes(@Parameter(description = "id of the parent node") @PathVariable String nodeId,
+                                           @Parameter(description = "cursor returned with the previous page") @RequestParam(required = false) String cursor,
+                                           @Parameter(description = "maximum number of child nodes") @RequestParam(defaultValue = "100") int limit,
+                                           @Parameter(description = "fields to be returned, out of id, name, path and parentNode") @RequestParam(required = false) String fields) {
+        logger.info(String.format("Called: GET /api/nodes/%s/children", nodeId));
+
+        return this.reactiveNodeService.readChildNodes(nodeId, cursor, limit, fields);
+    }
+
+    /**
+     * Get-mapping returning the content of the file referenced by the Node-Id given as PathVariable. The content is
+     * relayed from a DataClient holding the file as it is consumed, a Range-Header is passed on.
+     *
+     * @param nodeId the Node-Id
+     * @param range  the requested byte ranges
+     * @return the content of the file
+     */
+    @Operation(summary = "Returns the content of the file referenced by the given id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the content of the file",
+                    content = {@Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)}),
+            @ApiResponse(responseCode = "206",
+                    description = "Return the requested ranges of the content",
+                    content = {@Content(mediaType = MediaType.APPLICATION_OCTET_STREAM_VALUE)})
+    })
+    @GetMapping(value = "/{nodeId}/content")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getNodeContent(@Parameter(description = "id of the file node") @PathVariable String nodeId,
+                                                                 @Parameter(description = "the requested byte ranges") @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        logger.info(String.format("Called: GET /api/nodes/%s/content", nodeId));
+
+        return this.reactiveNodeService.readNode(nodeId).flatMap(node -> this.nodeContentService.readContent(node, range));
+    }
+
+    /**
+     * Get-mapping exporting all Nodes which currently exist in the system as newline delimited JSON. The Nodes are
+     * written while they are read from the database, their references are written as Ids.
+     *
+     * @return the exported Nodes
+     */
+    @Operation(summary = "Exports all Nodes which are currently stored in the database as newline delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "All nodes are streamed one per line",
+                    content = {@Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)})
+    })
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Map<String, Object>> getAllNodes() {
+        logger.info("Called: GET /api/nodes");
+
+        return this.reactiveNodeService.exportAllNodes();
+    }
+
+    /**
+     * Get-mapping returning all root Nodes contained in the system. (All Nodes which have no ParentNode)
+     *
+     * @return all Root-Nodes
+     */
+    @Operation(summary = "Returns root node")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the stored information about the root node",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/root", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<Node> getRootNode() {
+        logger.info("Called: GET /api/nodes/root");
+
+        return this.reactiveNodeService.readRoot();
+    }
+
+    /**
+     * Get-mapping to return all nodes with a given Name referenced by the PathVariable.
+     *
+     * @param nodeName the Node-Name
+     * @return the Nodes
+     */
+    @Operation(summary = "Returns node referenced by the given name")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the stored information about the node",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/name/{nodeName}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<Node> getNodeFromName(@Parameter(description = "name of the node to be searched") @PathVariable String nodeName) {
+        logger.info(String.format("Called: GET /api/nodes/name/%s", nodeName));
+
+        return this.reactiveNodeService.readNodeByName(nodeName);
+    }
+
+    /**
+     * Get-mapping to return all nodes with the given path, resolved with a single query on the materialized paths.
+     *
+     * @param path the path starting with the Name of the Root-Node
+     * @return the Nodes
+     */
+    @Operation(summary = "Returns the nodes with the given path")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the stored information about the nodes",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/path", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<Node> getNodeFromPath(@Parameter(description = "path of the node starting with the name of the root node") @RequestParam String path) {
+        logger.info(String.format("Called: GET /api/nodes/path?path=%s", path));
+
+        return this.reactiveNodeService.readNodeByPath(path);
+    }
+
+    /**
+     * Get-mapping searching Nodes by prefix, substring or glob of their Name or path.
+     *
+     * @param query the searched term
+     * @param mode  the search mode, prefix, substring or glob
+     * @param in    the searched field, name or path
+     * @param limit the maximum number of Nodes to be returned
+     * @return the matching Nodes
+     */
+    @Operation(summary = "Searches nodes by prefix, substring or glob of their name or path")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the id, name, path and parent node id of the matching nodes",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Flux<Map<String, Object>> searchNodes(@Parameter(description = "the searched term") @RequestParam String query,
+                                                 @Parameter(description = "prefix, substring (case insensitive) or glob (with * and ?)") @RequestParam(defaultValue = "substring") String mode,
+                                                 @Parameter(description = "name or path") @RequestParam(defaultValue = "name") String in,
+                                                 @Parameter(description = "maximum number of nodes") @RequestParam(defaultValue = "50") int limit) {
+        logger.info(String.format("Called: GET /api/nodes/search?query=%s&mode=%s&in=%s", query, mode, in));
+
+        return this.reactiveNodeService.searchNodes(query, mode, in, limit);
+    }
+
+    /**
+     * Get-mapping to return the ParentNode for a given Node-Id.
+     *
+     * @param nodeId the Node-Id
+     * @return the ParentNode of the referenced Node-Id
+     */
+    @Operation(summary = "Returns parent node from the node with the given id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the stored information about the parent node",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/parent/{nodeId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Node> getParentNodeFromNodeId(@Parameter(description = "id of the node which parent node is searched") @PathVariable String nodeId) {
+        logger.info(String.format("Called: GET /api/nodes/parent/%s", nodeId));
+
+        return this.reactiveNodeService.readNode(nodeId).flatMap(node -> Mono.justOrEmpty(node.getParentNode()));
+    }
+
+    /**
+     * Patch-mapping to rename a Node referenced by its Id.
+     *
+     * @param nodeId   the Node-Id
+     * @param nodeName the new Node-Name
+     * @return the renamed Node
+     */
+    @Operation(summary = "Replaces the node name of the given id with the given name")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the stored information about the node",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @PatchMapping (value = "/{nodeId}/{nodeName}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Node> putNodeName(@Parameter(description = "id of the node that should be renamed") @PathVariable String nodeId, @Parameter(description = "new name of the node") @PathVariable String nodeName) {
+        logger.info(String.format("Called: PATCH /api/nodes/%s/%s", nodeId, nodeName));
+
+        return this.reactiveNodeService.updateNodeName(nodeId, nodeName);
+    }
+
+    /**
+     * Post-mapping to create a new ChildNode in a existing Node which is referenced by its Id.
+     *
+     * @param nodeId    the Node-Id
+     * @param childNode the ChildNode
+     * @return the ParentNode containing the created ChildNode
+     */
+    @Operation(summary = "Creates a new child node which parent node is the node with the given id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the stored information about the new node",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @PostMapping(value = "/{nodeId}/child", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Node> postChildNode(@Parameter(description = "id of the parent of the new child") @PathVariable String nodeId, @Parameter(description = "the new child node") @RequestBody Node childNode) {
+        logger.info(String.format("Called: POST /api/nodes/%s/child", nodeId));
+
+        return this.reactiveNodeService.createChildNode(nodeId, childNode);
+    }
+
+    /**
+     * Post-mapping to execute a batch of create, rename and delete operations. The operations are executed in order,
+     * a Node created by an earlier operation is referenced as "$" followed by the index of that operation.
+     *
+     * @param operations the operations to be executed
+     * @return the result of every operation
+     */
+    @Operation(summary = "Executes a batch of create, rename and delete operations")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the result of every operation",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<NodeBatchResultDTO>> postBatch(@Parameter(description = "the operations to be executed") @RequestBody List<NodeBatchOperationDTO> operations) {
+        logger.info(String.format("Called: POST /api/nodes/batch with %s operations", operations.size()));
+
+        return Mono.fromCallable(() -> this.nodeBatchService.executeBatch(operations)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Post-mapping to index the chunks of the file referenced by the Node-Id. The content hash of the file is stored
+     * in the Node, so other files with the same content can be found.
+     *
+     * @param nodeId the Node-Id
+     * @return the indexed Node
+     */
+    @Operation(summary = "Indexes the content-defined chunks of the file with the given id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the indexed node",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @PostMapping(value = "/{nodeId}/chunks", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Node> postNodeChunks(@Parameter(description = "id of the file node") @PathVariable String nodeId) {
+        logger.info(String.format("Called: POST /api/nodes/%s/chunks", nodeId));
+
+        return Mono.fromCallable(() -> this.nodeChunkService.indexNode(nodeId)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Get-mapping returning all indexed Nodes with the same content as the file referenced by the Node-Id.
+     *
+     * @param nodeId the Node-Id
+     * @return the Id, Name and path of the Nodes with the same content
+     */
+    @Operation(summary = "Returns all indexed nodes with the same content as the file with the given id")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the id, name and path of the duplicates",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @GetMapping(value = "/{nodeId}/duplicates", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<Map<String, Object>>> getNodeDuplicates(@Parameter(description = "id of the file node") @PathVariable String nodeId) {
+        logger.info(String.format("Called: GET /api/nodes/%s/duplicates", nodeId));
+
+        return Mono.fromCallable(() -> this.nodeChunkService.findDuplicates(nodeId)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Post-mapping to copy the file referenced by the Node-Id to another DataClient. Only the chunks the DataClient
+     * doesnt have yet are sent.
+     *
+     * @param nodeId                 the Node-Id
+     * @param dataClientConnectionId the Id of the DataClientConnection the file is copied to
+     * @return the statistics of the transfer
+     */
+    @Operation(summary = "Copies the file with the given id to another dataclient, skipping the chunks it already has")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the number of transferred and skipped chunks and bytes",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @PostMapping(value = "/{nodeId}/transfer/{dataClientConnectionId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<NodeTransferDTO> postNodeTransfer(@Parameter(description = "id of the file node") @PathVariable String nodeId,
+                                                 @Parameter(description = "id of the target dataclient") @PathVariable String dataClientConnectionId) {
+        logger.info(String.format("Called: POST /api/nodes/%s/transfer/%s", nodeId, dataClientConnectionId));
+
+        return Mono.fromCallable(() -> this.nodeChunkService.transferNode(nodeId, dataClientConnectionId)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Delete-mapping to delete a Node referenced by Node-Id.
+     *
+     * @param nodeId the Node-Id to be deleted
+     * @return the number of deleted Nodes
+     */
+    @Operation(summary = "Deletes a node and all child nodes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200",
+                    description = "Return the number of deleted nodes",
+                    content = {@Content(mediaType = "application/json")})
+    })
+    @DeleteMapping(value ="/{nodeId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<DeletedNodesDTO> deleteNode(@Parameter(description = "name of the node which should get deleted") @PathVariable String nodeId) {
+        logger.info(String.format("Called: DELETE /api/nodes/%s", nodeId));
+
+        return this.reactiveNodeService.deleteNode(nodeId);
+    }
+}
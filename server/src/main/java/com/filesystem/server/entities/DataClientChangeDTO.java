@@ -0,0 +1,16 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+@Data
+public class DataClientChangeDTO {
+
+    public static final String CREATED = "CREATED";
+    public static final String DELETED = "DELETED";
+    public static final String MODIFIED = "MODIFIED";
+
+    private long sequence;
+    private String type;
+    private String path;
+
+}
@@ -0,0 +1,15 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class DataClientChangesDTO {
+
+    private long sequence;
+    private boolean complete;
+    private List<DataClientChangeDTO> changes = new ArrayList<>();
+
+}
@@ -0,0 +1,12 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+@Data
+public class DataClientChunkDTO {
+
+    private String hash;
+    private long offset;
+    private int length;
+
+}
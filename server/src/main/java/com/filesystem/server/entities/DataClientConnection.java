@@ -2,11 +2,14 @@ package com.filesystem.server.entities;
 
 import com.mongodb.lang.NonNull;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document
 @Data
+@NoArgsConstructor
 public class DataClientConnection implements Cloneable {
 
     @Id
@@ -15,6 +18,8 @@ public class DataClientConnection implements Cloneable {
     private String ipv4;
     private String port = "8080";
     private String name = "";
+    @EqualsAndHashCode.Exclude
+    private Long syncSequence;
 
     @Override
     public Object clone() throws CloneNotSupportedException {
@@ -0,0 +1,16 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class DataClientFileChunksDTO {
+
+    private String path;
+    private long size;
+    private String contentHash;
+    private List<DataClientChunkDTO> chunks = new ArrayList<>();
+
+}
@@ -0,0 +1,17 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+@Data
+public class DataClientOperationDTO {
+
+    public static final String CREATE_DIRECTORY = "CREATE_DIRECTORY";
+    public static final String RENAME = "RENAME";
+    public static final String DELETE = "DELETE";
+
+    private String type;
+    private String path;
+    // the new Node-Name, only used by RENAME
+    private String name;
+
+}
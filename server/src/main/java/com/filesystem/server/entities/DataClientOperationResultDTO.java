@@ -0,0 +1,14 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+@Data
+public class DataClientOperationResultDTO {
+
+    private int index;
+    private String type;
+    private String path;
+    private boolean success;
+    private String error;
+
+}
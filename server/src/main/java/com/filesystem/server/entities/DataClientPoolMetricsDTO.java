@@ -0,0 +1,17 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+@Data
+public class DataClientPoolMetricsDTO {
+
+    private String dataClientConnectionId;
+    private String remoteAddress;
+    private int acquiredConnections;
+    private int allocatedConnections;
+    private int idleConnections;
+    private int pendingAcquires;
+    private int maxConnections;
+    private int maxPendingAcquires;
+
+}
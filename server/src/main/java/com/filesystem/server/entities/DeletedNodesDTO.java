@@ -0,0 +1,15 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class DeletedNodesDTO {
+
+    private String nodeId;
+    private long deletedNodes;
+    private List<ReplicaResultDTO> replicaResults = new ArrayList<>();
+
+}
@@ -2,24 +2,32 @@ package com.filesystem.server.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.mongodb.lang.NonNull;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.DocumentReference;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
 
 @Document
 @Data
+@NoArgsConstructor
 @CompoundIndexes({
-        @CompoundIndex(name = "name", unique = true, def = "{'name': 1, 'parentNode' : 1, 'childNodes' : 1}")
+        @CompoundIndex(name = "name", unique = true, def = "{'name': 1, 'parentNode' : 1, 'childNodes' : 1}"),
+        @CompoundIndex(name = "parentNode_name", def = "{'parentNode': 1, 'name': 1}")
 })
 public class Node implements Cloneable {
 
@@ -38,6 +46,32 @@ public class Node implements Cloneable {
     @DocumentReference
     @JsonIgnore
     private List<DataClientConnection> dataClientConnection = new ArrayList<>();
+    @Indexed
+    private String path;
+    @Indexed
+    @JsonIgnore
+    private List<String> ancestors = new ArrayList<>();
+    @Indexed
+    @JsonIgnore
+    private List<String> nameTrigrams = new ArrayList<>();
+    // sha-256 of the content of a file, equal for files with the same content on any DataClient
+    @Indexed
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String contentHash;
+    @JsonIgnore
+    private List<String> chunkHashes = new ArrayList<>();
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ReplicaResultDTO> replicaResults;
+
+    /**
+     * Sets the name of this node together with the trigrams the name is searched by.
+     */
+    public void setName(String name) {
+        this.name = name;
+        this.nameTrigrams = toTrigrams(name);
+    }
 
     public void addChildNode(Node newNode) {
         this.childNodes.add(newNode);
@@ -80,9 +114,26 @@ public class Node implements Cloneable {
     }
 
     public String toDataClientPath() {
+        if (this.path != null)
+            return this.path;
+
         return buildPath(this);
     }
 
+    /**
+     * Sets the materialized path and the ancestor ids of this node from its parent node, which needs an id.
+     */
+    public void updateMaterializedPath() {
+        if (this.parentNode == null) {
+            this.path = this.name;
+            this.ancestors = new ArrayList<>();
+        } else {
+            this.path = this.parentNode.toDataClientPath() + "/" + this.name;
+            this.ancestors = new ArrayList<>(this.parentNode.getAncestors());
+            this.ancestors.add(this.parentNode.getId());
+        }
+    }
+
     private String buildPath(Node node) {
         String path = this.getName();
 
@@ -94,6 +145,24 @@ public class Node implements Cloneable {
         return path;
     }
 
+    /**
+     * Returns the distinct lower case trigrams of the given value, a value shorter than three characters has none.
+     */
+    public static List<String> toTrigrams(String value) {
+        List<String> trigrams = new ArrayList<>();
+        if (value == null)
+            return trigrams;
+
+        String lowerCaseValue = value.toLowerCase(Locale.ROOT);
+        for (int i = 0; i + 3 <= lowerCaseValue.length(); i++) {
+            String trigram = lowerCaseValue.substring(i, i + 3);
+            if (!trigrams.contains(trigram))
+                trigrams.add(trigram);
+        }
+
+        return trigrams;
+    }
+
     @Override
     public Object clone() throws CloneNotSupportedException {
         return super.clone();
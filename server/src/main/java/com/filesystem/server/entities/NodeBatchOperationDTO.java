@@ -0,0 +1,17 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+@Data
+public class NodeBatchOperationDTO {
+
+    public static final String CREATE = "CREATE";
+    public static final String RENAME = "RENAME";
+    public static final String DELETE = "DELETE";
+
+    private String type;
+    // the ParentNode for CREATE, "$<index>" references the Node created by an earlier operation of the batch
+    private String nodeId;
+    private String name;
+
+}
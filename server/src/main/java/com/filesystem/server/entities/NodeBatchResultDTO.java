@@ -0,0 +1,18 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class NodeBatchResultDTO {
+
+    private int index;
+    private String type;
+    private String nodeId;
+    private boolean success;
+    private String error;
+    private List<ReplicaResultDTO> replicaResults = new ArrayList<>();
+
+}
@@ -0,0 +1,14 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+@Data
+public class NodeLookupStatsDTO {
+
+    private long lookups;
+    // documents examined by the former lookup, which read all Nodes with the Name and filtered them by ParentNode
+    private long legacyExaminedDocuments;
+    // documents examined by the lookup on the (parentNode, name) index
+    private long examinedDocuments;
+
+}
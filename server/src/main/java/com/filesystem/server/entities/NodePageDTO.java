@@ -0,0 +1,15 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Data
+public class NodePageDTO {
+
+    private List<Map<String, Object>> items = new ArrayList<>();
+    private String nextCursor;
+
+}
@@ -0,0 +1,17 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+@Data
+public class NodeTransferDTO {
+
+    private String nodeId;
+    private String sourceDataClientConnectionId;
+    private String targetDataClientConnectionId;
+    private int chunks;
+    // chunks the target didnt have and which were copied from the source
+    private int transferredChunks;
+    private long transferredBytes;
+    private long skippedBytes;
+
+}
@@ -0,0 +1,14 @@
+package com.filesystem.server.entities;
+
+import lombok.Data;
+
+@Data
+public class ReplicaResultDTO {
+
+    private String dataClientConnectionId;
+    private String ipv4;
+    private String port;
+    private boolean success;
+    private String error;
+
+}
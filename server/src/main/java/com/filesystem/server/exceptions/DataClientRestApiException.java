@@ -1,9 +1,16 @@
 package com.filesystem.server.exceptions;
 
 import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.ReplicaResultDTO;
+
+import java.util.List;
 
 public class DataClientRestApiException extends RuntimeException {
     public DataClientRestApiException(String apiEndpoint, DataClientConnection dataClientConnection) {
         super(String.format("An error occured during the call of %s on the DataClient with IPv4: %s and Port: %s ", apiEndpoint, dataClientConnection.getIpv4(), dataClientConnection.getPort()));
     }
+
+    public DataClientRestApiException(String apiEndpoint, List<ReplicaResultDTO> replicaResults) {
+        super(String.format("An error occured during the call of %s on all %s DataClients holding the node", apiEndpoint, replicaResults.size()));
+    }
 }
@@ -0,0 +1,13 @@
+package com.filesystem.server.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidNodeQueryException extends RuntimeException {
+
+    public InvalidNodeQueryException(String message) {
+        super(message);
+    }
+
+}
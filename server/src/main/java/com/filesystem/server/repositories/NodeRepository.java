@@ -47,6 +47,31 @@ public interface NodeRepository extends MongoRepository<Node, String> {
      */
     List<Node> findAllByDataClientConnectionAndParentNodeIsNull(DataClientConnection dataClientConnection);
 
+    /**
+     * Returns the ChildNode with the given Name of the given ParentNode.
+     *
+     * @param parentNode the ParentNode
+     * @param name       the Name of the ChildNode
+     * @return the ChildNode or null if the ParentNode has no such ChildNode
+     */
+    Node findFirstByParentNodeAndName(Node parentNode, String name);
+
+    /**
+     * Returns the Root-Node with the given Name.
+     *
+     * @param name the Name of the Root-Node
+     * @return the Root-Node or null if no such Root-Node exists
+     */
+    Node findFirstByParentNodeIsNullAndName(String name);
+
+    /**
+     * Returns all Nodes with the given materialized path.
+     *
+     * @param path the path to be searched
+     * @return list of all matching Nodes
+     */
+    List<Node> findAllByPath(String path);
+
     /**
      * Returns all Nodes which have no ParentNode. (Returns all Root-Nodes)
      *
@@ -0,0 +1,22 @@
+package com.filesystem.server.repositories;
+
+import com.filesystem.server.entities.DataClientConnection;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * The reactive counterpart of the DataClientConnection-Repository used by the reactive API.
+ */
+@Repository
+public interface ReactiveDataClientConnectionRepository extends ReactiveMongoRepository<DataClientConnection, String> {
+
+    /**
+     * Finds the DataClientConnection by IPv4-Address and Port.
+     *
+     * @param ipv4 the IPv4-Address
+     * @param port the Port
+     * @return a Mono emitting the DataClientConnection
+     */
+    Mono<DataClientConnection> findDataClientConnectionByIpv4AndPort(String ipv4, String port);
+}
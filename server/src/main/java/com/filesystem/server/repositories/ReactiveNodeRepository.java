@@ -0,0 +1,37 @@
+package com.filesystem.server.repositories;
+
+import com.filesystem.server.entities.Node;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * The reactive counterpart of the Node-Repository used by the reactive API. The reactive mapping doesnt resolve the
+ * references of a Node, so ParentNode, ChildNodes and DataClientConnections of the returned Nodes are not set.
+ */
+@Repository
+public interface ReactiveNodeRepository extends ReactiveMongoRepository<Node, String> {
+
+    /**
+     * Returns all Nodes with the given Name.
+     *
+     * @param name the name to be searched
+     * @return flux of all matching Nodes
+     */
+    Flux<Node> findAllByName(String name);
+
+    /**
+     * Returns all Nodes with the given materialized path.
+     *
+     * @param path the path to be searched
+     * @return flux of all matching Nodes
+     */
+    Flux<Node> findAllByPath(String path);
+
+    /**
+     * Returns all Nodes which have no ParentNode. (Returns all Root-Nodes)
+     *
+     * @return flux of all Root-Nodes
+     */
+    Flux<Node> findAllByParentNodeIsNull();
+}
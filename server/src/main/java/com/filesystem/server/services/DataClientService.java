@@ -1,17 +1,33 @@
 package com.filesystem.server.services;
 
+import com.filesystem.server.entities.DataClientChangesDTO;
 import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.DataClientFileChunksDTO;
+import com.filesystem.server.entities.DataClientOperationDTO;
+import com.filesystem.server.entities.DataClientOperationResultDTO;
+import com.filesystem.server.entities.DataClientPoolMetricsDTO;
 import com.filesystem.server.entities.Node;
 import com.filesystem.server.exceptions.DataClientRestApiException;
 import com.filesystem.server.utils.DataClientServiceUtils;
+import com.filesystem.server.utils.NodeStructureParser;
 import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
 
 /**
  * This class contains all functions to work with the REST-API of a DataClient.
@@ -21,39 +37,53 @@ public class DataClientService {
 
     private static final Logger logger = LoggerFactory.getLogger(DataClientService.class);
 
-    private final WebClient.Builder webClientBuilder;
+    /**
+     * Header in which a DataClient returns the sequence number of its change journal matching the returned tree.
+     */
+    public static final String SEQUENCE_HEADER = "X-Tree-Sequence";
+
+    private final DataClientWebClientService dataClientWebClientService;
 
     /**
      * Instantiates a new DataClient-Service.
      *
-     * @param webClientBuilder a WebClient.Builder to create the WebClient from
+     * @param dataClientWebClientService the DataClientWebClient-Service providing the cached WebClients
      */
-    public DataClientService(WebClient.Builder webClientBuilder) {
-        this.webClientBuilder = webClientBuilder;
+    public DataClientService(DataClientWebClientService dataClientWebClientService) {
+        this.dataClientWebClientService = dataClientWebClientService;
     }
 
     /**
-     * Initializes a DataClient and returns the Node-Structure provided by the DataClient.
+     * Initializes a DataClient and returns the Node-Structure provided by the DataClient. The sequence number of the
+     * returned structure is stored in the given DataClientConnection.
      *
      * @param dataClientConnection DataClientConnection to initialize the DataClient from
      * @param path                 the path to use as Root-Node
      * @return the initialized Node-Structure
      */
     public Node initDataClient(DataClientConnection dataClientConnection, String path) {
-        logger.debug(String.format("CALLED: initDataClient() dataClientConnection=%s path=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), path));
-
-        final String endpoint = "/api/tree";
+        return initDataClientAsync(dataClientConnection, path).block();
+    }
 
-        ResponseEntity<String> response = getWebClientForDataClient(dataClientConnection).post().uri(endpoint).bodyValue(path).retrieve().toEntity(String.class).block();
+    /**
+     * Initializes a DataClient without blocking. The sequence number of the returned structure is stored in the given
+     * DataClientConnection.
+     *
+     * @param dataClientConnection DataClientConnection to initialize the DataClient from
+     * @param path                 the path to use as Root-Node
+     * @return a Mono emitting the initialized Node-Structure
+     */
+    public Mono<Node> initDataClientAsync(DataClientConnection dataClientConnection, String path) {
+        logger.debug(String.format("CALLED: initDataClientAsync() dataClientConnection=%s path=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), path));
 
-        if (response.getStatusCodeValue() != 200)
-            throw new DataClientRestApiException(endpoint, dataClientConnection);
+        final String endpoint = "/api/tree";
 
-        return DataClientServiceUtils.createNodeStructureFromJsonData(response.getBody());
+        return getWebClientForDataClient(dataClientConnection).post().uri(endpoint).bodyValue(path).exchangeToMono(response -> readNodeStructure(response, endpoint, dataClientConnection));
     }
 
     /**
-     * Returns the Node-Structure of a DataClient.
+     * Returns the Node-Structure of a DataClient. The sequence number of the returned structure is stored in the given
+     * DataClientConnection.
      *
      * @param dataClientConnection DataClientConnection to read the Node-Strucutre from
      * @return the Node-Strucutre of the DataClient
@@ -63,12 +93,27 @@ public class DataClientService {
 
         final String endpoint = "/api/tree";
 
-        ResponseEntity<String> response = getWebClientForDataClient(dataClientConnection).get().uri(endpoint).retrieve().toEntity(String.class).block();
+        return getWebClientForDataClient(dataClientConnection).get().uri(endpoint).exchangeToMono(response -> readNodeStructure(response, endpoint, dataClientConnection)).block();
+    }
+
+    /**
+     * Returns all changes of the Node-Structure of a DataClient after the given sequence number.
+     *
+     * @param dataClientConnection DataClientConnection to read the changes from
+     * @param since                the sequence number of the last applied change
+     * @return the changes, if they are not complete the whole Node-Structure has to be read again
+     */
+    public DataClientChangesDTO getDataClientChanges(DataClientConnection dataClientConnection, long since) {
+        logger.debug(String.format("CALLED: getDataClientChanges() dataClientConnection=%s since=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), since));
+
+        final String endpoint = "/api/tree/changes";
+
+        ResponseEntity<DataClientChangesDTO> response = getWebClientForDataClient(dataClientConnection).get().uri(uriBuilder -> uriBuilder.path(endpoint).queryParam("since", since).build()).retrieve().toEntity(DataClientChangesDTO.class).block();
 
         if (response.getStatusCodeValue() != 200)
             throw new DataClientRestApiException(endpoint, dataClientConnection);
 
-        return DataClientServiceUtils.createNodeStructureFromJsonData(response.getBody());
+        return response.getBody();
     }
 
     /**
@@ -79,16 +124,28 @@ public class DataClientService {
      * @return returns true if the request was successful, else false
      */
     public boolean deleteNode(DataClientConnection dataClientConnection, String path) {
-        logger.debug(String.format("CALLED: deleteNode() dataClientConnection=%s path=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), path));
+        return deleteNodeAsync(dataClientConnection, path).block();
+    }
 
-        final String endpoint = "/api/node";
+    /**
+     * Deletes a Node on a given DataClient without blocking.
+     *
+     * @param dataClientConnection the DataClientConnection to delete the Node from
+     * @param path                 the path of the Node to be deleted
+     * @return a Mono emitting true if the request was successful
+     */
+    public Mono<Boolean> deleteNodeAsync(DataClientConnection dataClientConnection, String path) {
+        logger.debug(String.format("CALLED: deleteNodeAsync() dataClientConnection=%s path=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), path));
 
-        ResponseEntity<Void> response = getWebClientForDataClient(dataClientConnection).method(HttpMethod.DELETE).uri(endpoint).bodyValue(path).retrieve().toEntity(Void.class).block();
+        final String endpoint = "/api/node";
 
-        if (response.getStatusCodeValue() != 200)
-            throw new DataClientRestApiException(endpoint, dataClientConnection);
+        return getWebClientForDataClient(dataClientConnection).method(HttpMethod.DELETE).uri(endpoint).bodyValue(path).retrieve().toEntity(Void.class)
+                .map(response -> {
+                    if (response.getStatusCodeValue() != 200)
+                        throw new DataClientRestApiException(endpoint, dataClientConnection);
 
-        return true;
+                    return true;
+                });
     }
 
     /**
@@ -99,16 +156,23 @@ public class DataClientService {
      * @return the created Node
      */
     public Node createNode(DataClientConnection dataClientConnection, String nodeName) {
-        logger.debug(String.format("CALLED: createNode() dataClientConnection=%s nodeName=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), nodeName));
-
-        final String endpoint = "/api/node?type=directory";
+        return createNodeAsync(dataClientConnection, nodeName).block();
+    }
 
-        ResponseEntity<String> response = getWebClientForDataClient(dataClientConnection).method(HttpMethod.POST).uri(endpoint).contentType(MediaType.APPLICATION_JSON).bodyValue(String.format("{ \"path\": \"%s\", \"content\": \"\" }", nodeName.substring(2))).retrieve().toEntity(String.class).block();
+    /**
+     * Create a new Node on a given DataClient without blocking.
+     *
+     * @param dataClientConnection the DataClientConnection to create the Node on
+     * @param nodeName             the Node-Name
+     * @return a Mono emitting the created Node
+     */
+    public Mono<Node> createNodeAsync(DataClientConnection dataClientConnection, String nodeName) {
+        logger.debug(String.format("CALLED: createNodeAsync() dataClientConnection=%s nodeName=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), nodeName));
 
-        if (response.getStatusCodeValue() != 200)
-            throw new DataClientRestApiException(endpoint, dataClientConnection);
+        final String endpoint = "/api/node?type=directory";
 
-        return DataClientServiceUtils.createNodeStructureFromJsonData(response.getBody());
+        return getWebClientForDataClient(dataClientConnection).method(HttpMethod.POST).uri(endpoint).contentType(MediaType.APPLICATION_JSON).bodyValue(String.format("{ \"path\": \"%s\", \"content\": \"\" }", nodeName.substring(2))).retrieve().toEntity(String.class)
+                .map(response -> readNode(response, endpoint, dataClientConnection));
     }
 
     /**
@@ -125,16 +189,55 @@ public class DataClientService {
 
         ResponseEntity<String> response = getWebClientForDataClient(dataClientConnection).method(HttpMethod.GET).uri(endpoint).bodyValue(nodePath).retrieve().toEntity(String.class).block();
 
-        if (response.getStatusCodeValue() != 200)
-            throw new DataClientRestApiException(endpoint, dataClientConnection);
+        return readNode(response, endpoint, dataClientConnection);
+    }
 
-        return DataClientServiceUtils.createNodeStructureFromJsonData(response.getBody());
+    private Mono<Node> readNodeStructure(ClientResponse response, String endpoint, DataClientConnection dataClientConnection) {
+        if (response.rawStatusCode() != 200)
+            return response.releaseBody().then(Mono.error(new DataClientRestApiException(endpoint, dataClientConnection)));
+
+        String sequence = response.headers().asHttpHeaders().getFirst(SEQUENCE_HEADER);
+        if (sequence != null)
+            dataClientConnection.setSyncSequence(Long.parseLong(sequence));
+
+        // the structure is parsed chunk by chunk while it arrives instead of aggregating the whole body first
+        NodeStructureParser parser = new NodeStructureParser();
+
+        return response.bodyToFlux(DataBuffer.class)
+                .doOnNext(dataBuffer -> {
+                    try {
+                        byte[] data = new byte[dataBuffer.readableByteCount()];
+                        dataBuffer.read(data);
+                        parser.feed(data, 0, data.length);
+                    } finally {
+                        DataBufferUtils.release(dataBuffer);
+                    }
+                })
+                .then(Mono.fromCallable(parser::finish));
     }
 
     private WebClient getWebClientForDataClient(DataClientConnection dataClientConnection) {
         logger.debug(String.format("CALLED: getWebClientForDataClient() dataClientConnection=%s ", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort()));
 
-        return this.webClientBuilder.baseUrl(String.format("http://%s:%s", dataClientConnection.getIpv4(), dataClientConnection.getPort())).build();
+        return this.dataClientWebClientService.getWebClient(dataClientConnection);
+    }
+
+    /**
+     * Removes the cached WebClient of a DataClient and closes its connections.
+     *
+     * @param dataClientConnection the DataClientConnection which is no longer used
+     */
+    public void evictWebClient(DataClientConnection dataClientConnection) {
+        this.dataClientWebClientService.evictWebClient(dataClientConnection);
+    }
+
+    /**
+     * Returns the utilization of the connection pools to all DataClients.
+     *
+     * @return the metrics of every connection pool
+     */
+    public List<DataClientPoolMetricsDTO> getPoolMetrics() {
+        return this.dataClientWebClientService.getPoolMetrics();
     }
 
     /**
@@ -146,7 +249,19 @@ public class DataClientService {
      * @return the renamed Node
      */
     public Node renameNode(DataClientConnection dataClientConnection, String nodePath, String newNodeName) {
-        logger.debug(String.format("CALLED: renameNode() dataClientConnection=%s nodePath=%s newNodeName=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), nodePath, newNodeName));
+        return renameNodeAsync(dataClientConnection, nodePath, newNodeName).block();
+    }
+
+    /**
+     * Rename a Node on a given DataClient without blocking.
+     *
+     * @param dataClientConnection the DataClientConnection to work with
+     * @param nodePath             the Node-Path to the Node to be renamed
+     * @param newNodeName          the new Node-Name
+     * @return a Mono emitting the renamed Node
+     */
+    public Mono<Node> renameNodeAsync(DataClientConnection dataClientConnection, String nodePath, String newNodeName) {
+        logger.debug(String.format("CALLED: renameNodeAsync() dataClientConnection=%s nodePath=%s newNodeName=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), nodePath, newNodeName));
 
         JSONObject requestBody = new JSONObject();
         requestBody.put("path", nodePath);
@@ -154,8 +269,129 @@ public class DataClientService {
 
         final String endpoint = "/api/node";
 
-        ResponseEntity<String> response = getWebClientForDataClient(dataClientConnection).method(HttpMethod.PATCH).uri(endpoint).contentType(MediaType.APPLICATION_JSON).bodyValue(requestBody.toString()).retrieve().toEntity(String.class).block();
+        return getWebClientForDataClient(dataClientConnection).method(HttpMethod.PATCH).uri(endpoint).contentType(MediaType.APPLICATION_JSON).bodyValue(requestBody.toString()).retrieve().toEntity(String.class)
+                .map(response -> readNode(response, endpoint, dataClientConnection));
+    }
+
+    /**
+     * Reads the content of a file from a given DataClient without blocking. The Mono emits as soon as the headers of
+     * the response arrived, the content is read from the DataClient while the returned Flux is consumed, so it is
+     * never held in memory as a whole.
+     *
+     * @param dataClientConnection the DataClientConnection to read the content from
+     * @param path                 the path of the file
+     * @param range                the requested byte ranges as Range-Header or null for the whole content
+     * @return a Mono emitting the response of the DataClient with the content as body
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> readNodeContentAsync(DataClientConnection dataClientConnection, String path, String range) {
+        logger.debug(String.format("CALLED: readNodeContentAsync() dataClientConnection=%s path=%s range=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), path, range));
+
+        final String endpoint = "/api/node/content";
+
+        return getWebClientForDataClient(dataClientConnection).get().uri(uriBuilder -> uriBuilder.path(endpoint).queryParam("path", "{path}").build(path))
+                .headers(headers -> {
+                    if (range != null)
+                        headers.set(HttpHeaders.RANGE, range);
+                })
+                .retrieve().toEntityFlux(DataBuffer.class);
+    }
+
+    /**
+     * Reads the content-defined chunks of a file from a given DataClient without blocking. The DataClient chunks the
+     * file if it wasnt chunked yet or changed since.
+     *
+     * @param dataClientConnection the DataClientConnection to read the chunks from
+     * @param path                 the path of the file
+     * @return a Mono emitting the chunks and the content hash of the file
+     */
+    public Mono<DataClientFileChunksDTO> getFileChunksAsync(DataClientConnection dataClientConnection, String path) {
+        logger.debug(String.format("CALLED: getFileChunksAsync() dataClientConnection=%s path=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), path));
+
+        final String endpoint = "/api/chunk/file";
+
+        return getWebClientForDataClient(dataClientConnection).get().uri(uriBuilder -> uriBuilder.path(endpoint).queryParam("path", "{path}").build(path))
+                .retrieve().bodyToMono(DataClientFileChunksDTO.class);
+    }
+
+    /**
+     * Returns the chunks out of the given ones which a given DataClient doesnt have, without blocking.
+     *
+     * @param dataClientConnection the DataClientConnection to ask
+     * @param hashes               the hashes of the chunks
+     * @return a Mono emitting the hashes of the missing chunks
+     */
+    public Mono<List<String>> findMissingChunksAsync(DataClientConnection dataClientConnection, List<String> hashes) {
+        logger.debug(String.format("CALLED: findMissingChunksAsync() dataClientConnection=%s hashes=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), hashes.size()));
+
+        final String endpoint = "/api/chunk/missing";
+
+        return getWebClientForDataClient(dataClientConnection).method(HttpMethod.POST).uri(endpoint).contentType(MediaType.APPLICATION_JSON).bodyValue(hashes).retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<String>>() {});
+    }
+
+    /**
+     * Copies a chunk from one DataClient to another without blocking. The chunk is passed on while it is read, the
+     * receiving DataClient checks it against its hash.
+     *
+     * @param sourceDataClientConnection the DataClientConnection to read the chunk from
+     * @param targetDataClientConnection the DataClientConnection to write the chunk to
+     * @param hash                       the hash of the chunk
+     * @return a Mono completing when the chunk was stored by the target
+     */
+    public Mono<Void> copyChunkAsync(DataClientConnection sourceDataClientConnection, DataClientConnection targetDataClientConnection, String hash) {
+        logger.debug(String.format("CALLED: copyChunkAsync() source=%s target=%s hash=%s", sourceDataClientConnection.getIpv4() + ":" + sourceDataClientConnection.getPort(), targetDataClientConnection.getIpv4() + ":" + targetDataClientConnection.getPort(), hash));
+
+        final String endpoint = "/api/chunk/{hash}";
+
+        Flux<DataBuffer> chunk = getWebClientForDataClient(sourceDataClientConnection).get().uri(endpoint, hash).retrieve().bodyToFlux(DataBuffer.class);
+
+        return getWebClientForDataClient(targetDataClientConnection).method(HttpMethod.PUT).uri(endpoint, hash).contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(BodyInserters.fromDataBuffers(chunk)).retrieve().toBodilessEntity().then();
+    }
+
+    /**
+     * Writes a file on a given DataClient from chunks the DataClient already has, without blocking.
+     *
+     * @param dataClientConnection the DataClientConnection to write the file on
+     * @param path                 the path of the file
+     * @param hashes               the hashes of the chunks in the order of the content
+     * @return a Mono emitting the written Node
+     */
+    public Mono<Node> assembleFileAsync(DataClientConnection dataClientConnection, String path, List<String> hashes) {
+        logger.debug(String.format("CALLED: assembleFileAsync() dataClientConnection=%s path=%s chunks=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), path, hashes.size()));
+
+        final String endpoint = "/api/chunk/file";
+
+        return getWebClientForDataClient(dataClientConnection).method(HttpMethod.POST).uri(uriBuilder -> uriBuilder.path(endpoint).queryParam("path", "{path}").build(path))
+                .contentType(MediaType.APPLICATION_JSON).bodyValue(hashes).retrieve().toEntity(String.class)
+                .map(response -> readNode(response, endpoint, dataClientConnection));
+    }
+
+    /**
+     * Applies a batch of operations on a given DataClient with a single call without blocking. The DataClient applies
+     * the operations in their order and returns the result of every operation, a failed operation doesnt stop the
+     * following ones.
+     *
+     * @param dataClientConnection the DataClientConnection to work with
+     * @param operations           the operations to be applied
+     * @return a Mono emitting the results in the order of the given operations
+     */
+    public Mono<List<DataClientOperationResultDTO>> applyBatchAsync(DataClientConnection dataClientConnection, List<DataClientOperationDTO> operations) {
+        logger.debug(String.format("CALLED: applyBatchAsync() dataClientConnection=%s operations=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), operations.size()));
+
+        final String endpoint = "/api/node/batch";
+
+        return getWebClientForDataClient(dataClientConnection).method(HttpMethod.POST).uri(endpoint).contentType(MediaType.APPLICATION_JSON).bodyValue(operations).retrieve()
+                .toEntity(new ParameterizedTypeReference<List<DataClientOperationResultDTO>>() {})
+                .map(response -> {
+                    if (response.getStatusCodeValue() != 200 || response.getBody() == null || response.getBody().size() != operations.size())
+                        throw new DataClientRestApiException(endpoint, dataClientConnection);
+
+                    return response.getBody();
+                });
+    }
 
+    private Node readNode(ResponseEntity<String> response, String endpoint, DataClientConnection dataClientConnection) {
         if (response.getStatusCodeValue() != 200)
             throw new DataClientRestApiException(endpoint, dataClientConnection);
 
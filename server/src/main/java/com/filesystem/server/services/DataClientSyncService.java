@@ -0,0 +1,88 @@
+package com.filesystem.server.services;
+
+import com.filesystem.server.entities.DataClientChangesDTO;
+import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.Node;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * This class keeps the Node-Structures of all DataClients up to date by periodically fetching the changes since the
+ * last synchronization from every DataClient.
+ */
+@Service
+public class DataClientSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataClientSyncService.class);
+
+    private final DataClientConnectionService dataClientConnectionService;
+    private final DataClientService dataClientService;
+    private final NodeService nodeService;
+
+    /**
+     * Instantiates a new DataClientSync-Service and autowires all needed beans.
+     *
+     * @param dataClientConnectionService the DataClientConnection-Service
+     * @param dataClientService           the DataClient-Service
+     * @param nodeService                 the Node-Service
+     */
+    @Autowired
+    public DataClientSyncService(DataClientConnectionService dataClientConnectionService, DataClientService dataClientService, NodeService nodeService) {
+        this.dataClientConnectionService = dataClientConnectionService;
+        this.dataClientService = dataClientService;
+        this.nodeService = nodeService;
+    }
+
+    /**
+     * Synchronizes all DataClients which have been initialized before.
+     */
+    @Scheduled(fixedDelayString = "${server.dataclient.sync-interval:30000}")
+    public void syncDataClients() {
+        logger.debug("CALLED: syncDataClients()");
+
+        for (DataClientConnection dataClientConnection: this.dataClientConnectionService.readAllDataClientConnection()) {
+            if (dataClientConnection.getSyncSequence() == null)
+                continue;
+
+            try {
+                syncDataClient(dataClientConnection);
+            } catch (Exception e) {
+                logger.warn(String.format("Synchronization of DataClient %s failed: %s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), e.getMessage()));
+            }
+        }
+    }
+
+    /**
+     * Synchronizes the Node-Structure of a single DataClient. Only the changes since the last synchronization are
+     * applied, the whole structure is only read again if the DataClient no longer has all of these changes.
+     *
+     * @param dataClientConnection the DataClientConnection to synchronize
+     */
+    public void syncDataClient(DataClientConnection dataClientConnection) {
+        logger.debug("CALLED: syncDataClient() with dataClientConnection=" + dataClientConnection.getName());
+
+        DataClientChangesDTO changes = this.dataClientService.getDataClientChanges(dataClientConnection, dataClientConnection.getSyncSequence());
+
+        if (changes.isComplete()) {
+            if (changes.getSequence() == dataClientConnection.getSyncSequence())
+                return;
+
+            // without a structure on the server the changes cant be applied and the whole structure is imported
+            if (!this.nodeService.applyDataClientChanges(dataClientConnection, changes.getChanges()))
+                resyncDataClient(dataClientConnection);
+        } else {
+            resyncDataClient(dataClientConnection);
+        }
+
+        dataClientConnection.setSyncSequence(changes.getSequence());
+        this.dataClientConnectionService.saveDataClientConnection(dataClientConnection);
+    }
+
+    private void resyncDataClient(DataClientConnection dataClientConnection) {
+        Node structure = this.dataClientService.getDataClientStructure(dataClientConnection);
+        this.nodeService.resyncDataStructure(structure, dataClientConnection);
+    }
+}
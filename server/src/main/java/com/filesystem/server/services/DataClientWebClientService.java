@@ -0,0 +1,198 @@
+package com.filesystem.server.services;
+
+import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.DataClientPoolMetricsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.annotation.PreDestroy;
+import java.net.SocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class caches one WebClient per DataClientConnection. Every WebClient has its own connection pool, so
+ * connections to a DataClient are kept alive and reused between requests instead of being opened for every request.
+ */
+@Service
+public class DataClientWebClientService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataClientWebClientService.class);
+
+    private final WebClient.Builder webClientBuilder;
+    private final int maxConnections;
+    private final int pendingAcquireMaxCount;
+    private final Duration pendingAcquireTimeout;
+    private final Duration maxIdleTime;
+    private final Duration maxLifeTime;
+    private final Duration evictionInterval;
+
+    private final Map<String, CachedWebClient> webClients = new ConcurrentHashMap<>();
+    private final Map<String, PoolMetrics> poolMetrics = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new DataClientWebClient-Service.
+     *
+     * @param webClientBuilder       a WebClient.Builder to create the WebClients from
+     * @param maxConnections         the maximum number of connections per DataClient
+     * @param pendingAcquireMaxCount the maximum number of requests waiting for a connection per DataClient
+     * @param pendingAcquireTimeout  the maximum time a request waits for a connection
+     * @param maxIdleTime            the time after which an idle connection is closed
+     * @param maxLifeTime            the time after which a connection is closed
+     * @param evictionInterval       the interval in which idle and expired connections are closed in the background
+     */
+    @Autowired
+    public DataClientWebClientService(WebClient.Builder webClientBuilder,
+                                      @Value("${server.dataclient.pool.max-connections:16}") int maxConnections,
+                                      @Value("${server.dataclient.pool.pending-acquire-max-count:256}") int pendingAcquireMaxCount,
+                                      @Value("${server.dataclient.pool.pending-acquire-timeout:10s}") Duration pendingAcquireTimeout,
+                                      @Value("${server.dataclient.pool.max-idle-time:30s}") Duration maxIdleTime,
+                                      @Value("${server.dataclient.pool.max-life-time:5m}") Duration maxLifeTime,
+                                      @Value("${server.dataclient.pool.eviction-interval:30s}") Duration evictionInterval) {
+        this.webClientBuilder = webClientBuilder;
+        this.maxConnections = maxConnections;
+        this.pendingAcquireMaxCount = pendingAcquireMaxCount;
+        this.pendingAcquireTimeout = pendingAcquireTimeout;
+        this.maxIdleTime = maxIdleTime;
+        this.maxLifeTime = maxLifeTime;
+        this.evictionInterval = evictionInterval;
+    }
+
+    /**
+     * Returns the cached WebClient of a DataClientConnection. The WebClient is created on first use and created again
+     * if the address of the DataClientConnection has changed.
+     *
+     * @param dataClientConnection the DataClientConnection
+     * @return the WebClient for the DataClient
+     */
+    public WebClient getWebClient(DataClientConnection dataClientConnection) {
+        String baseUrl = String.format("http://%s:%s", dataClientConnection.getIpv4(), dataClientConnection.getPort());
+
+        CachedWebClient cachedWebClient = this.webClients.compute(getKey(dataClientConnection), (key, existingWebClient) -> {
+            if (existingWebClient != null && existingWebClient.baseUrl.equals(baseUrl))
+                return existingWebClient;
+
+            if (existingWebClient != null)
+                existingWebClient.connectionProvider.dispose();
+
+            return createWebClient(key, baseUrl);
+        });
+
+        return cachedWebClient.webClient;
+    }
+
+    /**
+     * Removes the cached WebClient of a DataClientConnection and closes all of its connections.
+     *
+     * @param dataClientConnection the DataClientConnection
+     */
+    public void evictWebClient(DataClientConnection dataClientConnection) {
+        logger.debug(String.format("CALLED: evictWebClient() dataClientConnection=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort()));
+
+        String key = getKey(dataClientConnection);
+        CachedWebClient cachedWebClient = this.webClients.remove(key);
+        this.poolMetrics.remove(key);
+
+        if (cachedWebClient != null)
+            cachedWebClient.connectionProvider.dispose();
+    }
+
+    /**
+     * Returns the utilization of the connection pools of all cached WebClients.
+     *
+     * @return the metrics of every connection pool
+     */
+    public List<DataClientPoolMetricsDTO> getPoolMetrics() {
+        List<DataClientPoolMetricsDTO> metrics = new ArrayList<>();
+
+        for (Map.Entry<String, PoolMetrics> entry: this.poolMetrics.entrySet()) {
+            ConnectionPoolMetrics connectionPoolMetrics = entry.getValue().metrics;
+
+            DataClientPoolMetricsDTO dataClientPoolMetrics = new DataClientPoolMetricsDTO();
+            dataClientPoolMetrics.setDataClientConnectionId(entry.getKey());
+            dataClientPoolMetrics.setRemoteAddress(String.valueOf(entry.getValue().remoteAddress));
+            dataClientPoolMetrics.setAcquiredConnections(connectionPoolMetrics.acquiredSize());
+            dataClientPoolMetrics.setAllocatedConnections(connectionPoolMetrics.allocatedSize());
+            dataClientPoolMetrics.setIdleConnections(connectionPoolMetrics.idleSize());
+            dataClientPoolMetrics.setPendingAcquires(connectionPoolMetrics.pendingAcquireSize());
+            dataClientPoolMetrics.setMaxConnections(connectionPoolMetrics.maxAllocatedSize());
+            dataClientPoolMetrics.setMaxPendingAcquires(connectionPoolMetrics.maxPendingAcquireSize());
+            metrics.add(dataClientPoolMetrics);
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Closes the connections of all cached WebClients.
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (CachedWebClient cachedWebClient: this.webClients.values())
+            cachedWebClient.connectionProvider.dispose();
+
+        this.webClients.clear();
+        this.poolMetrics.clear();
+    }
+
+    private CachedWebClient createWebClient(String key, String baseUrl) {
+        logger.debug(String.format("CALLED: createWebClient() key=%s baseUrl=%s", key, baseUrl));
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("dataclient-" + key)
+                .maxConnections(this.maxConnections)
+                .pendingAcquireMaxCount(this.pendingAcquireMaxCount)
+                .pendingAcquireTimeout(this.pendingAcquireTimeout)
+                .maxIdleTime(this.maxIdleTime)
+                .maxLifeTime(this.maxLifeTime)
+                .evictInBackground(this.evictionInterval)
+                .metrics(true, () -> (poolName, id, remoteAddress, metrics) -> this.poolMetrics.put(key, new PoolMetrics(remoteAddress, metrics)))
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider).keepAlive(true);
+        WebClient webClient = this.webClientBuilder.clone().baseUrl(baseUrl).clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+
+        return new CachedWebClient(baseUrl, webClient, connectionProvider);
+    }
+
+    private String getKey(DataClientConnection dataClientConnection) {
+        if (dataClientConnection.getId() != null)
+            return dataClientConnection.getId();
+
+        return dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort();
+    }
+
+    private static class CachedWebClient {
+
+        private final String baseUrl;
+        private final WebClient webClient;
+        private final ConnectionProvider connectionProvider;
+
+        private CachedWebClient(String baseUrl, WebClient webClient, ConnectionProvider connectionProvider) {
+            this.baseUrl = baseUrl;
+            this.webClient = webClient;
+            this.connectionProvider = connectionProvider;
+        }
+    }
+
+    private static class PoolMetrics {
+
+        private final SocketAddress remoteAddress;
+        private final ConnectionPoolMetrics metrics;
+
+        private PoolMetrics(SocketAddress remoteAddress, ConnectionPoolMetrics metrics) {
+            this.remoteAddress = remoteAddress;
+            this.metrics = metrics;
+        }
+    }
+}
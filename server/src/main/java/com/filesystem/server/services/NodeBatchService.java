@@ -0,0 +1,686 @@
+package com.filesystem.server.services;
+
+import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.DataClientOperationDTO;
+import com.filesystem.server.entities.DataClientOperationResultDTO;
+import com.filesystem.server.entities.Node;
+import com.filesystem.server.entities.NodeBatchOperationDTO;
+import com.filesystem.server.entities.NodeBatchResultDTO;
+import com.filesystem.server.entities.ReplicaResultDTO;
+import com.filesystem.server.exceptions.InvalidNodeQueryException;
+import com.filesystem.server.utils.DataClientServiceUtils;
+import com.filesystem.server.utils.NodeDocumentUtils;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * This class contains the logic of batches of Node-Operations. A batch is executed in three steps: all operations are
+ * planned against projections of the referenced Nodes and their ancestors, the planned operations are replicated with one batch call
+ * per DataClient and dependency wave, and the successful operations are written with grouped bulk writes.
+ */
+@Service
+public class NodeBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeBatchService.class);
+    private static final String BATCH_REFERENCE_PREFIX = "$";
+    private static final List<String> PLAN_FIELDS = List.of("id", "name", "path", "parentNode", "ancestors", "dataClientConnection");
+
+    private final MongoTemplate mongoTemplate;
+    private final DataClientService dataClientService;
+    private final NodeCacheService nodeCacheService;
+    private final int maxOperations;
+    private final Duration dataClientCallTimeout;
+
+    /**
+     * Instantiates a new NodeBatch-Service and autowires all needed beans.
+     *
+     * @param mongoTemplate         the mongo template used for bulk writes
+     * @param dataClientService     the data client service
+     * @param nodeCacheService      the node cache service caching read Nodes
+     * @param maxOperations         the maximum number of operations of a single batch
+     * @param dataClientCallTimeout the maximum time to wait for a single DataClient call
+     */
+    @Autowired
+    public NodeBatchService(MongoTemplate mongoTemplate, DataClientService dataClientService, NodeCacheService nodeCacheService,
+                            @Value("${server.node.batch.max-operations:1000}") int maxOperations,
+                            @Value("${server.dataclient.call-timeout:10s}") Duration dataClientCallTimeout) {
+        this.mongoTemplate = mongoTemplate;
+        this.dataClientService = dataClientService;
+        this.nodeCacheService = nodeCacheService;
+        this.maxOperations = maxOperations;
+        this.dataClientCallTimeout = dataClientCallTimeout;
+    }
+
+    /**
+     * Executes the given operations in their order. An operation fails on its own if it is invalid, failed on every
+     * DataClient holding the Node or depends on a failed operation, all other operations are still executed.
+     *
+     * @param operations the operations to be executed
+     * @return the result of every operation in the order of the given operations
+     */
+    public List<NodeBatchResultDTO> executeBatch(List<NodeBatchOperationDTO> operations) {
+        logger.debug("CALLED: executeBatch() with operations=" + operations.size());
+
+        if (operations.size() > this.maxOperations)
+            throw new InvalidNodeQueryException(String.format("A batch can contain at most %s operations!", this.maxOperations));
+
+        BatchPlan plan = planBatch(operations);
+        Map<Integer, List<ReplicaResultDTO>> replicaResults = replicateBatch(plan.operations);
+        List<NodeBatchResultDTO> results = applyBatch(plan, replicaResults);
+
+        logger.info(String.format("Executed batch of %s operations, %s succeeded", operations.size(), results.stream().filter(NodeBatchResultDTO::isSuccess).count()));
+
+        return results;
+    }
+
+    /**
+     * Validates all operations against the Nodes as they will be after the previous operations, without changing
+     * any Node yet.
+     */
+    private BatchPlan planBatch(List<NodeBatchOperationDTO> operations) {
+        BatchPlan plan = new BatchPlan(this::readChildNames);
+
+        Set<String> nodeIds = new HashSet<>();
+        for (NodeBatchOperationDTO operation: operations) {
+            if (operation.getNodeId() != null && !operation.getNodeId().startsWith(BATCH_REFERENCE_PREFIX))
+                nodeIds.add(operation.getNodeId());
+        }
+        for (Node node: readPlannedNodes(nodeIds))
+            plan.registerNode(node);
+
+        for (int index = 0; index < operations.size(); index++)
+            plan.operations.add(planOperation(plan, index, operations.get(index)));
+
+        return plan;
+    }
+
+    /**
+     * Reads the given Nodes and all of their ancestors as projections without their ChildNodes, so planning doesnt
+     * resolve the subtrees of the referenced Nodes. Every Node is linked to the projection of its ParentNode.
+     */
+    private List<Node> readPlannedNodes(Set<String> nodeIds) {
+        Map<String, Document> documents = new LinkedHashMap<>();
+        Set<String> pendingNodeIds = new HashSet<>(nodeIds);
+
+        // ancestors are read in the next round, Nodes without materialized path only know their ParentNode
+        while (!pendingNodeIds.isEmpty()) {
+            Query query = NodeDocumentUtils.includeFields(new Query(Criteria.where("_id").in(toStoredIds(pendingNodeIds))), PLAN_FIELDS);
+            List<Document> readDocuments = this.mongoTemplate.find(query, Document.class, this.mongoTemplate.getCollectionName(Node.class));
+            for (Document document: readDocuments)
+                documents.put(String.valueOf(document.get("_id")), document);
+
+            pendingNodeIds = new HashSet<>();
+            for (Document document: readDocuments) {
+                pendingNodeIds.addAll(document.getList("ancestors", String.class, new ArrayList<>()));
+                if (document.get("parentNode") != null)
+                    pendingNodeIds.add(String.valueOf(document.get("parentNode")));
+            }
+            pendingNodeIds.removeAll(documents.keySet());
+        }
+
+        Map<String, DataClientConnection> dataClientConnections = readDataClientConnections(documents.values());
+        Map<String, Node> nodes = new LinkedHashMap<>();
+        for (Document document: documents.values())
+            nodes.put(String.valueOf(document.get("_id")), toPlannedNode(document, dataClientConnections));
+        for (Document document: documents.values()) {
+            if (document.get("parentNode") != null)
+                nodes.get(String.valueOf(document.get("_id"))).setParentNode(nodes.get(String.valueOf(document.get("parentNode"))));
+        }
+
+        return new ArrayList<>(nodes.values());
+    }
+
+    private Map<String, DataClientConnection> readDataClientConnections(Collection<Document> documents) {
+        Set<Object> dataClientConnectionIds = new HashSet<>();
+        for (Document document: documents)
+            dataClientConnectionIds.addAll(document.getList("dataClientConnection", Object.class, new ArrayList<>()));
+
+        if (dataClientConnectionIds.isEmpty())
+            return new HashMap<>();
+
+        return this.mongoTemplate.find(new Query(Criteria.where("_id").in(dataClientConnectionIds)), DataClientConnection.class).stream()
+                .collect(Collectors.toMap(DataClientConnection::getId, Function.identity()));
+    }
+
+    private Node toPlannedNode(Document document, Map<String, DataClientConnection> dataClientConnections) {
+        Node node = new Node();
+        node.setId(String.valueOf(document.get("_id")));
+        node.setName(document.getString("name"));
+        node.setPath(document.getString("path"));
+        node.setAncestors(document.getList("ancestors", String.class, new ArrayList<>()));
+        for (Object dataClientConnectionId: document.getList("dataClientConnection", Object.class, new ArrayList<>())) {
+            DataClientConnection dataClientConnection = dataClientConnections.get(String.valueOf(dataClientConnectionId));
+            if (dataClientConnection != null)
+                node.addDataClientConnection(dataClientConnection);
+        }
+
+        return node;
+    }
+
+    /**
+     * Reads the names of the ChildNodes of a stored Node through the index on the ParentNode and the name.
+     */
+    private Set<String> readChildNames(String nodeId) {
+        Query query = new Query(Criteria.where("parentNode").is(NodeDocumentUtils.toStoredId(nodeId)));
+        query.fields().include("name").exclude("_id");
+
+        return this.mongoTemplate.find(query, Document.class, this.mongoTemplate.getCollectionName(Node.class)).stream()
+                .map(document -> document.getString("name"))
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static List<Object> toStoredIds(Collection<String> nodeIds) {
+        return nodeIds.stream().map(NodeDocumentUtils::toStoredId).collect(Collectors.toList());
+    }
+
+    private PlannedOperation planOperation(BatchPlan plan, int index, NodeBatchOperationDTO operation) {
+        PlannedOperation plannedOperation = new PlannedOperation(index, operation.getType(), operation.getName());
+        String reference = operation.getNodeId();
+
+        if (reference == null || !plan.paths.containsKey(reference)) {
+            plannedOperation.error = String.format("The node with ID= %s doesnt exist!", reference);
+            return plannedOperation;
+        }
+        if (plan.isDeleted(reference)) {
+            plannedOperation.error = String.format("The node with ID= %s was deleted by an earlier operation!", reference);
+            return plannedOperation;
+        }
+
+        plannedOperation.dependencies.addAll(plan.dependencies(reference));
+
+        if (NodeBatchOperationDTO.CREATE.equals(operation.getType())) {
+            if (!isValidName(operation.getName())) {
+                plannedOperation.error = String.format("The name %s is invalid!", operation.getName());
+            } else if (plan.childNames(reference).contains(operation.getName())) {
+                plannedOperation.error = String.format("The node %s already exists!", plan.paths.get(reference) + "/" + operation.getName());
+            } else {
+                String childReference = BATCH_REFERENCE_PREFIX + index;
+                plannedOperation.reference = childReference;
+                plannedOperation.parentReference = reference;
+                plannedOperation.path = plan.paths.get(reference) + "/" + operation.getName();
+                plannedOperation.dataClientConnections = plan.dataClientConnections.get(reference);
+
+                plan.childNames(reference).add(operation.getName());
+                plan.names.put(childReference, operation.getName());
+                plan.paths.put(childReference, plannedOperation.path);
+                plan.parentReferences.put(childReference, reference);
+                plan.dataClientConnections.put(childReference, plannedOperation.dataClientConnections);
+                plan.lastChanges.put(childReference, index);
+            }
+        } else if (NodeBatchOperationDTO.RENAME.equals(operation.getType())) {
+            String parentReference = plan.parentReferences.get(reference);
+
+            if (!isValidName(operation.getName())) {
+                plannedOperation.error = String.format("The name %s is invalid!", operation.getName());
+            } else if (parentReference != null && plan.childNames(parentReference).contains(operation.getName())) {
+                plannedOperation.error = String.format("The node %s already exists!", plan.paths.get(parentReference) + "/" + operation.getName());
+            } else {
+                plannedOperation.reference = reference;
+                plannedOperation.oldPath = plan.paths.get(reference);
+                plannedOperation.path = parentReference == null ? operation.getName() : plan.paths.get(parentReference) + "/" + operation.getName();
+                plannedOperation.dataClientConnections = plan.dataClientConnections.get(reference);
+
+                if (parentReference != null) {
+                    plan.childNames(parentReference).remove(plan.names.get(reference));
+                    plan.childNames(parentReference).add(operation.getName());
+                }
+                plan.names.put(reference, operation.getName());
+                plan.paths.replaceAll((key, path) -> rewritePath(path, plannedOperation.oldPath, plannedOperation.path));
+                plan.lastChanges.put(reference, index);
+            }
+        } else if (NodeBatchOperationDTO.DELETE.equals(operation.getType())) {
+            String parentReference = plan.parentReferences.get(reference);
+
+            plannedOperation.reference = reference;
+            plannedOperation.parentReference = parentReference;
+            plannedOperation.path = plan.paths.get(reference);
+            plannedOperation.dataClientConnections = plan.dataClientConnections.get(reference);
+
+            if (parentReference != null)
+                plan.childNames(parentReference).remove(plan.names.get(reference));
+            plan.deletedReferences.add(reference);
+        } else {
+            plannedOperation.error = String.format("The operation type %s is unknown, allowed types are %s, %s and %s!", operation.getType(),
+                    NodeBatchOperationDTO.CREATE, NodeBatchOperationDTO.RENAME, NodeBatchOperationDTO.DELETE);
+        }
+
+        return plannedOperation;
+    }
+
+    /**
+     * Replicates the operations in waves, an operation is sent in the wave after the last operation it depends on.
+     * Every DataClient gets the operations of a wave as a single batch, while all DataClients are called concurrently.
+     * An operation isnt sent if an operation it depends on failed, so DataClients dont diverge from the stored Nodes.
+     */
+    private Map<Integer, List<ReplicaResultDTO>> replicateBatch(List<PlannedOperation> operations) {
+        Map<Integer, List<ReplicaResultDTO>> replicaResults = new HashMap<>();
+        Map<Integer, PlannedOperation> operationsByIndex = new HashMap<>();
+        Map<Integer, Integer> waves = new HashMap<>();
+        List<List<PlannedOperation>> operationsByWave = new ArrayList<>();
+        for (PlannedOperation operation: operations) {
+            operationsByIndex.put(operation.index, operation);
+            if (operation.error != null)
+                continue;
+
+            // dependencies always have a lower index, so their wave is already known
+            int wave = 0;
+            for (Integer dependency: operation.dependencies)
+                wave = Math.max(wave, waves.getOrDefault(dependency, -1) + 1);
+            waves.put(operation.index, wave);
+            while (operationsByWave.size() <= wave)
+                operationsByWave.add(new ArrayList<>());
+            operationsByWave.get(wave).add(operation);
+        }
+
+        for (List<PlannedOperation> waveOperations: operationsByWave)
+            replicateWave(waveOperations, operationsByIndex, replicaResults);
+
+        return replicaResults;
+    }
+
+    private void replicateWave(List<PlannedOperation> operations, Map<Integer, PlannedOperation> operationsByIndex, Map<Integer, List<ReplicaResultDTO>> replicaResults) {
+        Map<String, DataClientConnection> dataClientConnections = new LinkedHashMap<>();
+        Map<String, List<PlannedOperation>> operationsByDataClient = new LinkedHashMap<>();
+        for (PlannedOperation operation: operations) {
+            if (operation.dependencies.stream().anyMatch(dependency -> hasFailed(operationsByIndex.get(dependency), replicaResults))) {
+                operation.error = "An earlier operation this operation depends on failed!";
+                continue;
+            }
+
+            for (DataClientConnection dataClientConnection: operation.dataClientConnections) {
+                if (hasFailedOn(operation.dependencies, dataClientConnection, replicaResults)) {
+                    replicaResults.computeIfAbsent(operation.index, key -> new ArrayList<>()).add(DataClientServiceUtils.createReplicaResult(dataClientConnection,
+                            new IllegalStateException("An earlier operation this operation depends on failed on this DataClient!")));
+                    continue;
+                }
+
+                dataClientConnections.putIfAbsent(dataClientConnection.getId(), dataClientConnection);
+                operationsByDataClient.computeIfAbsent(dataClientConnection.getId(), key -> new ArrayList<>()).add(operation);
+            }
+        }
+
+        List<Tuple2<Integer, ReplicaResultDTO>> results = Flux.fromIterable(operationsByDataClient.entrySet())
+                .flatMap(entry -> {
+                    DataClientConnection dataClientConnection = dataClientConnections.get(entry.getKey());
+                    List<PlannedOperation> dataClientOperations = entry.getValue();
+
+                    List<DataClientOperationDTO> batch = new ArrayList<>(dataClientOperations.size());
+                    for (PlannedOperation operation: dataClientOperations)
+                        batch.add(toDataClientOperation(operation));
+
+                    // the DataClient applies the whole batch at once, a failed call fails every operation on it
+                    return Mono.defer(() -> this.dataClientService.applyBatchAsync(dataClientConnection, batch))
+                            .timeout(this.dataClientCallTimeout)
+                            .flatMapMany(operationResults -> Flux.range(0, dataClientOperations.size())
+                                    .map(position -> Tuples.of(dataClientOperations.get(position).index, createReplicaResult(dataClientConnection, operationResults.get(position)))))
+                            .onErrorResume(e -> Flux.fromIterable(dataClientOperations)
+                                    .map(operation -> Tuples.of(operation.index, DataClientServiceUtils.createReplicaResult(dataClientConnection, e))));
+                })
+                .collectList()
+                .block();
+
+        for (Tuple2<Integer, ReplicaResultDTO> result: results)
+            replicaResults.computeIfAbsent(result.getT1(), key -> new ArrayList<>()).add(result.getT2());
+    }
+
+    private boolean hasFailed(PlannedOperation operation, Map<Integer, List<ReplicaResultDTO>> replicaResults) {
+        List<ReplicaResultDTO> operationResults = replicaResults.getOrDefault(operation.index, new ArrayList<>());
+
+        return operation.error != null || (!operationResults.isEmpty() && operationResults.stream().noneMatch(ReplicaResultDTO::isSuccess));
+    }
+
+    private boolean hasFailedOn(Set<Integer> dependencies, DataClientConnection dataClientConnection, Map<Integer, List<ReplicaResultDTO>> replicaResults) {
+        for (Integer dependency: dependencies) {
+            for (ReplicaResultDTO replicaResult: replicaResults.getOrDefault(dependency, new ArrayList<>())) {
+                if (!replicaResult.isSuccess() && Objects.equals(replicaResult.getDataClientConnectionId(), dataClientConnection.getId()))
+                    return true;
+            }
+        }
+
+        return false;
+    }
+
+    private DataClientOperationDTO toDataClientOperation(PlannedOperation operation) {
+        DataClientOperationDTO dataClientOperation = new DataClientOperationDTO();
+
+        switch (operation.type) {
+            case NodeBatchOperationDTO.CREATE:
+                dataClientOperation.setType(DataClientOperationDTO.CREATE_DIRECTORY);
+                dataClientOperation.setPath(operation.path);
+                break;
+            case NodeBatchOperationDTO.RENAME:
+                dataClientOperation.setType(DataClientOperationDTO.RENAME);
+                dataClientOperation.setPath(operation.oldPath);
+                dataClientOperation.setName(operation.name);
+                break;
+            default:
+                dataClientOperation.setType(DataClientOperationDTO.DELETE);
+                dataClientOperation.setPath(operation.path);
+        }
+
+        return dataClientOperation;
+    }
+
+    private ReplicaResultDTO createReplicaResult(DataClientConnection dataClientConnection, DataClientOperationResultDTO operationResult) {
+        if (operationResult.isSuccess())
+            return DataClientServiceUtils.createReplicaResult(dataClientConnection, null);
+
+        return DataClientServiceUtils.createReplicaResult(dataClientConnection, new IllegalStateException(operationResult.getError()));
+    }
+
+    /**
+     * Applies the successful operations to the Nodes in memory and writes all changed Nodes with one ordered bulk.
+     */
+    private List<NodeBatchResultDTO> applyBatch(BatchPlan plan, Map<Integer, List<ReplicaResultDTO>> replicaResults) {
+        List<NodeBatchResultDTO> results = new ArrayList<>();
+        Set<Integer> succeededOperations = new HashSet<>();
+        Map<String, Node> createdNodes = new LinkedHashMap<>();
+        Map<String, NodeChanges> nodeChanges = new LinkedHashMap<>();
+        Set<String> deletedNodeIds = new LinkedHashSet<>();
+        Set<String> renamedNodeIds = new LinkedHashSet<>();
+        List<String[]> renamedPaths = new ArrayList<>();
+
+        for (PlannedOperation operation: plan.operations) {
+            NodeBatchResultDTO result = new NodeBatchResultDTO();
+            result.setIndex(operation.index);
+            result.setType(operation.type);
+            result.setReplicaResults(replicaResults.getOrDefault(operation.index, new ArrayList<>()));
+            results.add(result);
+
+            if (operation.error == null && !succeededOperations.containsAll(operation.dependencies))
+                operation.error = "An earlier operation this operation depends on failed!";
+            if (operation.error == null && !result.getReplicaResults().isEmpty() && result.getReplicaResults().stream().noneMatch(ReplicaResultDTO::isSuccess))
+                operation.error = String.format("The operation failed on all %s DataClients holding the node!", result.getReplicaResults().size());
+            if (operation.error != null) {
+                result.setError(operation.error);
+                continue;
+            }
+
+            succeededOperations.add(operation.index);
+            result.setSuccess(true);
+
+            if (NodeBatchOperationDTO.CREATE.equals(operation.type)) {
+                Node parentNode = resolveNode(plan, createdNodes, operation.parentReference);
+                Node newNode = new Node();
+                newNode.setId(new ObjectId().toHexString());
+                newNode.setName(operation.name);
+                newNode.setParentNode(parentNode);
+                newNode.addDataClientConnections(parentNode.getDataClientConnection());
+                newNode.updateMaterializedPath();
+                newNode.setPath(operation.path);
+                parentNode.addChildNode(newNode);
+
+                createdNodes.put(operation.reference, newNode);
+                NodeChanges parentChanges = markChanged(plan, nodeChanges, parentNode);
+                if (parentChanges != null)
+                    parentChanges.addedChildNodes.add(newNode);
+                result.setNodeId(newNode.getId());
+            } else if (NodeBatchOperationDTO.RENAME.equals(operation.type)) {
+                Node node = resolveNode(plan, createdNodes, operation.reference);
+                node.setName(operation.name);
+
+                // the paths of Nodes in memory are written from memory, all other descendants are updated from the stored paths
+                List<Node> nodesInMemory = new ArrayList<>(plan.nodes.values());
+                nodesInMemory.addAll(createdNodes.values());
+                for (Node nodeInMemory: nodesInMemory) {
+                    String path = rewritePath(nodeInMemory.getPath(), operation.oldPath, operation.path);
+                    if (!Objects.equals(path, nodeInMemory.getPath())) {
+                        nodeInMemory.setPath(path);
+                        NodeChanges changes = markChanged(plan, nodeChanges, nodeInMemory);
+                        if (changes != null)
+                            changes.pathChanged = true;
+                    }
+                }
+                NodeChanges changes = markChanged(plan, nodeChanges, node);
+                if (changes != null)
+                    changes.nameChanged = true;
+
+                renamedPaths.add(new String[]{operation.oldPath, operation.path});
+                if (plan.nodes.containsKey(node.getId()))
+                    renamedNodeIds.add(node.getId());
+                result.setNodeId(node.getId());
+            } else {
+                Node node = resolveNode(plan, createdNodes, operation.reference);
+                if (operation.parentReference != null) {
+                    Node parentNode = resolveNode(plan, createdNodes, operation.parentReference);
+                    parentNode.getChildNodes().removeIf(childNode -> Objects.equals(childNode.getId(), node.getId()));
+                    NodeChanges parentChanges = markChanged(plan, nodeChanges, parentNode);
+                    // a ChildNode created by this batch was never written, so it only has to be left out
+                    if (parentChanges != null && !parentChanges.addedChildNodes.removeIf(childNode -> Objects.equals(childNode.getId(), node.getId())))
+                        parentChanges.removedChildNodes.add(node);
+                }
+
+                createdNodes.values().removeIf(createdNode -> createdNode.getId().equals(node.getId()) || createdNode.getAncestors().contains(node.getId()));
+                if (plan.nodes.containsKey(node.getId()))
+                    deletedNodeIds.add(node.getId());
+                result.setNodeId(node.getId());
+            }
+        }
+
+        if (!succeededOperations.isEmpty()) {
+            writeBatch(plan, createdNodes, nodeChanges, deletedNodeIds, renamedNodeIds, renamedPaths);
+            this.nodeCacheService.invalidateAll();
+        }
+
+        return results;
+    }
+
+    /**
+     * Writes the changes of the batch with targeted updates, so concurrent changes of other fields of the same Nodes,
+     * like their DataClientConnections or content hashes, arent overwritten by the state read when planning.
+     */
+    private void writeBatch(BatchPlan plan, Map<String, Node> createdNodes, Map<String, NodeChanges> nodeChanges, Set<String> deletedNodeIds, Set<String> renamedNodeIds, List<String[]> renamedPaths) {
+        BulkOperations bulkOperations = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Node.class);
+        int pendingOperations = 0;
+
+        for (Node createdNode: createdNodes.values()) {
+            bulkOperations.insert(createdNode);
+            pendingOperations++;
+        }
+
+        for (Map.Entry<String, NodeChanges> entry: nodeChanges.entrySet()) {
+            Node node = plan.nodes.get(entry.getKey());
+            NodeChanges changes = entry.getValue();
+            if (isDeleted(node, deletedNodeIds))
+                continue;
+
+            Query query = new Query(Criteria.where("_id").is(entry.getKey()));
+            if (changes.nameChanged || changes.pathChanged) {
+                Update update = new Update();
+                if (changes.nameChanged)
+                    update.set("name", node.getName()).set("nameTrigrams", node.getNameTrigrams());
+                if (changes.pathChanged)
+                    update.set("path", node.getPath());
+                bulkOperations.updateOne(query, update);
+                pendingOperations++;
+            }
+            // every ChildNode is pushed and pulled on its own, as only single values are mapped to references
+            for (Node childNode: changes.addedChildNodes) {
+                bulkOperations.updateOne(query, new Update().push("childNodes", childNode));
+                pendingOperations++;
+            }
+            for (Node childNode: changes.removedChildNodes) {
+                bulkOperations.updateOne(query, new Update().pull("childNodes", childNode));
+                pendingOperations++;
+            }
+        }
+
+        if (!renamedNodeIds.isEmpty()) {
+            Query query = new Query(Criteria.where("ancestors").in(renamedNodeIds));
+            query.fields().include("path").include("ancestors");
+
+            for (Document descendant: this.mongoTemplate.find(query, Document.class, this.mongoTemplate.getCollectionName(Node.class))) {
+                String descendantId = String.valueOf(descendant.get("_id"));
+                if (nodeChanges.containsKey(descendantId) || descendant.getList("ancestors", String.class, new ArrayList<>()).stream().anyMatch(deletedNodeIds::contains))
+                    continue;
+
+                String path = descendant.getString("path");
+                for (String[] renamedPath: renamedPaths)
+                    path = rewritePath(path, renamedPath[0], renamedPath[1]);
+
+                if (path != null && !path.equals(descendant.getString("path"))) {
+                    bulkOperations.updateOne(new Query(Criteria.where("_id").is(descendant.get("_id"))), Update.update("path", path));
+                    pendingOperations++;
+                }
+            }
+        }
+
+        if (!deletedNodeIds.isEmpty()) {
+            bulkOperations.remove(new Query(new Criteria().orOperator(Criteria.where("_id").in(deletedNodeIds), Criteria.where("ancestors").in(deletedNodeIds))));
+            pendingOperations++;
+        }
+
+        if (pendingOperations > 0)
+            bulkOperations.execute();
+    }
+
+    private Node resolveNode(BatchPlan plan, Map<String, Node> createdNodes, String reference) {
+        return reference.startsWith(BATCH_REFERENCE_PREFIX) ? createdNodes.get(reference) : plan.nodes.get(reference);
+    }
+
+    private NodeChanges markChanged(BatchPlan plan, Map<String, NodeChanges> nodeChanges, Node node) {
+        // created Nodes are inserted in their final state anyway
+        if (!plan.nodes.containsKey(node.getId()))
+            return null;
+
+        return nodeChanges.computeIfAbsent(node.getId(), key -> new NodeChanges());
+    }
+
+    private boolean isDeleted(Node node, Set<String> deletedNodeIds) {
+        return deletedNodeIds.contains(node.getId()) || node.getAncestors().stream().anyMatch(deletedNodeIds::contains);
+    }
+
+    private boolean isValidName(String name) {
+        return name != null && !name.isEmpty() && !name.contains("/");
+    }
+
+    private static String rewritePath(String path, String oldPath, String newPath) {
+        if (path == null)
+            return null;
+        if (path.equals(oldPath))
+            return newPath;
+        if (path.startsWith(oldPath + "/"))
+            return newPath + path.substring(oldPath.length());
+
+        return path;
+    }
+
+    /**
+     * The state of the Nodes as it will be after the operations planned so far. Nodes are referenced by their Id or,
+     * if they are created by the batch, by "$" and the index of the creating operation.
+     */
+    private static class BatchPlan {
+
+        private final Function<String, Set<String>> childNamesReader;
+        private final List<PlannedOperation> operations = new ArrayList<>();
+        private final Map<String, Node> nodes = new HashMap<>();
+        private final Map<String, String> names = new HashMap<>();
+        private final Map<String, String> paths = new HashMap<>();
+        private final Map<String, String> parentReferences = new HashMap<>();
+        private final Map<String, List<DataClientConnection>> dataClientConnections = new HashMap<>();
+        private final Map<String, Set<String>> childNames = new HashMap<>();
+        private final Map<String, Integer> lastChanges = new HashMap<>();
+        private final Set<String> deletedReferences = new HashSet<>();
+
+        private BatchPlan(Function<String, Set<String>> childNamesReader) {
+            this.childNamesReader = childNamesReader;
+        }
+
+        private void registerNode(Node node) {
+            if (this.nodes.containsKey(node.getId()))
+                return;
+
+            this.nodes.put(node.getId(), node);
+            this.names.put(node.getId(), node.getName());
+            this.paths.put(node.getId(), node.toDataClientPath());
+            this.dataClientConnections.put(node.getId(), node.getDataClientConnection());
+            this.parentReferences.put(node.getId(), node.getParentNode() == null ? null : node.getParentNode().getId());
+        }
+
+        private Set<String> childNames(String reference) {
+            // Nodes created by the batch dont have stored ChildNodes
+            return this.childNames.computeIfAbsent(reference, key -> this.nodes.containsKey(key) ? this.childNamesReader.apply(key) : new HashSet<>());
+        }
+
+        private List<String> ancestorsAndSelf(String reference) {
+            List<String> references = new ArrayList<>();
+            for (String current = reference; current != null; current = this.parentReferences.get(current))
+                references.add(current);
+
+            return references;
+        }
+
+        private boolean isDeleted(String reference) {
+            return ancestorsAndSelf(reference).stream().anyMatch(this.deletedReferences::contains);
+        }
+
+        private Set<Integer> dependencies(String reference) {
+            Set<Integer> dependencies = new HashSet<>();
+            for (String current: ancestorsAndSelf(reference)) {
+                if (this.lastChanges.containsKey(current))
+                    dependencies.add(this.lastChanges.get(current));
+            }
+
+            return dependencies;
+        }
+    }
+
+    /**
+     * The changes of a stored Node made by the batch, which are written as targeted updates.
+     */
+    private static class NodeChanges {
+
+        private boolean nameChanged;
+        private boolean pathChanged;
+        private final List<Node> addedChildNodes = new ArrayList<>();
+        private final List<Node> removedChildNodes = new ArrayList<>();
+    }
+
+    private static class PlannedOperation {
+
+        private final int index;
+        private final String type;
+        private final String name;
+        private final Set<Integer> dependencies = new HashSet<>();
+        private String reference;
+        private String parentReference;
+        private String oldPath;
+        private String path;
+        private List<DataClientConnection> dataClientConnections = new ArrayList<>();
+        private String error;
+
+        private PlannedOperation(int index, String type, String name) {
+            this.index = index;
+            this.type = type;
+            this.name = name;
+        }
+    }
+}
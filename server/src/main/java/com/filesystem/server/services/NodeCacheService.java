@@ -0,0 +1,172 @@
+package com.filesystem.server.services;
+
+import com.filesystem.server.entities.Node;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * This class caches the Nodes and the Root-Nodes read by the Node-Service, so browsing the structure doesnt read the
+ * same Nodes with all of their references from the database again and again.
+ * <p>
+ * A cached Node is returned with its ChildNodes and its ParentNodes, so a change of a Node invalidates the Node
+ * itself, its ParentNode and all of its descendants. As every cached Node holds its whole loaded subtree, the cache is
+ * bounded by the number of Nodes in the cached subtrees instead of the number of cached entries. Hits, misses and
+ * evictions are published as the cache metrics "nodes" and "roots".
+ */
+@Service
+public class NodeCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeCacheService.class);
+
+    private static final String ROOTS_KEY = "roots";
+
+    private final boolean enabled;
+    private final Cache<String, Node> nodes;
+    private final Cache<String, List<Node>> roots;
+
+    /**
+     * Instantiates a new NodeCache-Service.
+     *
+     * @param enabled          true if Nodes are cached
+     * @param maximumWeight    the maximum number of Nodes held by the cached Nodes and their subtrees
+     * @param expireAfterWrite the time after which a cached Node is read from the database again
+     * @param meterRegistry    the registry the cache metrics are published to
+     */
+    @Autowired
+    public NodeCacheService(@Value("${server.node.cache.enabled:true}") boolean enabled,
+                            @Value("${server.node.cache.maximum-weight:100000}") long maximumWeight,
+                            @Value("${server.node.cache.expire-after-write:60s}") Duration expireAfterWrite,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.nodes = Caffeine.newBuilder().maximumWeight(maximumWeight).weigher(NodeCacheService::weigh).expireAfterWrite(expireAfterWrite).recordStats().build();
+        this.roots = Caffeine.newBuilder().maximumSize(1).expireAfterWrite(expireAfterWrite).recordStats().build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, this.nodes, "nodes");
+        CaffeineCacheMetrics.monitor(meterRegistry, this.roots, "roots");
+    }
+
+    /**
+     * Returns the cached Node with the given Id or reads and caches it.
+     *
+     * @param nodeId the Node-Id
+     * @param loader reads the Node from the database, returns null if it doesnt exist
+     * @return the Node or null if it doesnt exist
+     */
+    public Node getNode(String nodeId, Function<String, Node> loader) {
+        if (!this.enabled)
+            return loader.apply(nodeId);
+
+        return this.nodes.get(nodeId, loader);
+    }
+
+    /**
+     * Returns the cached Root-Nodes or reads and caches them.
+     *
+     * @param loader reads the Root-Nodes from the database
+     * @return the Root-Nodes
+     */
+    public List<Node> getRoots(Supplier<List<Node>> loader) {
+        if (!this.enabled)
+            return loader.get();
+
+        return this.roots.get(ROOTS_KEY, key -> loader.get());
+    }
+
+    /**
+     * Invalidates the given Node after its ChildNodes have changed.
+     *
+     * @param node the changed Node
+     */
+    public void invalidateNode(Node node) {
+        logger.debug("CALLED: invalidateNode() with node=" + node.getId());
+
+        // unsaved Nodes cant be cached
+        if (node.getId() != null)
+            this.nodes.invalidate(node.getId());
+
+        if (node.getParentNode() == null)
+            this.roots.invalidateAll();
+    }
+
+    /**
+     * Invalidates the given Nodes after they have changed.
+     *
+     * @param nodes the changed Nodes
+     */
+    public void invalidateNodes(Collection<Node> nodes) {
+        for (Node node: nodes)
+            invalidateNode(node);
+    }
+
+    /**
+     * Invalidates the given Node, its ParentNode and all of its descendants after the Node was renamed or deleted.
+     *
+     * @param node the renamed or deleted Node
+     */
+    public void invalidateSubtree(Node node) {
+        logger.debug("CALLED: invalidateSubtree() with node=" + node.getId());
+
+        invalidateNode(node);
+        if (node.getParentNode() != null)
+            invalidateNode(node.getParentNode());
+
+        // cached descendants show the Node within their ParentNodes
+        this.nodes.asMap().values().removeIf(cachedNode -> cachedNode.getAncestors().contains(node.getId()) || isDescendant(cachedNode, node.getId()));
+    }
+
+    /**
+     * Invalidates all cached Nodes.
+     */
+    public void invalidateAll() {
+        logger.debug("CALLED: invalidateAll()");
+
+        this.nodes.invalidateAll();
+        this.roots.invalidateAll();
+    }
+
+    /**
+     * Weighs a cached Node by the number of Nodes in its loaded subtree, including the Node itself.
+     */
+    private static int weigh(String nodeId, Node node) {
+        int weight = 0;
+        Deque<Node> pendingNodes = new ArrayDeque<>(List.of(node));
+
+        while (!pendingNodes.isEmpty() && weight < Integer.MAX_VALUE) {
+            weight++;
+            Node pendingNode = pendingNodes.pop();
+            if (pendingNode.getChildNodes() != null)
+                pendingNodes.addAll(pendingNode.getChildNodes());
+        }
+
+        return weight;
+    }
+
+    private boolean isDescendant(Node node, String ancestorId) {
+        // Nodes without materialized path dont know their ancestors
+        if (node.getPath() != null)
+            return false;
+
+        for (Node parentNode = node.getParentNode(); parentNode != null; parentNode = parentNode.getParentNode()) {
+            if (Objects.equals(parentNode.getId(), ancestorId))
+                return true;
+        }
+
+        return false;
+    }
+}
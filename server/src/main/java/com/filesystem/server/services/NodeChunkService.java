@@ -0,0 +1,231 @@
+package com.filesystem.server.services;
+
+import com.filesystem.server.entities.DataClientChunkDTO;
+import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.DataClientFileChunksDTO;
+import com.filesystem.server.entities.Node;
+import com.filesystem.server.entities.NodeTransferDTO;
+import com.filesystem.server.exceptions.DataClientDoesntExistById;
+import com.filesystem.server.exceptions.DataClientRestApiException;
+import com.filesystem.server.exceptions.InvalidNodeQueryException;
+import com.filesystem.server.exceptions.NodeDoesntExistById;
+import com.filesystem.server.repositories.DataClientConnectionRepository;
+import com.filesystem.server.repositories.NodeRepository;
+import com.filesystem.server.utils.NodeDocumentUtils;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * This class contains the logic of the content-defined chunks of files. The DataClients split their files into chunks
+ * identified by the SHA-256 of their content; the server keeps the chunk hashes and the content hash of every indexed
+ * file Node, so files with equal content are found on any DataClient and a file is copied between DataClients by
+ * sending only the chunks the receiving DataClient doesnt have yet.
+ */
+@Service
+public class NodeChunkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeChunkService.class);
+    private static final List<String> DUPLICATE_FIELDS = List.of("id", "name", "path");
+    private static final int MAX_DUPLICATES = 1000;
+
+    private final NodeRepository nodeRepository;
+    private final DataClientConnectionRepository dataClientConnectionRepository;
+    private final MongoTemplate mongoTemplate;
+    private final DataClientService dataClientService;
+    private final NodeCacheService nodeCacheService;
+    private final Duration chunkTimeout;
+    private final int transferConcurrency;
+
+    /**
+     * Instantiates a new NodeChunk-Service and autowires all needed beans.
+     *
+     * @param nodeRepository                 the node repository
+     * @param dataClientConnectionRepository the data client connection repository
+     * @param mongoTemplate                  the mongo template used to find duplicates
+     * @param dataClientService              the data client service
+     * @param nodeCacheService               the node cache service caching read Nodes
+     * @param chunkTimeout                   the maximum time to wait for a DataClient to chunk a file or to copy it
+     * @param transferConcurrency            the number of chunks copied at the same time
+     */
+    @Autowired
+    public NodeChunkService(NodeRepository nodeRepository, DataClientConnectionRepository dataClientConnectionRepository, MongoTemplate mongoTemplate,
+                            DataClientService dataClientService, NodeCacheService nodeCacheService,
+                            @Value("${server.node.chunk.timeout:5m}") Duration chunkTimeout,
+                            @Value("${server.node.chunk.transfer-concurrency:4}") int transferConcurrency) {
+        this.nodeRepository = nodeRepository;
+        this.dataClientConnectionRepository = dataClientConnectionRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.dataClientService = dataClientService;
+        this.nodeCacheService = nodeCacheService;
+        this.chunkTimeout = chunkTimeout;
+        this.transferConcurrency = transferConcurrency;
+    }
+
+    /**
+     * Reads the chunks of the file referenced by the Node-Id from a DataClient holding it and stores their hashes
+     * and the content hash of the file in the Node.
+     *
+     * @param nodeId the Node-Id
+     * @return the indexed Node
+     */
+    public Node indexNode(String nodeId) {
+        logger.debug("CALLED: indexNode() with nodeId=" + nodeId);
+
+        Node node = this.nodeRepository.findById(nodeId).orElseThrow(() -> new NodeDoesntExistById(nodeId));
+        readFileChunks(node, node.getDataClientConnection());
+
+        return node;
+    }
+
+    /**
+     * Returns all other Nodes with the same content as the file referenced by the Node-Id. The file is indexed first
+     * if it wasnt indexed yet, other files are only found if they were indexed before.
+     *
+     * @param nodeId the Node-Id
+     * @return the Id, Name and path of the Nodes with the same content
+     */
+    public List<Map<String, Object>> findDuplicates(String nodeId) {
+        logger.debug("CALLED: findDuplicates() with nodeId=" + nodeId);
+
+        Node node = this.nodeRepository.findById(nodeId).orElseThrow(() -> new NodeDoesntExistById(nodeId));
+        if (node.getContentHash() == null)
+            readFileChunks(node, node.getDataClientConnection());
+
+        Query query = new Query(Criteria.where("contentHash").is(node.getContentHash()).and("_id").ne(NodeDocumentUtils.toStoredId(nodeId)))
+                .with(Sort.by("path")).limit(MAX_DUPLICATES);
+        NodeDocumentUtils.includeFields(query, DUPLICATE_FIELDS);
+
+        return this.mongoTemplate.find(query, Document.class, this.mongoTemplate.getCollectionName(Node.class)).stream()
+                .map(document -> NodeDocumentUtils.toProjectedNode(document, DUPLICATE_FIELDS))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Copies the file referenced by the Node-Id to another DataClient. Only the chunks the target DataClient doesnt
+     * have yet are copied, the target writes the file from its own chunks and the copied ones.
+     *
+     * @param nodeId                       the Node-Id
+     * @param targetDataClientConnectionId the Id of the DataClientConnection the file is copied to
+     * @return the statistics of the transfer
+     */
+    public NodeTransferDTO transferNode(String nodeId, String targetDataClientConnectionId) {
+        logger.debug("CALLED: transferNode() with nodeId=" + nodeId + " target=" + targetDataClientConnectionId);
+
+        Node node = this.nodeRepository.findById(nodeId).orElseThrow(() -> new NodeDoesntExistById(nodeId));
+        DataClientConnection target = this.dataClientConnectionRepository.findById(targetDataClientConnectionId)
+                .orElseThrow(() -> new DataClientDoesntExistById(targetDataClientConnectionId));
+
+        List<DataClientConnection> sources = node.getDataClientConnection().stream()
+                .filter(dataClientConnection -> !Objects.equals(dataClientConnection.getId(), target.getId()))
+                .collect(Collectors.toList());
+        if (sources.size() == node.getDataClientConnection().size() - 1)
+            throw new InvalidNodeQueryException(String.format("The node with ID= %s is already held by the DataClient with ID= %s!", nodeId, targetDataClientConnectionId));
+
+        Map.Entry<DataClientConnection, DataClientFileChunksDTO> source = readFileChunks(node, sources);
+        DataClientFileChunksDTO fileChunks = source.getValue();
+        List<String> hashes = fileChunks.getChunks().stream().map(DataClientChunkDTO::getHash).collect(Collectors.toList());
+
+        Set<String> missingHashes = new HashSet<>(this.dataClientService.findMissingChunksAsync(target, hashes).timeout(this.chunkTimeout).block());
+
+        Flux.fromIterable(missingHashes)
+                .flatMap(hash -> this.dataClientService.copyChunkAsync(source.getKey(), target, hash), this.transferConcurrency)
+                .then()
+                .timeout(this.chunkTimeout)
+                .block();
+
+        this.dataClientService.assembleFileAsync(target, node.toDataClientPath(), hashes).timeout(this.chunkTimeout).block();
+
+        // the target now holds the file and the directories leading to it, only the DataClientConnections are written
+        // so a concurrent change of the Nodes isnt overwritten
+        List<Object> nodeIds = new ArrayList<>();
+        nodeIds.add(NodeDocumentUtils.toStoredId(node.getId()));
+        for (String ancestorId: node.getAncestors())
+            nodeIds.add(NodeDocumentUtils.toStoredId(ancestorId));
+        this.mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(nodeIds)), new Update().addToSet("dataClientConnection", target), Node.class);
+
+        node.addDataClientConnection(target);
+        List<Node> ancestors = new ArrayList<>();
+        for (Node parentNode = node.getParentNode(); parentNode != null; parentNode = parentNode.getParentNode()) {
+            parentNode.addDataClientConnection(target);
+            ancestors.add(parentNode);
+        }
+        this.nodeCacheService.invalidateSubtree(node);
+        this.nodeCacheService.invalidateNodes(ancestors);
+
+        NodeTransferDTO transfer = new NodeTransferDTO();
+        transfer.setNodeId(nodeId);
+        transfer.setSourceDataClientConnectionId(source.getKey().getId());
+        transfer.setTargetDataClientConnectionId(target.getId());
+        transfer.setChunks(hashes.size());
+        transfer.setTransferredChunks(missingHashes.size());
+        // a chunk appearing several times in the file is only copied once
+        Set<String> countedHashes = new HashSet<>();
+        for (DataClientChunkDTO chunk: fileChunks.getChunks()) {
+            if (missingHashes.contains(chunk.getHash()) && countedHashes.add(chunk.getHash()))
+                transfer.setTransferredBytes(transfer.getTransferredBytes() + chunk.getLength());
+        }
+        transfer.setSkippedBytes(fileChunks.getSize() - transfer.getTransferredBytes());
+
+        logger.info(String.format("Transferred node %s to DataClient %s, %s of %s chunks copied", nodeId, target.getId(), transfer.getTransferredChunks(), transfer.getChunks()));
+
+        return transfer;
+    }
+
+    /**
+     * Reads the chunks of the file from the first of the given DataClients which answers and stores them in the Node.
+     */
+    private Map.Entry<DataClientConnection, DataClientFileChunksDTO> readFileChunks(Node node, List<DataClientConnection> dataClientConnections) {
+        String path = node.toDataClientPath();
+
+        Map.Entry<DataClientConnection, DataClientFileChunksDTO> fileChunks = null;
+        Throwable lastError = null;
+        for (DataClientConnection dataClientConnection: dataClientConnections) {
+            try {
+                DataClientFileChunksDTO result = Mono.defer(() -> this.dataClientService.getFileChunksAsync(dataClientConnection, path)).timeout(this.chunkTimeout).block();
+                fileChunks = Map.entry(dataClientConnection, result);
+                break;
+            } catch (RuntimeException e) {
+                logger.warn(String.format("Reading the chunks of %s from DataClient %s failed: %s", path, dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), e.getMessage()));
+                lastError = e;
+            }
+        }
+        if (fileChunks == null) {
+            if (lastError != null)
+                throw new DataClientRestApiException("/api/chunk/file", dataClientConnections.get(dataClientConnections.size() - 1));
+            throw new InvalidNodeQueryException(String.format("The node with ID= %s isnt held by any DataClient!", node.getId()));
+        }
+
+        List<String> chunkHashes = new ArrayList<>();
+        for (DataClientChunkDTO chunk: fileChunks.getValue().getChunks())
+            chunkHashes.add(chunk.getHash());
+
+        node.setContentHash(fileChunks.getValue().getContentHash());
+        node.setChunkHashes(chunkHashes);
+        // only the chunk fields are written, so a concurrent change of the Node isnt overwritten
+        this.mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(NodeDocumentUtils.toStoredId(node.getId()))),
+                new Update().set("contentHash", node.getContentHash()).set("chunkHashes", chunkHashes), Node.class);
+        this.nodeCacheService.invalidateNode(node);
+
+        return fileChunks;
+    }
+}
@@ -0,0 +1,104 @@
+package com.filesystem.server.services;
+
+import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.Node;
+import com.filesystem.server.exceptions.DataClientRestApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class relays the content of files from the DataClients holding them. The content is passed on as it is read
+ * from the DataClient, so the server never holds a file in memory and a slow caller slows down the read from the
+ * DataClient instead of filling up buffers.
+ */
+@Service
+public class NodeContentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeContentService.class);
+
+    private static final String CONTENT_ENDPOINT = "/api/node/content";
+    private static final List<String> FORWARDED_HEADERS = List.of(HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_RANGE,
+            HttpHeaders.ACCEPT_RANGES, HttpHeaders.CONTENT_DISPOSITION);
+
+    private final DataClientService dataClientService;
+    private final Duration dataClientCallTimeout;
+
+    /**
+     * Instantiates a new NodeContent-Service.
+     *
+     * @param dataClientService     the data client service
+     * @param dataClientCallTimeout the maximum time to wait for the response headers of a single DataClient
+     */
+    @Autowired
+    public NodeContentService(DataClientService dataClientService,
+                              @Value("${server.dataclient.call-timeout:10s}") Duration dataClientCallTimeout) {
+        this.dataClientService = dataClientService;
+        this.dataClientCallTimeout = dataClientCallTimeout;
+    }
+
+    /**
+     * Reads the content of the given Node from the first DataClient holding it which answers. Another DataClient is
+     * only tried if the previous one couldnt be reached or failed before sending any content.
+     *
+     * @param node  the Node to read the content from
+     * @param range the requested byte ranges as Range-Header or null for the whole content
+     * @return a Mono emitting the response with the status, the content headers and the content of the DataClient
+     */
+    public Mono<ResponseEntity<Flux<DataBuffer>>> readContent(Node node, String range) {
+        logger.debug(String.format("CALLED: readContent() with node=%s range=%s", node.getId(), range));
+
+        List<DataClientConnection> dataClientConnections = new ArrayList<>(node.getDataClientConnection());
+        if (dataClientConnections.isEmpty())
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("The node with ID= %s isnt held by any DataClient!", node.getId())));
+
+        String path = node.toDataClientPath();
+
+        Mono<ResponseEntity<Flux<DataBuffer>>> response = null;
+        for (DataClientConnection dataClientConnection: dataClientConnections) {
+            // the timeout only covers the headers, the content may take as long as the caller needs to consume it
+            Mono<ResponseEntity<Flux<DataBuffer>>> call = Mono.defer(() -> this.dataClientService.readNodeContentAsync(dataClientConnection, path, range))
+                    .timeout(this.dataClientCallTimeout)
+                    .onErrorMap(e -> !(e instanceof WebClientResponseException), e -> new DataClientRestApiException(CONTENT_ENDPOINT, dataClientConnection));
+
+            response = response == null ? call : response.onErrorResume(this::isRetryable, e -> {
+                logger.warn(String.format("Reading the content of %s failed, trying the next DataClient: %s", path, e.getMessage()));
+                return call;
+            });
+        }
+
+        return response
+                .map(this::toRelayedResponse)
+                .onErrorMap(WebClientResponseException.class, e -> new ResponseStatusException(e.getStatusCode(), e.getStatusText()));
+    }
+
+    private boolean isRetryable(Throwable e) {
+        // client errors like a missing file or an unsatisfiable range are the same on every DataClient
+        return !(e instanceof WebClientResponseException) || ((WebClientResponseException) e).getStatusCode().is5xxServerError();
+    }
+
+    private ResponseEntity<Flux<DataBuffer>> toRelayedResponse(ResponseEntity<Flux<DataBuffer>> response) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String header: FORWARDED_HEADERS) {
+            List<String> values = response.getHeaders().get(header);
+            if (values != null)
+                headers.put(header, values);
+        }
+
+        return ResponseEntity.status(response.getStatusCode()).headers(headers).body(response.getBody());
+    }
+}
@@ -0,0 +1,77 @@
+package com.filesystem.server.services;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+/**
+ * This class migrates the stored Nodes to the current schema when the server has started. The schema version of the
+ * stored Nodes is kept in its own collection, so the migration only runs once and not on every start.
+ */
+@Service
+public class NodeMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(NodeMigrationService.class);
+
+    /**
+     * The collection keeping the schema version of the stored documents.
+     */
+    public static final String SCHEMA_VERSION_COLLECTION = "schemaVersions";
+    /**
+     * The current schema version of the Nodes, version 1 added the materialized paths, ancestor ids and name trigrams.
+     */
+    public static final int NODE_SCHEMA_VERSION = 1;
+
+    private static final String NODE_SCHEMA_ID = "node";
+
+    private final NodeService nodeService;
+    private final MongoTemplate mongoTemplate;
+    private final boolean migratePaths;
+
+    /**
+     * Instantiates a new NodeMigration-Service and autowires all needed beans.
+     *
+     * @param nodeService   the Node-Service
+     * @param mongoTemplate the mongo template reading and writing the schema version
+     * @param migratePaths  true if missing materialized paths are set on startup
+     */
+    @Autowired
+    public NodeMigrationService(NodeService nodeService, MongoTemplate mongoTemplate, @Value("${server.node.migrate-paths.enabled:true}") boolean migratePaths) {
+        this.nodeService = nodeService;
+        this.mongoTemplate = mongoTemplate;
+        this.migratePaths = migratePaths;
+    }
+
+    /**
+     * Sets the materialized paths of all Nodes stored before they were introduced, unless the stored Nodes already
+     * have the current schema version.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        logger.debug("CALLED: migrate()");
+
+        if (!this.migratePaths)
+            return;
+
+        try {
+            Query query = new Query(Criteria.where("_id").is(NODE_SCHEMA_ID));
+            Document schemaVersion = this.mongoTemplate.findOne(query, Document.class, SCHEMA_VERSION_COLLECTION);
+            if (schemaVersion != null && schemaVersion.getInteger("version", 0) >= NODE_SCHEMA_VERSION)
+                return;
+
+            this.nodeService.migrateMaterializedPaths();
+            this.mongoTemplate.upsert(query, Update.update("version", NODE_SCHEMA_VERSION), SCHEMA_VERSION_COLLECTION);
+        } catch (Exception e) {
+            logger.warn("Migration of materialized paths failed: " + e.getMessage());
+        }
+    }
+}
@@ -1,17 +1,47 @@
 package com.filesystem.server.services;
 
+import com.filesystem.server.entities.DataClientChangeDTO;
 import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.DeletedNodesDTO;
 import com.filesystem.server.entities.Node;
+import com.filesystem.server.entities.NodeLookupStatsDTO;
+import com.filesystem.server.entities.NodePageDTO;
+import com.filesystem.server.entities.ReplicaResultDTO;
 import com.filesystem.server.exceptions.NodeAlreadyExistsException;
 import com.filesystem.server.exceptions.NodeDoesntExistById;
 import com.filesystem.server.repositories.NodeRepository;
+import com.filesystem.server.utils.DataClientServiceUtils;
+import com.filesystem.server.utils.NodeDocumentUtils;
+import com.filesystem.server.utils.NodePageUtils;
+import com.filesystem.server.utils.NodeSearchUtils;
+import com.mongodb.ExplainVerbosity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -22,20 +52,44 @@ import java.util.stream.Collectors;
 public class NodeService {
 
     private static final Logger logger = LoggerFactory.getLogger(NodeService.class);
+    private static final int EXPORT_BATCH_SIZE = 1000;
+    private static final List<String> SYNC_FIELDS = List.of("id", "name", "path", "parentNode", "ancestors", "contentHash");
 
     private final NodeRepository nodeRepository;
     private final DataClientService dataClientService;
+    private final MongoTemplate mongoTemplate;
+    private final NodeCacheService nodeCacheService;
+    private final boolean bulkImport;
+    private final int bulkImportBatchSize;
+    private final boolean lookupStats;
+    private final Duration dataClientCallTimeout;
 
     /**
      * Instantiates a new Node-Service and autowires all needed beans.
      *
      * @param nodeRepository                 the node repository
      * @param dataClientService              the data client service
+     * @param mongoTemplate                  the mongo template used for bulk writes
+     * @param nodeCacheService               the node cache service caching read Nodes
+     * @param bulkImport                     true if Node-Structures are imported with bulk writes
+     * @param bulkImportBatchSize            the number of Nodes written per bulk write
+     * @param lookupStats                    true if the documents examined by the ChildNode lookups of a merge are measured
+     * @param dataClientCallTimeout          the maximum time to wait for a single DataClient
      */
     @Autowired
-    public NodeService(NodeRepository nodeRepository, DataClientService dataClientService) {
+    public NodeService(NodeRepository nodeRepository, DataClientService dataClientService, MongoTemplate mongoTemplate, NodeCacheService nodeCacheService,
+                       @Value("${server.node.bulk-import.enabled:true}") boolean bulkImport,
+                       @Value("${server.node.bulk-import.batch-size:1000}") int bulkImportBatchSize,
+                       @Value("${server.node.lookup-stats.enabled:false}") boolean lookupStats,
+                       @Value("${server.dataclient.call-timeout:10s}") Duration dataClientCallTimeout) {
         this.nodeRepository = nodeRepository;
         this.dataClientService = dataClientService;
+        this.mongoTemplate = mongoTemplate;
+        this.nodeCacheService = nodeCacheService;
+        this.bulkImport = bulkImport;
+        this.bulkImportBatchSize = bulkImportBatchSize;
+        this.lookupStats = lookupStats;
+        this.dataClientCallTimeout = dataClientCallTimeout;
     }
 
     /**
@@ -47,18 +101,30 @@ public class NodeService {
     public Node readNode(String nodeId) {
         logger.debug("CALLED: readNode()");
 
-        return this.nodeRepository.findById(nodeId).orElseThrow();
+        return Optional.ofNullable(this.nodeCacheService.getNode(nodeId, id -> this.nodeRepository.findById(id).orElse(null))).orElseThrow();
     }
 
     /**
-     * Reads all Nodes from the database.
+     * Exports all Nodes of the database one by one as they are read from the cursor, so only one batch of documents
+     * is held in memory. The references of a Node are exported as Ids instead of being resolved.
      *
-     * @return list of Nodes
+     * @param consumer the consumer every exported Node is handed to
+     * @return the number of exported Nodes
      */
-    public List<Node> readAllNodes() {
-        logger.debug("CALLED: readNodeByName()");
+    public long exportAllNodes(Consumer<Map<String, Object>> consumer) {
+        logger.debug("CALLED: exportAllNodes()");
 
-        return this.nodeRepository.findAll();
+        Query query = NodeDocumentUtils.includeFields(new Query(), NodeDocumentUtils.EXPORT_FIELDS).cursorBatchSize(EXPORT_BATCH_SIZE);
+        long exportedNodes = 0;
+
+        try (CloseableIterator<Document> documents = this.mongoTemplate.stream(query, Document.class, this.mongoTemplate.getCollectionName(Node.class))) {
+            while (documents.hasNext()) {
+                consumer.accept(NodeDocumentUtils.toProjectedNode(documents.next(), NodeDocumentUtils.EXPORT_FIELDS));
+                exportedNodes++;
+            }
+        }
+
+        return exportedNodes;
     }
 
     /**
@@ -73,6 +139,26 @@ public class NodeService {
         return this.nodeRepository.findAllByName(name);
     }
 
+    /**
+     * Searches Nodes by prefix, substring or glob of their Name or path. Every search is answered from an index, the
+     * Nodes are returned projected to their id, name, path and ParentNode-Id.
+     *
+     * @param term  the searched term
+     * @param mode  prefix, substring (case insensitive) or glob (with * and ?)
+     * @param field name or path
+     * @param limit the maximum number of Nodes to be returned
+     * @return list of the matching Nodes
+     */
+    public List<Map<String, Object>> searchNodes(String term, String mode, String field, int limit) {
+        logger.debug("CALLED: searchNodes() with term=" + term + " mode=" + mode + " field=" + field + " limit=" + limit);
+
+        Query query = NodeSearchUtils.buildSearchQuery(term, mode, field, limit);
+
+        return this.mongoTemplate.find(query, Document.class, this.mongoTemplate.getCollectionName(Node.class)).stream()
+                .map(document -> NodeDocumentUtils.toProjectedNode(document, NodeSearchUtils.SEARCH_FIELDS))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Create a new node and append it to a given ParentNode.
      *
@@ -85,20 +171,19 @@ public class NodeService {
 
         if (parentNode != null)
             newNode.setParentNode(parentNode);
+        newNode.updateMaterializedPath();
 
-        Node finalNewNode = newNode;
-        List <Node> matchingNodes = this.nodeRepository.findAllByName(newNode.getName()).stream().filter(node -> node.getName().equals(finalNewNode.getName()) && node.getParentNode() == finalNewNode.getParentNode()).collect(Collectors.toList());
+        Node matchingNode = findChildNode(newNode.getParentNode(), newNode.getName(), null);
 
-        if (matchingNodes.size() > 1) {
-            throw new RuntimeException("The structure of the filesystem is inconsistent!");
-        } else if (matchingNodes.size() == 1) {
-            Node matchingNode = matchingNodes.get(0);
+        if (matchingNode != null) {
             matchingNode.addChildNodes(newNode.getChildNodes());
+            this.nodeCacheService.invalidateNode(matchingNode);
             return this.nodeRepository.save(matchingNode);
         } else {
             newNode = this.nodeRepository.save(newNode);
             parentNode.addChildNode(newNode);
             this.nodeRepository.save(parentNode);
+            this.nodeCacheService.invalidateNode(parentNode);
             return newNode;
         }
     }
@@ -120,41 +205,65 @@ public class NodeService {
             throw new NodeAlreadyExistsException(node);
         }
 
-        return this.nodeRepository.save(node);
+        node = this.nodeRepository.save(node);
+        this.nodeCacheService.invalidateNode(node);
+
+        return node;
     }
 
     /**
-     * Delete a node by given id.
+     * Delete a node by given id together with all of its descendants.
      *
      * @param nodeId the Node-Id
+     * @return the Id of the deleted Node and the number of deleted Nodes
      */
-    public void deleteNode(String nodeId) {
+    public DeletedNodesDTO deleteNode(String nodeId) {
         logger.debug("CALLED: deleteNode() with nodeId=" + nodeId);
 
-        try {
-            Node node = this.nodeRepository.findById(nodeId).orElseThrow();
+        Node node = this.nodeRepository.findById(nodeId).orElseThrow(() -> new NodeDoesntExistById(nodeId));
 
-            for (DataClientConnection dataClientConnection: node.getDataClientConnection()) {
-                this.dataClientService.deleteNode(dataClientConnection, node.toDataClientPath());
-            }
+        DeletedNodesDTO deletedNodes = new DeletedNodesDTO();
+        deletedNodes.setNodeId(nodeId);
+        deletedNodes.setReplicaResults(callDataClients("/api/node", node.getDataClientConnection(), dataClientConnection -> this.dataClientService.deleteNodeAsync(dataClientConnection, node.toDataClientPath())));
 
-            Node parentNode = node.getParentNode();
-            parentNode.removeChildNode(node);
+        Node parentNode = node.getParentNode();
+        if (parentNode != null) {
+            parentNode.getChildNodes().removeIf(childNode -> Objects.equals(childNode.getId(), node.getId()));
             this.nodeRepository.save(parentNode);
+        }
 
-            traverseNodeDownAndDelete(node);
-        } catch (Exception e) {
-            logger.error(e.getMessage());
+        if (node.getPath() != null) {
+            deletedNodes.setDeletedNodes(deleteSubtree(node));
+        } else {
+            deletedNodes.setDeletedNodes(traverseNodeDownAndDelete(node));
         }
+
+        this.nodeCacheService.invalidateSubtree(node);
+
+        return deletedNodes;
     }
 
-    private void traverseNodeDownAndDelete(Node node) {
+    /**
+     * Deletes the Node and all of its descendants with a single delete on the ancestor ids.
+     */
+    private long deleteSubtree(Node node) {
+        logger.debug("CALLED: deleteSubtree() with node=" + node.getId());
+
+        Query query = new Query(new Criteria().orOperator(Criteria.where("_id").is(node.getId()), Criteria.where("ancestors").is(node.getId())));
+
+        return this.mongoTemplate.remove(query, Node.class).getDeletedCount();
+    }
+
+    private long traverseNodeDownAndDelete(Node node) {
         logger.debug("CALLED: traverseNodeDownAndDelete() with node=" + node.getId());
 
+        long deletedNodes = 1;
         for (Node childNode: node.getChildNodes())
-            traverseNodeDownAndDelete(childNode);
+            deletedNodes += traverseNodeDownAndDelete(childNode);
 
         this.nodeRepository.delete(node);
+
+        return deletedNodes;
     }
 
     /**
@@ -167,13 +276,105 @@ public class NodeService {
     public Node initDataStructure(Node rootNode, DataClientConnection dataClientConnection) {
         logger.debug("CALLED: initDataStructure() with rootNode=" + rootNode.getName() + " dataClientConnection=" + dataClientConnection.getName());
 
-        return traverseNodeDownAndSave(rootNode, dataClientConnection);
+        if (this.bulkImport)
+            return importDataStructure(rootNode, dataClientConnection);
+
+        NodeLookupStatsDTO stats = this.lookupStats ? new NodeLookupStatsDTO() : null;
+        Node mergedRootNode = traverseNodeDownAndSave(rootNode, dataClientConnection, stats);
+        logger.info(String.format("Merged structure of DataClient %s", dataClientConnection.getName()));
+        logLookupStats(dataClientConnection, stats);
+        this.nodeCacheService.invalidateAll();
+
+        return mergedRootNode;
+    }
+
+    /**
+     * Merges the given Node-Structure into the stored structure in memory and writes all new or changed Nodes with
+     * ordered bulk writes, instead of saving and querying every Node on its own.
+     */
+    private Node importDataStructure(Node rootNode, DataClientConnection dataClientConnection) {
+        logger.debug("CALLED: importDataStructure() with rootNode=" + rootNode.getName() + " dataClientConnection=" + dataClientConnection.getName());
+
+        NodeLookupStatsDTO stats = this.lookupStats ? new NodeLookupStatsDTO() : null;
+        Node existingRootNode = findChildNode(null, rootNode.getName(), stats);
+
+        List<Node> changedNodes = new ArrayList<>();
+        Node mergedRootNode = mergeNode(existingRootNode, rootNode, null, dataClientConnection, changedNodes);
+
+        BulkOperations bulkOperations = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Node.class);
+        int pendingOperations = 0;
+
+        for (Node node: changedNodes) {
+            bulkOperations.replaceOne(new Query(Criteria.where("_id").is(node.getId())), node, FindAndReplaceOptions.options().upsert());
+
+            if (++pendingOperations == this.bulkImportBatchSize) {
+                bulkOperations.execute();
+                bulkOperations = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Node.class);
+                pendingOperations = 0;
+            }
+        }
+
+        if (pendingOperations > 0)
+            bulkOperations.execute();
+
+        this.nodeCacheService.invalidateNodes(changedNodes);
+
+        logger.info(String.format("Imported structure of DataClient %s, %s nodes written", dataClientConnection.getName(), changedNodes.size()));
+        logLookupStats(dataClientConnection, stats);
+
+        return mergedRootNode;
+    }
+
+    private Node mergeNode(Node existingNode, Node newNode, Node parentNode, DataClientConnection dataClientConnection, List<Node> changedNodes) {
+        List<Node> newChildNodes = new ArrayList<>(newNode.getChildNodes());
+        Node mergedNode = existingNode;
+        boolean changed = false;
+
+        if (mergedNode == null) {
+            // ids are assigned up front, so references between new Nodes can be written in the same bulk
+            mergedNode = newNode;
+            mergedNode.setId(new ObjectId().toHexString());
+            mergedNode.setParentNode(parentNode);
+            mergedNode.setChildNodes(new ArrayList<>());
+            mergedNode.updateMaterializedPath();
+            changed = true;
+        } else if (mergedNode.getPath() == null) {
+            mergedNode.updateMaterializedPath();
+            changed = true;
+        }
+
+        if (!mergedNode.getDataClientConnection().contains(dataClientConnection)) {
+            mergedNode.addDataClientConnection(dataClientConnection);
+            changed = true;
+        }
+
+        Map<String, Node> existingChildNodes = new HashMap<>();
+        for (Node childNode: mergedNode.getChildNodes())
+            existingChildNodes.putIfAbsent(childNode.getName(), childNode);
+
+        for (Node newChildNode: newChildNodes) {
+            Node existingChildNode = existingChildNodes.get(newChildNode.getName());
+            Node mergedChildNode = mergeNode(existingChildNode, newChildNode, mergedNode, dataClientConnection, changedNodes);
+
+            if (existingChildNode == null) {
+                mergedNode.addChildNode(mergedChildNode);
+                existingChildNodes.put(mergedChildNode.getName(), mergedChildNode);
+                changed = true;
+            }
+        }
+
+        if (changed)
+            changedNodes.add(mergedNode);
+
+        return mergedNode;
     }
 
-    private Node traverseNodeDownAndSave(Node currentNode, DataClientConnection dataClientConnection) {
+    private Node traverseNodeDownAndSave(Node currentNode, DataClientConnection dataClientConnection, NodeLookupStatsDTO stats) {
         logger.debug("CALLED: traverseNodeDownAndSave() with currentNode=" + currentNode.getName() + " dataClientConnection=" + dataClientConnection.getName());
 
-        Node existingNode = getExistingNode(currentNode);
+        Node existingNode = getExistingNode(currentNode, stats);
+        if (existingNode.getPath() == null)
+            existingNode.updateMaterializedPath();
         existingNode.updateChildNodes(currentNode);
         existingNode.addDataClientConnection(dataClientConnection);
         existingNode = this.nodeRepository.save(existingNode);
@@ -183,10 +384,10 @@ public class NodeService {
             childNode.setParentNode(existingNode);
             childNode.addDataClientConnection(dataClientConnection);
 
-            Node existingChildNode = getExistingNode(childNode);
+            Node existingChildNode = getExistingNode(childNode, stats);
             existingChildNode.updateChildNodes(childNode);
             existingChildNode.addDataClientConnection(dataClientConnection);
-            traverseNodeDownAndSave(childNode, dataClientConnection);
+            traverseNodeDownAndSave(childNode, dataClientConnection, stats);
 
             this.nodeRepository.save(existingChildNode);
             existingNode = this.nodeRepository.save(existingNode);
@@ -195,24 +396,316 @@ public class NodeService {
         return existingNode;
     }
 
-    private Node getExistingNode(Node currentNode) {
+    private Node getExistingNode(Node currentNode, NodeLookupStatsDTO stats) {
         logger.debug("CALLED: getExistingNode() with currentNode=" + currentNode.getName());
 
-        List<Node> nodes = this.nodeRepository.findAllByName(currentNode.getName());
-        if (nodes.size() == 0) {
-            return currentNode;
+        Node existingNode = findChildNode(currentNode.getParentNode(), currentNode.getName(), stats);
+
+        return existingNode != null ? existingNode : currentNode;
+    }
+
+    /**
+     * Looks up a single ChildNode through the index on ParentNode and Name, instead of reading all Nodes with the
+     * same Name. Root-Nodes are looked up by Name only.
+     */
+    private Node findChildNode(Node parentNode, String name, NodeLookupStatsDTO stats) {
+        Node childNode;
+        if (parentNode == null) {
+            childNode = this.nodeRepository.findFirstByParentNodeIsNullAndName(name);
+        } else if (parentNode.getId() != null) {
+            childNode = this.nodeRepository.findFirstByParentNodeAndName(parentNode, name);
+        } else {
+            return null;
         }
 
-        if (currentNode.getParentNode() == null) {
-            return nodes.stream().filter(node -> node.getParentNode() == null).collect(Collectors.toList()).get(0);
+        if (stats != null) {
+            NodeLookupStatsDTO lookupStats = explainChildNodeLookup(parentNode, name);
+            stats.setLookups(stats.getLookups() + 1);
+            stats.setLegacyExaminedDocuments(stats.getLegacyExaminedDocuments() + lookupStats.getLegacyExaminedDocuments());
+            stats.setExaminedDocuments(stats.getExaminedDocuments() + lookupStats.getExaminedDocuments());
+        }
+
+        return childNode;
+    }
+
+    /**
+     * Measures how many documents MongoDB examines to look up a ChildNode, once with the former lookup reading all
+     * Nodes with the Name and once with the lookup on ParentNode and Name. The numbers are taken from the execution
+     * stats of the explained queries, so they include the documents which are read but dont match.
+     *
+     * @param parentNode the ParentNode or null to look up a Root-Node
+     * @param name       the Name of the ChildNode
+     * @return the documents examined by both lookups
+     */
+    public NodeLookupStatsDTO explainChildNodeLookup(Node parentNode, String name) {
+        logger.debug("CALLED: explainChildNodeLookup() with name=" + name);
+
+        Object parentId = parentNode == null ? null : NodeDocumentUtils.toStoredId(parentNode.getId());
+
+        NodeLookupStatsDTO stats = new NodeLookupStatsDTO();
+        stats.setLookups(1);
+        stats.setLegacyExaminedDocuments(explainExaminedDocuments(new Document("name", name), 0));
+        stats.setExaminedDocuments(explainExaminedDocuments(new Document("parentNode", parentId).append("name", name), 1));
+
+        return stats;
+    }
+
+    private long explainExaminedDocuments(Document filter, int limit) {
+        Document explanation = this.mongoTemplate.getCollection(this.mongoTemplate.getCollectionName(Node.class))
+                .find(filter)
+                .limit(limit)
+                .explain(ExplainVerbosity.EXECUTION_STATS);
+        Document executionStats = explanation.get("executionStats", Document.class);
+
+        return executionStats == null ? 0 : executionStats.get("totalDocsExamined", Number.class).longValue();
+    }
+
+    private void logLookupStats(DataClientConnection dataClientConnection, NodeLookupStatsDTO stats) {
+        if (stats == null)
+            return;
+
+        logger.info(String.format("Child lookups of DataClient %s: %s lookups, %s documents examined, %s documents examined by the former lookup on the name",
+                dataClientConnection.getName(), stats.getLookups(), stats.getExaminedDocuments(), stats.getLegacyExaminedDocuments()));
+    }
+
+    /**
+     * Apply the changes reported by a DataClient to its Node-Structure on the server. Every changed Node and its
+     * ParentNode are looked up through the index on the materialized path without resolving their references, and
+     * only the changed fields are written, so the cost is proportional to the number of changes instead of the size
+     * of the structure.
+     *
+     * @param dataClientConnection the DataClientConnection the changes belong to
+     * @param changes              the changes in the order they happened on the DataClient
+     * @return false if the DataClient has no Node-Structure on the server yet, which then has to be imported as a whole
+     */
+    public boolean applyDataClientChanges(DataClientConnection dataClientConnection, List<DataClientChangeDTO> changes) {
+        logger.debug("CALLED: applyDataClientChanges() with dataClientConnection=" + dataClientConnection.getName() + " changes=" + changes.size());
+
+        if (changes.isEmpty())
+            return true;
+
+        Query rootQuery = new Query(Criteria.where("parentNode").is(null).and("dataClientConnection").is(NodeDocumentUtils.toStoredId(dataClientConnection.getId())));
+        rootQuery.fields().include("name").include("path");
+        Document rootDocument = this.mongoTemplate.findOne(rootQuery, Document.class, this.mongoTemplate.getCollectionName(Node.class));
+
+        if (rootDocument == null) {
+            logger.warn(String.format("DataClient %s has no structure on the server yet", dataClientConnection.getName()));
+            return false;
         }
 
-        nodes = nodes.stream().filter(node -> Objects.equals(node.getParentNode().getId(), currentNode.getParentNode().getId())).collect(Collectors.toList());
-        if (nodes.size() > 0) {
-            return nodes.get(0);
+        String rootPath = rootDocument.getString("path") != null ? rootDocument.getString("path") : rootDocument.getString("name");
+
+        for (DataClientChangeDTO change: changes) {
+            if (DataClientChangeDTO.CREATED.equals(change.getType())) {
+                applyCreatedChange(rootPath, change.getPath(), dataClientConnection);
+            } else if (DataClientChangeDTO.DELETED.equals(change.getType())) {
+                applyDeletedChange(rootPath, change.getPath(), dataClientConnection);
+            } else if (DataClientChangeDTO.MODIFIED.equals(change.getType())) {
+                applyModifiedChange(rootPath, change.getPath());
+            }
         }
 
-        return currentNode;
+        return true;
+    }
+
+    /**
+     * Imports the whole Node-Structure of a DataClient again, after it no longer had all changes since the last
+     * synchronization. The DataClientConnection is removed from all Nodes missing in the structure first, so files
+     * deleted in the meantime dont stay on the server.
+     *
+     * @param rootNode             the Root-Node of the current structure of the DataClient
+     * @param dataClientConnection the DataClientConnection
+     * @return the new Node-Structure
+     */
+    public Node resyncDataStructure(Node rootNode, DataClientConnection dataClientConnection) {
+        logger.debug("CALLED: resyncDataStructure() with rootNode=" + rootNode.getName() + " dataClientConnection=" + dataClientConnection.getName());
+
+        Set<String> paths = new HashSet<>();
+        collectPaths(rootNode, null, paths);
+
+        Query query = new Query(Criteria.where("dataClientConnection").is(NodeDocumentUtils.toStoredId(dataClientConnection.getId()))).cursorBatchSize(EXPORT_BATCH_SIZE);
+        query.fields().include("path");
+        List<Object> missingNodeIds = new ArrayList<>();
+
+        try (CloseableIterator<Document> documents = this.mongoTemplate.stream(query, Document.class, this.mongoTemplate.getCollectionName(Node.class))) {
+            while (documents.hasNext()) {
+                Document document = documents.next();
+                // Nodes without a materialized path cant be compared and are left to the merge
+                if (document.getString("path") != null && !paths.contains(document.getString("path")))
+                    missingNodeIds.add(document.get("_id"));
+            }
+        }
+
+        removeDataClientConnection(missingNodeIds, dataClientConnection);
+        if (!missingNodeIds.isEmpty())
+            logger.info(String.format("Removed DataClient %s from %s nodes missing in its structure", dataClientConnection.getName(), missingNodeIds.size()));
+
+        // the import invalidates all cached Nodes
+        return initDataStructure(rootNode, dataClientConnection);
+    }
+
+    private void collectPaths(Node node, String parentPath, Set<String> paths) {
+        String path = parentPath == null ? node.getName() : parentPath + "/" + node.getName();
+        paths.add(path);
+
+        for (Node childNode: node.getChildNodes())
+            collectPaths(childNode, path, paths);
+    }
+
+    private void applyCreatedChange(String rootPath, String path, DataClientConnection dataClientConnection) {
+        int separator = path.lastIndexOf('/');
+        Node parentNode = findNodeByPath(toStoredPath(rootPath, path.substring(0, separator)));
+        String name = path.substring(separator + 1);
+
+        if (parentNode == null || name.isEmpty()) {
+            logger.warn("Parent of changed path " + path + " doesnt exist, skipping change");
+            return;
+        }
+
+        Node existingNode = findNodeByPath(parentNode.getPath() + "/" + name);
+
+        if (existingNode != null) {
+            this.mongoTemplate.updateFirst(queryById(existingNode.getId()), new Update().addToSet("dataClientConnection", dataClientConnection), Node.class);
+            // the file was written again, so its content may have changed
+            clearContentHashes(existingNode);
+            invalidateNodeAndParentNode(existingNode);
+            return;
+        }
+
+        Node newNode = new Node();
+        newNode.setName(name);
+        newNode.setParentNode(parentNode);
+        newNode.updateMaterializedPath();
+        newNode.addDataClientConnection(dataClientConnection);
+        newNode = this.nodeRepository.save(newNode);
+        this.mongoTemplate.updateFirst(queryById(parentNode.getId()), new Update().push("childNodes", newNode), Node.class);
+        this.nodeCacheService.invalidateNode(parentNode);
+    }
+
+    private void applyDeletedChange(String rootPath, String path, DataClientConnection dataClientConnection) {
+        Node node = findNodeByPath(toStoredPath(rootPath, path));
+
+        if (node == null || node.getParentNode() == null)
+            return;
+
+        Query query = new Query(Criteria.where("dataClientConnection").is(NodeDocumentUtils.toStoredId(dataClientConnection.getId()))
+                .orOperator(Criteria.where("_id").is(NodeDocumentUtils.toStoredId(node.getId())), Criteria.where("ancestors").is(node.getId())));
+        query.fields().include("_id");
+        List<Object> nodeIds = this.mongoTemplate.find(query, Document.class, this.mongoTemplate.getCollectionName(Node.class)).stream()
+                .map(document -> document.get("_id"))
+                .collect(Collectors.toList());
+
+        removeDataClientConnection(nodeIds, dataClientConnection);
+        // the Nodes keeping other DataClients changed as well, so the subtree is invalidated in any case
+        this.nodeCacheService.invalidateSubtree(node);
+    }
+
+    /**
+     * Removes the DataClientConnection from the given Nodes and deletes the Nodes no DataClient holds anymore, together
+     * with their references in the ChildNodes of their ParentNodes.
+     *
+     * @return the Ids of the deleted Nodes
+     */
+    private Set<String> removeDataClientConnection(List<Object> nodeIds, DataClientConnection dataClientConnection) {
+        Set<String> removedNodeIds = new HashSet<>();
+        if (nodeIds.isEmpty())
+            return removedNodeIds;
+
+        this.mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(nodeIds)), new Update().pull("dataClientConnection", dataClientConnection), Node.class);
+
+        Query query = new Query(Criteria.where("_id").in(nodeIds).and("dataClientConnection").size(0));
+        query.fields().include("parentNode");
+        List<Document> removedDocuments = this.mongoTemplate.find(query, Document.class, this.mongoTemplate.getCollectionName(Node.class));
+        if (removedDocuments.isEmpty())
+            return removedNodeIds;
+
+        List<Object> removedStoredIds = new ArrayList<>();
+        for (Document document: removedDocuments) {
+            removedStoredIds.add(document.get("_id"));
+            removedNodeIds.add(String.valueOf(document.get("_id")));
+        }
+        // ParentNodes deleted as well dont have to be updated
+        for (Document document: removedDocuments) {
+            Object parentNodeId = document.get("parentNode");
+            if (parentNodeId != null && !removedNodeIds.contains(String.valueOf(parentNodeId)))
+                this.mongoTemplate.updateFirst(queryById(String.valueOf(parentNodeId)), new Update().pull("childNodes", toReferenceNode(String.valueOf(document.get("_id")))), Node.class);
+        }
+        this.mongoTemplate.remove(new Query(Criteria.where("_id").in(removedStoredIds)), Node.class);
+
+        return removedNodeIds;
+    }
+
+    private void applyModifiedChange(String rootPath, String path) {
+        Node node = findNodeByPath(toStoredPath(rootPath, path));
+
+        if (node != null) {
+            clearContentHashes(node);
+            invalidateNodeAndParentNode(node);
+        }
+    }
+
+    /**
+     * Removes the content hash and the chunk hashes of a Node after its content has changed, so the Node isnt found
+     * as duplicate of its former content and is chunked again when it is indexed or transferred next.
+     */
+    private void clearContentHashes(Node node) {
+        if (node.getContentHash() == null && node.getChunkHashes().isEmpty())
+            return;
+
+        node.setContentHash(null);
+        node.setChunkHashes(new ArrayList<>());
+        this.mongoTemplate.updateFirst(queryById(node.getId()), new Update().unset("contentHash").set("chunkHashes", node.getChunkHashes()), Node.class);
+    }
+
+    /**
+     * Invalidates a Node changed by a DataClient together with its ParentNode, which is cached with its ChildNodes.
+     */
+    private void invalidateNodeAndParentNode(Node node) {
+        this.nodeCacheService.invalidateNode(node);
+        if (node.getParentNode() != null)
+            this.nodeCacheService.invalidateNode(node.getParentNode());
+    }
+
+    /**
+     * Reads the Node with the given materialized path from its stored document. The references arent resolved, the
+     * ParentNode only has its Id, the ChildNodes arent read and of the chunk hashes only the first one is read.
+     */
+    private Node findNodeByPath(String path) {
+        Query query = NodeDocumentUtils.includeFields(new Query(Criteria.where("path").is(path)), SYNC_FIELDS);
+        query.fields().slice("chunkHashes", 1);
+        Document document = this.mongoTemplate.findOne(query, Document.class, this.mongoTemplate.getCollectionName(Node.class));
+
+        if (document == null)
+            return null;
+
+        Node node = toReferenceNode(String.valueOf(document.get("_id")));
+        node.setName(document.getString("name"));
+        node.setPath(document.getString("path"));
+        node.setAncestors(document.getList("ancestors", String.class, new ArrayList<>()));
+        node.setContentHash(document.getString("contentHash"));
+        node.setChunkHashes(document.getList("chunkHashes", String.class, new ArrayList<>()));
+        if (document.get("parentNode") != null)
+            node.setParentNode(toReferenceNode(String.valueOf(document.get("parentNode"))));
+
+        return node;
+    }
+
+    /**
+     * Creates a Node only holding its Id, which is written as reference like the stored Node.
+     */
+    private Node toReferenceNode(String nodeId) {
+        Node node = new Node();
+        node.setId(nodeId);
+
+        return node;
+    }
+
+    private Query queryById(String nodeId) {
+        return new Query(Criteria.where("_id").is(NodeDocumentUtils.toStoredId(nodeId)));
+    }
+
+    private static String toStoredPath(String rootPath, String path) {
+        return path.isEmpty() || path.equals("/") ? rootPath : rootPath + path;
     }
 
     /**
@@ -226,14 +719,181 @@ public class NodeService {
         logger.debug("CALLED: updateNodeName() with nodeId=" + nodeId + " name=" + name);
 
         Node existingNode = this.nodeRepository.findById(nodeId).orElseThrow(() -> new NodeDoesntExistById(nodeId));
+        String path = existingNode.toDataClientPath();
 
-        for (DataClientConnection dataClientConnection: existingNode.getDataClientConnection()) {
-            this.dataClientService.renameNode(dataClientConnection, existingNode.toDataClientPath(), name);
-        }
+        List<ReplicaResultDTO> replicaResults = callDataClients("/api/node", existingNode.getDataClientConnection(), dataClientConnection -> this.dataClientService.renameNodeAsync(dataClientConnection, path, name));
 
         existingNode.setName(name);
 
-        return this.nodeRepository.save(existingNode);
+        // Nodes without a materialized path are left to the migration
+        if (existingNode.getPath() != null) {
+            String oldPath = existingNode.getPath();
+            existingNode.updateMaterializedPath();
+            updateDescendantPaths(existingNode.getId(), oldPath, existingNode.getPath());
+        }
+
+        existingNode = this.nodeRepository.save(existingNode);
+        existingNode.setReplicaResults(replicaResults);
+        this.nodeCacheService.invalidateSubtree(existingNode);
+
+        return existingNode;
+    }
+
+    private void updateDescendantPaths(String nodeId, String oldPath, String newPath) {
+        logger.debug("CALLED: updateDescendantPaths() with nodeId=" + nodeId + " oldPath=" + oldPath + " newPath=" + newPath);
+
+        Query query = new Query(Criteria.where("ancestors").is(nodeId));
+        query.fields().include("path");
+        List<Document> descendants = this.mongoTemplate.find(query, Document.class, this.mongoTemplate.getCollectionName(Node.class));
+
+        if (descendants.isEmpty())
+            return;
+
+        BulkOperations bulkOperations = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Node.class);
+        for (Document descendant: descendants) {
+            String path = descendant.getString("path");
+            if (path == null || !path.startsWith(oldPath))
+                continue;
+
+            bulkOperations.updateOne(new Query(Criteria.where("_id").is(descendant.get("_id"))), Update.update("path", newPath + path.substring(oldPath.length())));
+        }
+        bulkOperations.execute();
+    }
+
+    /**
+     * Sets the materialized path, the ancestor ids and the name trigrams of all stored Nodes, which are missing or
+     * outdated. The structure is read level by level with a cursor on the (parentNode, name) index, so only the paths
+     * of the current and the next level are kept in memory instead of the whole collection.
+     *
+     * @return the number of updated Nodes
+     */
+    public int migrateMaterializedPaths() {
+        logger.debug("CALLED: migrateMaterializedPaths()");
+
+        MigrationBatch batch = new MigrationBatch();
+        // the root nodes have no parent, so their path is their name
+        Map<Object, MigratedNode> parentNodes = migrateLevel(Criteria.where("parentNode").is(null), Map.of(), batch);
+        while (!parentNodes.isEmpty()) {
+            Map<Object, MigratedNode> childNodes = new HashMap<>();
+            List<Object> parentIds = new ArrayList<>(parentNodes.keySet());
+            for (int i = 0; i < parentIds.size(); i += this.bulkImportBatchSize) {
+                List<Object> parentIdsChunk = parentIds.subList(i, Math.min(i + this.bulkImportBatchSize, parentIds.size()));
+                childNodes.putAll(migrateLevel(Criteria.where("parentNode").in(parentIdsChunk), parentNodes, batch));
+            }
+            parentNodes = childNodes;
+        }
+        batch.flush();
+
+        if (batch.updatedNodes > 0)
+            this.nodeCacheService.invalidateAll();
+
+        logger.info(String.format("Migrated materialized paths, %s nodes updated", batch.updatedNodes));
+
+        return batch.updatedNodes;
+    }
+
+    private Map<Object, MigratedNode> migrateLevel(Criteria criteria, Map<Object, MigratedNode> parentNodes, MigrationBatch batch) {
+        Query query = new Query(criteria);
+        query.fields().include("name").include("parentNode").include("path").include("ancestors").include("nameTrigrams");
+
+        Map<Object, MigratedNode> migratedNodes = new HashMap<>();
+        try (CloseableIterator<Document> documents = this.mongoTemplate.stream(query, Document.class, this.mongoTemplate.getCollectionName(Node.class))) {
+            while (documents.hasNext()) {
+                Document document = documents.next();
+                Object parentId = document.get("parentNode");
+                MigratedNode parentNode = parentId != null ? parentNodes.get(parentId) : null;
+
+                String path = document.getString("name");
+                List<String> nodeAncestors = new ArrayList<>();
+                if (parentNode != null) {
+                    path = parentNode.path + "/" + path;
+                    nodeAncestors.addAll(parentNode.ancestors);
+                    nodeAncestors.add(String.valueOf(parentId));
+                }
+                migratedNodes.put(document.get("_id"), new MigratedNode(path, nodeAncestors));
+
+                List<String> nameTrigrams = Node.toTrigrams(document.getString("name"));
+                if (!path.equals(document.getString("path")) || !nodeAncestors.equals(document.get("ancestors")) || !nameTrigrams.equals(document.get("nameTrigrams")))
+                    batch.update(document.get("_id"), Update.update("path", path).set("ancestors", nodeAncestors).set("nameTrigrams", nameTrigrams));
+            }
+        }
+
+        return migratedNodes;
+    }
+
+    private static class MigratedNode {
+
+        private final String path;
+        private final List<String> ancestors;
+
+        private MigratedNode(String path, List<String> ancestors) {
+            this.path = path;
+            this.ancestors = ancestors;
+        }
+    }
+
+    // collects the updates of the migration and writes them with one bulk write per batch
+    private class MigrationBatch {
+
+        private BulkOperations bulkOperations;
+        private int pendingUpdates;
+        private int updatedNodes;
+
+        private void update(Object id, Update update) {
+            if (this.bulkOperations == null)
+                this.bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Node.class);
+
+            this.bulkOperations.updateOne(new Query(Criteria.where("_id").is(id)), update);
+            this.updatedNodes++;
+            if (++this.pendingUpdates == bulkImportBatchSize)
+                flush();
+        }
+
+        private void flush() {
+            if (this.pendingUpdates == 0)
+                return;
+
+            this.bulkOperations.execute();
+            this.bulkOperations = null;
+            this.pendingUpdates = 0;
+        }
+    }
+
+    /**
+     * Reads all Nodes with the given path with a single query on the materialized path.
+     *
+     * @param path the path of the Nodes, starting with the Name of the Root-Node
+     * @return list of all Nodes with the given path
+     */
+    public List<Node> readNodeByPath(String path) {
+        logger.debug("CALLED: readNodeByPath() with path=" + path);
+
+        return this.nodeRepository.findAllByPath(path);
+    }
+
+    /**
+     * Reads one page of the ChildNodes of a Node, ordered by Name. The page is read with a keyset query on the
+     * (parentNode, name) index, so the cost of a page doesnt depend on how many ChildNodes come before it. Only the
+     * requested fields are read from the database.
+     *
+     * @param nodeId the Node-Id of the ParentNode
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit  the maximum number of ChildNodes on the page
+     * @param fields the comma separated fields to return, or null for id, name and path
+     * @return the page of ChildNodes together with the cursor of the next page
+     */
+    public NodePageDTO readChildNodes(String nodeId, String cursor, int limit, String fields) {
+        logger.debug("CALLED: readChildNodes() with nodeId=" + nodeId + " cursor=" + cursor + " limit=" + limit + " fields=" + fields);
+
+        List<String> projectedFields = NodePageUtils.parsePageFields(limit, fields);
+
+        if (!this.mongoTemplate.exists(new Query(Criteria.where("_id").is(nodeId)), Node.class))
+            throw new NodeDoesntExistById(nodeId);
+
+        Query query = NodePageUtils.buildChildNodesQuery(nodeId, cursor, limit, projectedFields);
+        List<Document> documents = this.mongoTemplate.find(query, Document.class, this.mongoTemplate.getCollectionName(Node.class));
+
+        return NodePageUtils.toNodePage(documents, limit, projectedFields);
     }
 
     /**
@@ -248,11 +908,11 @@ public class NodeService {
 
         Node existingNode = this.nodeRepository.findById(nodeId).orElseThrow();
         newChildNode.setParentNode(existingNode);
+        newChildNode.updateMaterializedPath();
         newChildNode.addDataClientConnections(existingNode.getDataClientConnection());
 
-        for (DataClientConnection dataClientConnection: newChildNode.getDataClientConnection()) {
-            this.dataClientService.createNode(dataClientConnection, newChildNode.toDataClientPath());
-        }
+        String path = newChildNode.toDataClientPath();
+        List<ReplicaResultDTO> replicaResults = callDataClients("/api/node", newChildNode.getDataClientConnection(), dataClientConnection -> this.dataClientService.createNodeAsync(dataClientConnection, path));
 
         existingNode.addChildNode(this.nodeRepository.save(newChildNode));
         existingNode = this.nodeRepository.save(existingNode);
@@ -262,9 +922,18 @@ public class NodeService {
             parentNode = this.nodeRepository.save(parentNode).getParentNode();
         }
 
+        existingNode.setReplicaResults(replicaResults);
+        this.nodeCacheService.invalidateNode(existingNode);
+
         return existingNode;
     }
 
+    private List<ReplicaResultDTO> callDataClients(String endpoint, List<DataClientConnection> dataClientConnections, Function<DataClientConnection, Mono<?>> call) {
+        logger.debug("CALLED: callDataClients() with endpoint=" + endpoint + " dataClientConnections=" + dataClientConnections.size());
+
+        return DataClientServiceUtils.callDataClients(endpoint, dataClientConnections, call, this.dataClientCallTimeout).block();
+    }
+
     /**
      * Delete all nodes for a given DataClientConnection.
      *
@@ -275,6 +944,7 @@ public class NodeService {
 
         Node rootNode = this.nodeRepository.findAllByDataClientConnectionAndParentNodeIsNull(dataClientConnection).get(0);
         traverseNodeDownAndDeleteForDataClientConnection(rootNode, dataClientConnection);
+        this.nodeCacheService.invalidateAll();
     }
 
     private void traverseNodeDownAndDeleteForDataClientConnection(Node node, DataClientConnection dataClientConnection) {
@@ -300,6 +970,6 @@ public class NodeService {
     public List<Node> readRoot() {
         logger.debug("CALLED: readRoot()");
 
-        return this.nodeRepository.findAllByParentNodeIsNull();
+        return this.nodeCacheService.getRoots(this.nodeRepository::findAllByParentNodeIsNull);
     }
 }
@@ -0,0 +1,101 @@
+package com.filesystem.server.services;
+
+import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.exceptions.DataClientDoesntExistById;
+import com.filesystem.server.repositories.ReactiveDataClientConnectionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * This class contains the logic of the reactive DataClientConnection-Service. It provides the same operations as the
+ * DataClientConnection-Service without blocking.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveDataClientConnectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveDataClientConnectionService.class);
+
+    private final ReactiveDataClientConnectionRepository reactiveDataClientConnectionRepository;
+
+    /**
+     * Instantiates a new ReactiveDataClientConnection-Service and autowires all needed beans.
+     *
+     * @param reactiveDataClientConnectionRepository reactive DataClientConnection-Repository
+     */
+    @Autowired
+    public ReactiveDataClientConnectionService(ReactiveDataClientConnectionRepository reactiveDataClientConnectionRepository) {
+        this.reactiveDataClientConnectionRepository = reactiveDataClientConnectionRepository;
+    }
+
+    /**
+     * Saves a given DataClientConnection-Object.
+     *
+     * @param newDataClientConnection the new DataClientConnection
+     * @return a Mono emitting the stored DataClientConnection
+     */
+    public Mono<DataClientConnection> saveDataClientConnection(DataClientConnection newDataClientConnection) {
+        logger.debug(String.format("CALLED: saveDataClientConnection() dataClientIp=%s dataClientName=%s", newDataClientConnection.getIpv4(), newDataClientConnection.getName()));
+
+        if (!newDataClientConnection.getIpv4().matches("^((25[0-5]|(2[0-4]|1\\d|[1-9]|)\\d)(\\.(?!$)|$)){4}$")) {
+            return Mono.error(new IllegalArgumentException("Falsche IP!"));
+        }
+
+        return this.reactiveDataClientConnectionRepository.save(newDataClientConnection);
+    }
+
+    /**
+     * Returns the stored DataClientConnection with the IPv4-Address and Port of the given DataClientConnection or
+     * stores the given DataClientConnection if there is none.
+     *
+     * @param dataClientConnection the DataClientConnection containing the IPv4-Address and Port
+     * @return a Mono emitting the stored DataClientConnection
+     */
+    public Mono<DataClientConnection> readOrSaveDataClientConnection(DataClientConnection dataClientConnection) {
+        logger.debug(String.format("CALLED: readOrSaveDataClientConnection() dataClientConnection=%s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort()));
+
+        return this.reactiveDataClientConnectionRepository.findDataClientConnectionByIpv4AndPort(dataClientConnection.getIpv4(), dataClientConnection.getPort())
+                .switchIfEmpty(Mono.defer(() -> saveDataClientConnection(dataClientConnection)));
+    }
+
+    /**
+     * Reads DataClientConnection by a given Id from the database.
+     *
+     * @param dataClientConnectionId the DataClientConnection-Id
+     * @return a Mono emitting the stored DataClientConnection
+     */
+    public Mono<DataClientConnection> readDataClientConnectionById(String dataClientConnectionId) {
+        logger.debug(String.format("CALLED: readDataClientConnectionById() dataClientConnectionId=%s", dataClientConnectionId));
+
+        return this.reactiveDataClientConnectionRepository.findById(dataClientConnectionId)
+                .switchIfEmpty(Mono.error(() -> new DataClientDoesntExistById(dataClientConnectionId)));
+    }
+
+    /**
+     * Reads all DataClientConnections from the database.
+     *
+     * @return flux of all DataClientConnections
+     */
+    public Flux<DataClientConnection> readAllDataClientConnection() {
+        logger.debug("Called: readAllDataClientConnection()");
+
+        return this.reactiveDataClientConnectionRepository.findAll();
+    }
+
+    /**
+     * Deletes a DataClientConnection from the database.
+     *
+     * @param dataClientConnection the DataClientConnection to be deleted
+     * @return a Mono completing when the DataClientConnection is deleted
+     */
+    public Mono<Void> deleteDataClientConnection(DataClientConnection dataClientConnection) {
+        logger.debug(String.format("Called: deleteDataClientConnection() dataClientConnection=%s", dataClientConnection.getIpv4() + ";" + dataClientConnection.getPort()));
+
+        return this.reactiveDataClientConnectionRepository.delete(dataClientConnection);
+    }
+}
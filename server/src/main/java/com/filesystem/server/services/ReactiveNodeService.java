@@ -0,0 +1,325 @@
+package com.filesystem.server.services;
+
+import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.DeletedNodesDTO;
+import com.filesystem.server.entities.Node;
+import com.filesystem.server.entities.NodePageDTO;
+import com.filesystem.server.exceptions.NodeDoesntExistById;
+import com.filesystem.server.repositories.ReactiveNodeRepository;
+import com.filesystem.server.utils.DataClientServiceUtils;
+import com.filesystem.server.utils.NodeDocumentUtils;
+import com.filesystem.server.utils.NodePageUtils;
+import com.filesystem.server.utils.NodeSearchUtils;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * This class contains the logic of the reactive Node-Service. It provides the same operations as the Node-Service,
+ * but neither the database nor the DataClients are ever waited for.
+ * <p>
+ * The reactive mapping doesnt resolve the references of a Node, so they are read from the stored document and
+ * resolved one level deep, which is all the API returns.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveNodeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveNodeService.class);
+
+    private final ReactiveNodeRepository reactiveNodeRepository;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final DataClientService dataClientService;
+    private final Duration dataClientCallTimeout;
+
+    /**
+     * Instantiates a new ReactiveNode-Service and autowires all needed beans.
+     *
+     * @param reactiveNodeRepository the reactive node repository
+     * @param reactiveMongoTemplate  the reactive mongo template used to read and update single fields
+     * @param dataClientService      the data client service
+     * @param dataClientCallTimeout  the maximum time to wait for a single DataClient
+     */
+    @Autowired
+    public ReactiveNodeService(ReactiveNodeRepository reactiveNodeRepository, ReactiveMongoTemplate reactiveMongoTemplate, DataClientService dataClientService,
+                               @Value("${server.dataclient.call-timeout:10s}") Duration dataClientCallTimeout) {
+        this.reactiveNodeRepository = reactiveNodeRepository;
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+        this.dataClientService = dataClientService;
+        this.dataClientCallTimeout = dataClientCallTimeout;
+    }
+
+    /**
+     * Reads a Node by given Id from the database.
+     *
+     * @param nodeId the Node-Id
+     * @return a Mono emitting the Node
+     */
+    public Mono<Node> readNode(String nodeId) {
+        logger.debug("CALLED: readNode() with nodeId=" + nodeId);
+
+        return findNodeDocument(nodeId).flatMap(this::resolveNode);
+    }
+
+    /**
+     * Exports all Nodes of the database as they are read from the cursor. The references of a Node are exported as
+     * Ids instead of being resolved.
+     *
+     * @return flux of the exported Nodes
+     */
+    public Flux<Map<String, Object>> exportAllNodes() {
+        logger.debug("CALLED: exportAllNodes()");
+
+        Query query = NodeDocumentUtils.includeFields(new Query(), NodeDocumentUtils.EXPORT_FIELDS);
+
+        return this.reactiveMongoTemplate.find(query, Document.class, this.reactiveMongoTemplate.getCollectionName(Node.class))
+                .map(document -> NodeDocumentUtils.toProjectedNode(document, NodeDocumentUtils.EXPORT_FIELDS));
+    }
+
+    /**
+     * Reads all Nodes from the database with the given Name.
+     *
+     * @param name the Name to be checked
+     * @return flux of all Nodes matching the given Name
+     */
+    public Flux<Node> readNodeByName(String name) {
+        logger.debug("CALLED: readNodeByName() with name=" + name);
+
+        return this.reactiveNodeRepository.findAllByName(name).flatMapSequential(node -> readNode(node.getId()));
+    }
+
+    /**
+     * Reads all Nodes with the given path with a single query on the materialized path.
+     *
+     * @param path the path of the Nodes, starting with the Name of the Root-Node
+     * @return flux of all Nodes with the given path
+     */
+    public Flux<Node> readNodeByPath(String path) {
+        logger.debug("CALLED: readNodeByPath() with path=" + path);
+
+        return this.reactiveNodeRepository.findAllByPath(path).flatMapSequential(node -> readNode(node.getId()));
+    }
+
+    /**
+     * Searches Nodes by prefix, substring or glob of their Name or path.
+     *
+     * @param term  the searched term
+     * @param mode  prefix, substring (case insensitive) or glob (with * and ?)
+     * @param field name or path
+     * @param limit the maximum number of Nodes to be returned
+     * @return flux of the matching Nodes
+     */
+    public Flux<Map<String, Object>> searchNodes(String term, String mode, String field, int limit) {
+        logger.debug("CALLED: searchNodes() with term=" + term + " mode=" + mode + " field=" + field + " limit=" + limit);
+
+        return Mono.fromCallable(() -> NodeSearchUtils.buildSearchQuery(term, mode, field, limit))
+                .flatMapMany(query -> this.reactiveMongoTemplate.find(query, Document.class, this.reactiveMongoTemplate.getCollectionName(Node.class)))
+                .map(document -> NodeDocumentUtils.toProjectedNode(document, NodeSearchUtils.SEARCH_FIELDS));
+    }
+
+    /**
+     * Reads one page of the ChildNodes of a Node, ordered by Name, with the same keyset query as the Node-Service.
+     *
+     * @param nodeId the Node-Id of the ParentNode
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit  the maximum number of ChildNodes on the page
+     * @param fields the comma separated fields to return, or null for id, name and path
+     * @return a Mono emitting the page of ChildNodes together with the cursor of the next page
+     */
+    public Mono<NodePageDTO> readChildNodes(String nodeId, String cursor, int limit, String fields) {
+        logger.debug("CALLED: readChildNodes() with nodeId=" + nodeId + " cursor=" + cursor + " limit=" + limit + " fields=" + fields);
+
+        String collectionName = this.reactiveMongoTemplate.getCollectionName(Node.class);
+
+        return Mono.fromCallable(() -> NodePageUtils.parsePageFields(limit, fields))
+                .flatMap(projectedFields -> this.reactiveMongoTemplate.exists(new Query(Criteria.where("_id").is(nodeId)), Node.class)
+                        .flatMap(exists -> exists ? Mono.just(projectedFields) : Mono.error(new NodeDoesntExistById(nodeId))))
+                .flatMap(projectedFields -> this.reactiveMongoTemplate.find(NodePageUtils.buildChildNodesQuery(nodeId, cursor, limit, projectedFields), Document.class, collectionName)
+                        .collectList()
+                        .map(documents -> NodePageUtils.toNodePage(documents, limit, projectedFields)));
+    }
+
+    /**
+     * Reads all Nodes which contain no Parent-Node (Root-Nodes).
+     *
+     * @return flux of all Root-Nodes
+     */
+    public Flux<Node> readRoot() {
+        logger.debug("CALLED: readRoot()");
+
+        return this.reactiveNodeRepository.findAllByParentNodeIsNull().flatMapSequential(node -> readNode(node.getId()));
+    }
+
+    /**
+     * Update the Node-Name of a Node referenced by its Id.
+     *
+     * @param nodeId the Node-Id
+     * @param name   the new Node-Name
+     * @return a Mono emitting the updated Node
+     */
+    public Mono<Node> updateNodeName(String nodeId, String name) {
+        logger.debug("CALLED: updateNodeName() with nodeId=" + nodeId + " name=" + name);
+
+        return readNode(nodeId).flatMap(node -> {
+            String path = node.toDataClientPath();
+
+            return DataClientServiceUtils.callDataClients("/api/node", node.getDataClientConnection(), dataClientConnection -> this.dataClientService.renameNodeAsync(dataClientConnection, path, name), this.dataClientCallTimeout)
+                    .flatMap(replicaResults -> {
+                        node.setName(name);
+                        node.setReplicaResults(replicaResults);
+
+                        Update update = Update.update("name", name).set("nameTrigrams", node.getNameTrigrams());
+                        Mono<Void> descendantUpdates = Mono.empty();
+
+                        // Nodes without a materialized path are left to the migration
+                        if (node.getPath() != null) {
+                            String oldPath = node.getPath();
+                            node.updateMaterializedPath();
+                            update.set("path", node.getPath());
+                            descendantUpdates = updateDescendantPaths(nodeId, oldPath, node.getPath());
+                        }
+
+                        return this.reactiveMongoTemplate.updateFirst(new Query(Criteria.where("_id").is(nodeId)), update, Node.class)
+                                .then(descendantUpdates)
+                                .thenReturn(node);
+                    });
+        });
+    }
+
+    private Mono<Void> updateDescendantPaths(String nodeId, String oldPath, String newPath) {
+        logger.debug("CALLED: updateDescendantPaths() with nodeId=" + nodeId + " oldPath=" + oldPath + " newPath=" + newPath);
+
+        Query query = new Query(Criteria.where("ancestors").is(nodeId));
+        query.fields().include("path");
+
+        return this.reactiveMongoTemplate.find(query, Document.class, this.reactiveMongoTemplate.getCollectionName(Node.class))
+                .filter(descendant -> descendant.getString("path") != null && descendant.getString("path").startsWith(oldPath))
+                .flatMap(descendant -> this.reactiveMongoTemplate.updateFirst(new Query(Criteria.where("_id").is(descendant.get("_id"))), Update.update("path", newPath + descendant.getString("path").substring(oldPath.length())), Node.class))
+                .then();
+    }
+
+    /**
+     * Create a ChildNode under the given node (referenced by id).
+     *
+     * @param nodeId       the Node-Id to be updated
+     * @param newChildNode the new ChildNode to be created
+     * @return a Mono emitting the updated ParentNode
+     */
+    public Mono<Node> createChildNode(String nodeId, Node newChildNode) {
+        logger.debug("CALLED: createChildNode() with nodeId=" + nodeId + " newChildNode=" + newChildNode.getName());
+
+        return readNode(nodeId).flatMap(existingNode -> {
+            newChildNode.setParentNode(existingNode);
+            newChildNode.updateMaterializedPath();
+            newChildNode.addDataClientConnections(existingNode.getDataClientConnection());
+            String path = newChildNode.toDataClientPath();
+
+            return DataClientServiceUtils.callDataClients("/api/node", newChildNode.getDataClientConnection(), dataClientConnection -> this.dataClientService.createNodeAsync(dataClientConnection, path), this.dataClientCallTimeout)
+                    .flatMap(replicaResults -> this.reactiveMongoTemplate.insert(newChildNode)
+                            .flatMap(savedChildNode -> this.reactiveMongoTemplate.updateFirst(new Query(Criteria.where("_id").is(nodeId)), new Update().push("childNodes", savedChildNode), Node.class)
+                                    .then(Mono.fromCallable(() -> {
+                                        existingNode.addChildNode(savedChildNode);
+                                        existingNode.setReplicaResults(replicaResults);
+
+                                        return existingNode;
+                                    }))));
+        });
+    }
+
+    /**
+     * Delete a node by given id together with all of its descendants.
+     *
+     * @param nodeId the Node-Id
+     * @return a Mono emitting the Id of the deleted Node and the number of deleted Nodes
+     */
+    public Mono<DeletedNodesDTO> deleteNode(String nodeId) {
+        logger.debug("CALLED: deleteNode() with nodeId=" + nodeId);
+
+        return readNode(nodeId).flatMap(node -> {
+            String path = node.toDataClientPath();
+
+            return DataClientServiceUtils.callDataClients("/api/node", node.getDataClientConnection(), dataClientConnection -> this.dataClientService.deleteNodeAsync(dataClientConnection, path), this.dataClientCallTimeout)
+                    .flatMap(replicaResults -> {
+                        DeletedNodesDTO deletedNodes = new DeletedNodesDTO();
+                        deletedNodes.setNodeId(nodeId);
+                        deletedNodes.setReplicaResults(replicaResults);
+
+                        Mono<?> detachNode = Mono.empty();
+                        if (node.getParentNode() != null)
+                            detachNode = this.reactiveMongoTemplate.updateFirst(new Query(Criteria.where("_id").is(node.getParentNode().getId())), new Update().pull("childNodes", node), Node.class);
+
+                        Query subtree = new Query(new Criteria().orOperator(Criteria.where("_id").is(nodeId), Criteria.where("ancestors").is(nodeId)));
+
+                        return detachNode.then(this.reactiveMongoTemplate.remove(subtree, Node.class))
+                                .map(deleteResult -> {
+                                    deletedNodes.setDeletedNodes(deleteResult.getDeletedCount());
+
+                                    return deletedNodes;
+                                });
+                    });
+        });
+    }
+
+    private Mono<Document> findNodeDocument(String nodeId) {
+        return this.reactiveMongoTemplate.findOne(new Query(Criteria.where("_id").is(nodeId)), Document.class, this.reactiveMongoTemplate.getCollectionName(Node.class))
+                .switchIfEmpty(Mono.error(() -> new NodeDoesntExistById(nodeId)));
+    }
+
+    /**
+     * Reads the Node of a stored document and resolves its ParentNode, ChildNodes and DataClientConnections.
+     */
+    private Mono<Node> resolveNode(Document document) {
+        Node node = this.reactiveMongoTemplate.getConverter().read(Node.class, document);
+
+        Object parentNodeId = document.get("parentNode");
+        List<Object> childNodeIds = document.getList("childNodes", Object.class, new ArrayList<>());
+        List<Object> dataClientConnectionIds = document.getList("dataClientConnection", Object.class, new ArrayList<>());
+
+        Mono<Optional<Node>> parentNode = parentNodeId == null ? Mono.just(Optional.empty())
+                : this.reactiveMongoTemplate.findOne(new Query(Criteria.where("_id").is(parentNodeId)), Node.class).map(Optional::of).defaultIfEmpty(Optional.empty());
+        Mono<List<Node>> childNodes = childNodeIds.isEmpty() ? Mono.just(new ArrayList<>())
+                : this.reactiveMongoTemplate.find(new Query(Criteria.where("_id").in(childNodeIds)), Node.class).collectList().map(nodes -> sortByIds(nodes, childNodeIds));
+        Mono<List<DataClientConnection>> dataClientConnections = dataClientConnectionIds.isEmpty() ? Mono.just(new ArrayList<>())
+                : this.reactiveMongoTemplate.find(new Query(Criteria.where("_id").in(dataClientConnectionIds)), DataClientConnection.class).collectList();
+
+        return Mono.zip(parentNode, childNodes, dataClientConnections).map(references -> {
+            node.setParentNode(references.getT1().orElse(null));
+            node.setChildNodes(references.getT2());
+            node.setDataClientConnection(references.getT3());
+
+            return node;
+        });
+    }
+
+    private List<Node> sortByIds(List<Node> nodes, List<Object> ids) {
+        Map<String, Node> nodesById = new HashMap<>();
+        for (Node node: nodes)
+            nodesById.put(node.getId(), node);
+
+        List<Node> sortedNodes = new ArrayList<>();
+        for (Object id: ids) {
+            Node node = nodesById.get(String.valueOf(id));
+            if (node != null)
+                sortedNodes.add(node);
+        }
+
+        return sortedNodes;
+    }
+}
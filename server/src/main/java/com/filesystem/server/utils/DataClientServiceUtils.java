@@ -1,13 +1,28 @@
 package com.filesystem.server.utils;
 
+import com.filesystem.server.entities.DataClientConnection;
 import com.filesystem.server.entities.Node;
-import org.json.JSONObject;
+import com.filesystem.server.entities.ReplicaResultDTO;
+import com.filesystem.server.exceptions.DataClientRestApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
 
 /**
- * This class provide utility functions to parse and create Node-Entities from given JSON data.
+ * This class provide utility functions to parse and create Node-Entities from given JSON data and to call all
+ * DataClients holding a Node.
  */
 public final class DataClientServiceUtils {
 
+    private static final Logger logger = LoggerFactory.getLogger(DataClientServiceUtils.class);
+
     private DataClientServiceUtils() {
     }
 
@@ -18,19 +33,58 @@ public final class DataClientServiceUtils {
      * @return the Node containing the parsed JSON data
      */
     public static Node createNodeStructureFromJsonData(String jsonData) {
-        return createChildNodeStructureFromJsonData(new JSONObject(jsonData));
+        byte[] data = jsonData.getBytes(StandardCharsets.UTF_8);
+
+        NodeStructureParser parser = new NodeStructureParser();
+        parser.feed(data, 0, data.length);
+
+        return parser.finish();
     }
 
-    private static Node createChildNodeStructureFromJsonData(JSONObject nodeData) {
-        Node node = new Node();
-        node.setName(nodeData.getString("name"));
+    /**
+     * Calls all given DataClients concurrently, so the call takes as long as the slowest DataClient instead of the sum
+     * of all DataClients. Fails only if the call failed on every DataClient.
+     *
+     * @param endpoint              the endpoint called on the DataClients
+     * @param dataClientConnections the DataClientConnections to call
+     * @param call                  the call on a single DataClient
+     * @param timeout               the maximum time to wait for a single DataClient
+     * @return a Mono emitting the result of every DataClient in the order of the given DataClientConnections
+     */
+    public static Mono<List<ReplicaResultDTO>> callDataClients(String endpoint, List<DataClientConnection> dataClientConnections, Function<DataClientConnection, Mono<?>> call, Duration timeout) {
+        return Flux.fromIterable(new ArrayList<>(dataClientConnections))
+                .flatMapSequential(dataClientConnection -> Mono.defer(() -> call.apply(dataClientConnection))
+                        .timeout(timeout)
+                        .then(Mono.fromCallable(() -> createReplicaResult(dataClientConnection, null)))
+                        .onErrorResume(e -> Mono.just(createReplicaResult(dataClientConnection, e))))
+                .collectList()
+                .flatMap(replicaResults -> {
+                    if (!replicaResults.isEmpty() && replicaResults.stream().noneMatch(ReplicaResultDTO::isSuccess))
+                        return Mono.error(new DataClientRestApiException(endpoint, replicaResults));
+
+                    return Mono.just(replicaResults);
+                });
+    }
+
+    /**
+     * Creates the result of a call on a single DataClient.
+     *
+     * @param dataClientConnection the called DataClientConnection
+     * @param error                the error of the call or null if the call succeeded
+     * @return the result of the call
+     */
+    public static ReplicaResultDTO createReplicaResult(DataClientConnection dataClientConnection, Throwable error) {
+        ReplicaResultDTO replicaResult = new ReplicaResultDTO();
+        replicaResult.setDataClientConnectionId(dataClientConnection.getId());
+        replicaResult.setIpv4(dataClientConnection.getIpv4());
+        replicaResult.setPort(dataClientConnection.getPort());
+        replicaResult.setSuccess(error == null);
 
-        for (int i = 0; i < nodeData.getJSONArray("childNodes").length(); i++) {
-            Node childNode  = createChildNodeStructureFromJsonData(nodeData.getJSONArray("childNodes").getJSONObject(i));
-            node.addChildNode(childNode);
-            childNode.setParentNode(node);
+        if (error != null) {
+            replicaResult.setError(error.getMessage());
+            logger.warn(String.format("Call on DataClient %s failed: %s", dataClientConnection.getIpv4() + ":" + dataClientConnection.getPort(), error.getMessage()));
         }
 
-        return node;
+        return replicaResult;
     }
 }
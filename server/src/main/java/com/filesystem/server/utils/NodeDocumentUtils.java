@@ -0,0 +1,76 @@
+package com.filesystem.server.utils;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * This class provide utility functions to read projected Nodes directly from the stored documents, without mapping
+ * them to Node-Entities and resolving their references.
+ */
+public final class NodeDocumentUtils {
+
+    /**
+     * The fields of a Node written by the export, references are written as Ids.
+     */
+    public static final List<String> EXPORT_FIELDS = List.of("id", "name", "path", "parentNode", "childNodes");
+
+    private NodeDocumentUtils() {
+    }
+
+    /**
+     * Includes the stored fields of the given Node-Fields in the projection of the query.
+     *
+     * @param query  the query to be projected
+     * @param fields the Node-Fields to be read
+     * @return the projected query
+     */
+    public static Query includeFields(Query query, List<String> fields) {
+        for (String field: fields) {
+            if (!field.equals("id"))
+                query.fields().include(field);
+        }
+
+        return query;
+    }
+
+    /**
+     * Converts a stored document into a map of the given Node-Fields, with all ObjectIds written as hex strings.
+     *
+     * @param document the stored document
+     * @param fields   the Node-Fields to be returned
+     * @return the map of the Node-Fields in the given order
+     */
+    public static Map<String, Object> toProjectedNode(Document document, List<String> fields) {
+        Map<String, Object> projectedNode = new LinkedHashMap<>();
+        for (String field: fields)
+            projectedNode.put(field, toJsonValue(document.get(field.equals("id") ? "_id" : field)));
+
+        return projectedNode;
+    }
+
+    /**
+     * Converts a Node-Id into the value it is stored as, which is an ObjectId for every valid hex string. Queries on
+     * documents instead of Node-Entities have to use the stored value.
+     *
+     * @param nodeId the Node-Id
+     * @return the stored Id
+     */
+    public static Object toStoredId(String nodeId) {
+        return ObjectId.isValid(nodeId) ? new ObjectId(nodeId) : nodeId;
+    }
+
+    private static Object toJsonValue(Object value) {
+        if (value instanceof ObjectId)
+            return ((ObjectId) value).toHexString();
+        if (value instanceof List)
+            return ((List<?>) value).stream().map(NodeDocumentUtils::toJsonValue).collect(Collectors.toList());
+
+        return value;
+    }
+}
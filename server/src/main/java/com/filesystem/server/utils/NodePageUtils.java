@@ -0,0 +1,121 @@
+package com.filesystem.server.utils;
+
+import com.filesystem.server.entities.NodePageDTO;
+import com.filesystem.server.exceptions.InvalidNodeQueryException;
+import org.bson.Document;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * This class provide utility functions to read the ChildNodes of a Node page by page. A page is read with a keyset
+ * query on the (parentNode, name) index, so the cost of a page doesnt depend on how many ChildNodes come before it.
+ */
+public final class NodePageUtils {
+
+    /**
+     * The maximum number of ChildNodes on a single page.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private static final List<String> PAGE_FIELDS = List.of("id", "name", "path", "parentNode");
+    private static final List<String> DEFAULT_PAGE_FIELDS = List.of("id", "name", "path");
+    private static final String CURSOR_SEPARATOR = "\u0000";
+
+    private NodePageUtils() {
+    }
+
+    /**
+     * Checks the limit of a page and parses the requested fields.
+     *
+     * @param limit  the maximum number of ChildNodes on the page
+     * @param fields the comma separated fields to return, or null for id, name and path
+     * @return the Node-Fields to be returned
+     */
+    public static List<String> parsePageFields(int limit, String fields) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE)
+            throw new InvalidNodeQueryException(String.format("The limit has to be between 1 and %s!", MAX_PAGE_SIZE));
+
+        if (fields == null || fields.isEmpty())
+            return DEFAULT_PAGE_FIELDS;
+
+        List<String> projectedFields = new ArrayList<>();
+        for (String field: fields.split(",")) {
+            field = field.trim();
+            if (!PAGE_FIELDS.contains(field))
+                throw new InvalidNodeQueryException(String.format("The field %s cant be requested, allowed fields are %s!", field, PAGE_FIELDS));
+            if (!projectedFields.contains(field))
+                projectedFields.add(field);
+        }
+
+        return projectedFields;
+    }
+
+    /**
+     * Builds the query reading one page of the ChildNodes of a Node, ordered by Name. The query reads one ChildNode
+     * more than requested, which tells if there is a next page.
+     *
+     * @param nodeId          the Node-Id of the ParentNode
+     * @param cursor          the cursor returned with the previous page, or null for the first page
+     * @param limit           the maximum number of ChildNodes on the page
+     * @param projectedFields the Node-Fields to be read
+     * @return the projected and limited query
+     */
+    public static Query buildChildNodesQuery(String nodeId, String cursor, int limit, List<String> projectedFields) {
+        Criteria criteria = Criteria.where("parentNode").is(NodeDocumentUtils.toStoredId(nodeId));
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] position = decodeCursor(cursor);
+            Object lastId = NodeDocumentUtils.toStoredId(position[1]);
+            criteria.orOperator(Criteria.where("name").gt(position[0]),
+                    new Criteria().andOperator(Criteria.where("name").is(position[0]), Criteria.where("_id").gt(lastId)));
+        }
+
+        Query query = new Query(criteria).with(Sort.by("name", "_id")).limit(limit + 1);
+        query.fields().include("name");
+
+        return NodeDocumentUtils.includeFields(query, projectedFields);
+    }
+
+    /**
+     * Converts the documents read by the query of a page into the page, together with the cursor of the next page.
+     *
+     * @param documents       the documents read by the query of the page
+     * @param limit           the maximum number of ChildNodes on the page
+     * @param projectedFields the Node-Fields to be returned
+     * @return the page of ChildNodes
+     */
+    public static NodePageDTO toNodePage(List<Document> documents, int limit, List<String> projectedFields) {
+        NodePageDTO page = new NodePageDTO();
+        for (Document document: documents.subList(0, Math.min(limit, documents.size())))
+            page.getItems().add(NodeDocumentUtils.toProjectedNode(document, projectedFields));
+
+        if (documents.size() > limit) {
+            Document lastDocument = documents.get(limit - 1);
+            page.setNextCursor(encodeCursor(lastDocument.getString("name"), String.valueOf(lastDocument.get("_id"))));
+        }
+
+        return page;
+    }
+
+    private static String encodeCursor(String name, String nodeId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((name + CURSOR_SEPARATOR + nodeId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf(CURSOR_SEPARATOR);
+            if (separator < 0)
+                throw new IllegalArgumentException();
+
+            return new String[]{position.substring(0, separator), position.substring(separator + 1)};
+        } catch (IllegalArgumentException e) {
+            throw new InvalidNodeQueryException(String.format("The cursor %s is invalid!", cursor));
+        }
+    }
+}
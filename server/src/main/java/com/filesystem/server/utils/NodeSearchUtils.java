@@ -0,0 +1,131 @@
+package com.filesystem.server.utils;
+
+import com.filesystem.server.entities.Node;
+import com.filesystem.server.exceptions.InvalidNodeQueryException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class provide utility functions to build the queries of the Node search. Every query is bounded by an index:
+ * prefixes by the index of the searched field, substrings and globs by the index on the trigrams of the Node-Names.
+ */
+public final class NodeSearchUtils {
+
+    /**
+     * The maximum number of Nodes returned by a single search.
+     */
+    public static final int MAX_SEARCH_LIMIT = 1000;
+
+    /**
+     * The fields of a Node returned by the search.
+     */
+    public static final List<String> SEARCH_FIELDS = List.of("id", "name", "path", "parentNode");
+
+    private static final String REGEX_SPECIAL_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    private NodeSearchUtils() {
+    }
+
+    /**
+     * Builds the query searching Nodes by the given term.
+     *
+     * @param term  the searched term
+     * @param mode  prefix, substring (case insensitive) or glob (with * and ?)
+     * @param field name or path
+     * @param limit the maximum number of Nodes to be returned
+     * @return the projected and limited query
+     */
+    public static Query buildSearchQuery(String term, String mode, String field, int limit) {
+        if (term == null || term.isEmpty())
+            throw new InvalidNodeQueryException("The search term cant be empty!");
+        if (limit < 1 || limit > MAX_SEARCH_LIMIT)
+            throw new InvalidNodeQueryException(String.format("The limit has to be between 1 and %s!", MAX_SEARCH_LIMIT));
+        if (!field.equals("name") && !field.equals("path"))
+            throw new InvalidNodeQueryException(String.format("The field %s cant be searched, allowed fields are name and path!", field));
+
+        Query query;
+        switch (mode) {
+            case "prefix":
+                query = new Query(Criteria.where(field).regex("^" + escapeRegex(term))).with(Sort.by(field));
+                break;
+            case "substring":
+                query = new Query(buildSubstringCriteria(term, field));
+                break;
+            case "glob":
+                query = new Query(buildGlobCriteria(term, field));
+                break;
+            default:
+                throw new InvalidNodeQueryException(String.format("The search mode %s is unknown, allowed modes are prefix, substring and glob!", mode));
+        }
+
+        return NodeDocumentUtils.includeFields(query.limit(limit), SEARCH_FIELDS);
+    }
+
+    private static Criteria buildSubstringCriteria(String term, String field) {
+        if (field.equals("path"))
+            throw new InvalidNodeQueryException("Paths can only be searched by prefix or glob!");
+
+        List<String> trigrams = Node.toTrigrams(term);
+        if (trigrams.isEmpty())
+            throw new InvalidNodeQueryException("A substring has to be at least three characters long!");
+
+        // the trigrams select the candidates by index, the regex removes the ones with the trigrams in another order
+        return Criteria.where("nameTrigrams").all(trigrams).and("name").regex(escapeRegex(term), "i");
+    }
+
+    private static Criteria buildGlobCriteria(String term, String field) {
+        // a wildcard within a path never matches the separator
+        String anyCharacters = field.equals("path") ? "[^/]*" : ".*";
+        String anyCharacter = field.equals("path") ? "[^/]" : ".";
+
+        StringBuilder regex = new StringBuilder("^");
+        List<String> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        for (char character: term.toCharArray()) {
+            if (character == '*' || character == '?') {
+                regex.append(character == '*' ? anyCharacters : anyCharacter);
+                literals.add(literal.toString());
+                literal.setLength(0);
+            } else {
+                regex.append(escapeRegex(String.valueOf(character)));
+                literal.append(character);
+            }
+        }
+        regex.append("$");
+        literals.add(literal.toString());
+
+        // a regex starting with a literal prefix is bounded by the index of the field
+        if (!literals.get(0).isEmpty())
+            return Criteria.where(field).regex(regex.toString());
+
+        List<String> trigrams = new ArrayList<>();
+        if (field.equals("name")) {
+            for (String nameLiteral: literals) {
+                for (String trigram: Node.toTrigrams(nameLiteral)) {
+                    if (!trigrams.contains(trigram))
+                        trigrams.add(trigram);
+                }
+            }
+        }
+        if (trigrams.isEmpty())
+            throw new InvalidNodeQueryException(field.equals("path") ? "A glob on paths has to start with a literal prefix!"
+                    : "A glob on names has to start with a literal prefix or contain at least three literal characters in a row!");
+
+        return Criteria.where("nameTrigrams").all(trigrams).and("name").regex(regex.toString());
+    }
+
+    private static String escapeRegex(String value) {
+        StringBuilder escapedValue = new StringBuilder();
+        for (char character: value.toCharArray()) {
+            if (REGEX_SPECIAL_CHARACTERS.indexOf(character) >= 0)
+                escapedValue.append('\\');
+            escapedValue.append(character);
+        }
+
+        return escapedValue.toString();
+    }
+}
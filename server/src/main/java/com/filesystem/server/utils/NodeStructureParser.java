@@ -0,0 +1,136 @@
+package com.filesystem.server.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.filesystem.server.entities.Node;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * This class incrementally parses the Node-Structure of a DataClient from chunks of JSON data. Nodes are created while
+ * the data arrives, so neither the whole response nor a JSON document model has to be kept in memory.
+ */
+public final class NodeStructureParser {
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private static final String NAME_FIELD = "name";
+    private static final String CHILD_NODES_FIELD = "childNodes";
+
+    private final JsonParser parser;
+    private final Deque<Node> openNodes = new ArrayDeque<>();
+    private Node rootNode;
+    private String pendingField;
+    private int skipDepth;
+
+    /**
+     * Instantiates a new Node-Structure-Parser.
+     */
+    public NodeStructureParser() {
+        try {
+            this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Feeds the next chunk of JSON data to the parser and creates all Nodes contained in it.
+     *
+     * @param data   the array containing the chunk
+     * @param offset the offset of the chunk in the array
+     * @param length the length of the chunk
+     */
+    public void feed(byte[] data, int offset, int length) {
+        try {
+            ((ByteArrayFeeder) this.parser.getNonBlockingInputFeeder()).feedInput(data, offset, offset + length);
+            processTokens();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Signals that all data was fed to the parser and returns the parsed Node-Structure.
+     *
+     * @return the Root-Node of the parsed Node-Structure
+     */
+    public Node finish() {
+        try {
+            this.parser.getNonBlockingInputFeeder().endOfInput();
+            processTokens();
+            this.parser.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (this.rootNode == null || !this.openNodes.isEmpty())
+            throw new IllegalStateException("The Node-Structure is incomplete!");
+
+        return this.rootNode;
+    }
+
+    private void processTokens() throws IOException {
+        JsonToken token;
+
+        while ((token = this.parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (this.skipDepth > 0) {
+                if (token.isStructStart())
+                    this.skipDepth++;
+                else if (token.isStructEnd())
+                    this.skipDepth--;
+                continue;
+            }
+
+            String field = this.pendingField;
+            this.pendingField = null;
+
+            switch (token) {
+                case FIELD_NAME:
+                    this.pendingField = this.parser.getCurrentName();
+                    break;
+                case START_OBJECT:
+                case START_ARRAY:
+                    // only the Nodes themselves and their ChildNode-Arrays are parsed, all other values are skipped
+                    if (field != null && !(token == JsonToken.START_ARRAY && CHILD_NODES_FIELD.equals(field)))
+                        this.skipDepth = 1;
+                    else if (token == JsonToken.START_OBJECT)
+                        openNode();
+                    break;
+                case END_OBJECT:
+                    closeNode();
+                    break;
+                case VALUE_STRING:
+                    if (NAME_FIELD.equals(field) && !this.openNodes.isEmpty())
+                        this.openNodes.peek().setName(this.parser.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void openNode() {
+        Node node = new Node();
+        Node parentNode = this.openNodes.peek();
+
+        if (parentNode != null) {
+            node.setParentNode(parentNode);
+            parentNode.addChildNode(node);
+        }
+
+        this.openNodes.push(node);
+    }
+
+    private void closeNode() {
+        Node node = this.openNodes.pop();
+
+        if (this.openNodes.isEmpty())
+            this.rootNode = node;
+    }
+}
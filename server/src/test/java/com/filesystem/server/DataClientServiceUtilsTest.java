@@ -2,10 +2,14 @@ package com.filesystem.server;
 
 import com.filesystem.server.entities.Node;
 import com.filesystem.server.utils.DataClientServiceUtils;
+import com.filesystem.server.utils.NodeStructureParser;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 public class DataClientServiceUtilsTest {
 
@@ -29,4 +33,31 @@ public class DataClientServiceUtilsTest {
 
         assertEquals(expectedNode, DataClientServiceUtils.createNodeStructureFromJsonData(jsonData));
     }
+
+    @Test
+    void createNodeStructureFromJsonData_Unknown_Fields_Test() {
+        String jsonData = "{\"name\":\"root\", \"size\": 3, \"meta\": {\"name\": \"ignored\", \"childNodes\": [{}]}, \"childNodes\":[{\"childNodes\":[], \"name\": \"childA\"}]}";
+
+        Node rootNode = DataClientServiceUtils.createNodeStructureFromJsonData(jsonData);
+
+        assertEquals("root", rootNode.getName());
+        assertEquals(1, rootNode.getChildNodes().size());
+        assertEquals("childA", rootNode.getChildNodes().get(0).getName());
+        assertSame(rootNode, rootNode.getChildNodes().get(0).getParentNode());
+    }
+
+    @Test
+    void nodeStructureParser_Chunks_Test() {
+        byte[] data = "{\"name\":\"root\", \"childNodes\":[{\"name\": \"childA\", \"childNodes\":[{\"name\": \"childC\", \"childNodes\":[]}]}, {\"name\": \"childB\", \"childNodes\":[]}]}".getBytes(StandardCharsets.UTF_8);
+
+        NodeStructureParser parser = new NodeStructureParser();
+        for (int offset = 0; offset < data.length; offset += 7)
+            parser.feed(data, offset, Math.min(7, data.length - offset));
+        Node rootNode = parser.finish();
+
+        assertEquals("root", rootNode.getName());
+        assertEquals("childC", rootNode.getChildNodes().get(0).getChildNodes().get(0).getName());
+        assertEquals("childB", rootNode.getChildNodes().get(1).getName());
+        assertSame(rootNode.getChildNodes().get(0), rootNode.getChildNodes().get(0).getChildNodes().get(0).getParentNode());
+    }
 }
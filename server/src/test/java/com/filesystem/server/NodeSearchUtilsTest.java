@@ -0,0 +1,64 @@
+package com.filesystem.server;
+
+import com.filesystem.server.exceptions.InvalidNodeQueryException;
+import com.filesystem.server.utils.NodeSearchUtils;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NodeSearchUtilsTest {
+
+    @Test
+    void buildSearchQuery_Prefix_Test() {
+        Query query = NodeSearchUtils.buildSearchQuery("root/dir.a", "prefix", "path", 10);
+
+        Pattern pattern = (Pattern) query.getQueryObject().get("path");
+        assertEquals("^root/dir\\.a", pattern.pattern());
+        assertEquals(new Document("path", 1), query.getSortObject());
+        assertEquals(10, query.getLimit());
+    }
+
+    @Test
+    void buildSearchQuery_Substring_Test() {
+        Query query = NodeSearchUtils.buildSearchQuery("Report", "substring", "name", 10);
+
+        assertEquals(new Document("$all", List.of("rep", "epo", "por", "ort")), query.getQueryObject().get("nameTrigrams"));
+        Pattern pattern = (Pattern) query.getQueryObject().get("name");
+        assertTrue(pattern.matcher("annual-REPORT.pdf").find());
+    }
+
+    @Test
+    void buildSearchQuery_Glob_Trigrams_Test() {
+        Query query = NodeSearchUtils.buildSearchQuery("*report?.pdf", "glob", "name", 10);
+
+        assertEquals(new Document("$all", List.of("rep", "epo", "por", "ort", ".pd", "pdf")), query.getQueryObject().get("nameTrigrams"));
+        Pattern pattern = (Pattern) query.getQueryObject().get("name");
+        assertTrue(pattern.matcher("annual-report1.pdf").matches());
+        assertFalse(pattern.matcher("annual-report.pdf").matches());
+    }
+
+    @Test
+    void buildSearchQuery_Glob_Path_Test() {
+        Query query = NodeSearchUtils.buildSearchQuery("root/*/a?", "glob", "path", 10);
+
+        Pattern pattern = (Pattern) query.getQueryObject().get("path");
+        assertTrue(pattern.matcher("root/dir/ab").matches());
+        assertFalse(pattern.matcher("root/dir/sub/ab").matches());
+    }
+
+    @Test
+    void buildSearchQuery_Unbounded_Exception_Test() {
+        assertThrows(InvalidNodeQueryException.class, () -> NodeSearchUtils.buildSearchQuery("ab", "substring", "name", 10));
+        assertThrows(InvalidNodeQueryException.class, () -> NodeSearchUtils.buildSearchQuery("*a*b", "glob", "name", 10));
+        assertThrows(InvalidNodeQueryException.class, () -> NodeSearchUtils.buildSearchQuery("*/file", "glob", "path", 10));
+        assertThrows(InvalidNodeQueryException.class, () -> NodeSearchUtils.buildSearchQuery("root", "prefix", "name", NodeSearchUtils.MAX_SEARCH_LIMIT + 1));
+    }
+}
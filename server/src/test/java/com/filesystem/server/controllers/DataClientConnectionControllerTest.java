@@ -150,6 +150,7 @@ public class DataClientConnectionControllerTest {
 
         verify(this.nodeService).deleteNodesForDataClientConnection(expectedDataClientConnection);
         verify(this.dataClientConnectionService).deleteDataClientConnection(expectedDataClientConnection);
+        verify(this.dataClientService).evictWebClient(expectedDataClientConnection);
     }
 
     private DataClientConnection createDataClientConnection(String name, String ipv4, String port) {
@@ -3,20 +3,44 @@ package com.filesystem.server.controllers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.filesystem.server.entities.DataClientConnection;
 import com.filesystem.server.entities.Node;
+import com.filesystem.server.entities.NodeBatchOperationDTO;
+import com.filesystem.server.entities.NodeBatchResultDTO;
+import com.filesystem.server.entities.NodePageDTO;
+import com.filesystem.server.entities.NodeTransferDTO;
+import com.filesystem.server.exceptions.InvalidNodeQueryException;
+import com.filesystem.server.services.NodeBatchService;
+import com.filesystem.server.services.NodeChunkService;
+import com.filesystem.server.services.NodeContentService;
 import com.filesystem.server.services.NodeService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(NodeController.class)
@@ -28,45 +52,119 @@ public class NodeControllerTest {
     private MockMvc mockMvc;
     @MockBean
     private NodeService nodeService;
+    @MockBean
+    private NodeBatchService nodeBatchService;
+    @MockBean
+    private NodeContentService nodeContentService;
+    @MockBean
+    private NodeChunkService nodeChunkService;
 
     @Test
     void getAllNodes_No_Nodes_Test() throws Exception {
-        List<Node> expectedNodeList = Arrays.asList();
-        when(this.nodeService.readAllNodes()).thenReturn(expectedNodeList);
+        when(this.nodeService.exportAllNodes(any())).thenReturn(0L);
+
+        MvcResult result = this.mockMvc.perform(get("/api/nodes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
 
-        this.mockMvc.perform(get("/api/nodes"))
+        this.mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
-                .andExpect(content().string(objectMapper.writeValueAsString(expectedNodeList)));
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(""));
     }
 
     @Test
     void getAllNodes_Only_Root_Node_Test() throws Exception {
-        List<Node> expectedNodeList = createNodeList(0);
-        when(this.nodeService.readAllNodes()).thenReturn(expectedNodeList);
+        assertExport(createExportedNodeList(0));
+    }
+
+    @Test
+    void getAllNodes_Root_Node_One_ChildNode_Test() throws Exception {
+        assertExport(createExportedNodeList(1));
+    }
+
+    @Test
+    void getAllNodes_Root_Node_Multiple_ChildNode_Test() throws Exception {
+        assertExport(createExportedNodeList(20));
+    }
 
-        this.mockMvc.perform(get("/api/nodes"))
+    @Test
+    void searchNodes_Test() throws Exception {
+        List<Map<String, Object>> expectedNodes = List.of(Map.of("id", "1", "name", "report.pdf", "path", "root/report.pdf"));
+
+        when(this.nodeService.searchNodes("report", "substring", "name", 50)).thenReturn(expectedNodes);
+
+        this.mockMvc.perform(get("/api/nodes/search").param("query", "report"))
                 .andExpect(status().isOk())
-                .andExpect(content().string(objectMapper.writeValueAsString(expectedNodeList)));
+                .andExpect(content().string(objectMapper.writeValueAsString(expectedNodes)));
     }
 
     @Test
-    void getAllNodes_Root_Node_One_ChildNode_Test() throws Exception {
-        List<Node> expectedNodeList = createNodeList(1);
-        when(this.nodeService.readAllNodes()).thenReturn(expectedNodeList);
+    void getNodeFromPath_Test() throws Exception {
+        Node node = createNode("file", null, null);
+        node.setId("1");
+
+        when(this.nodeService.readNodeByPath("root/dir/file")).thenReturn(List.of(node));
 
-        this.mockMvc.perform(get("/api/nodes"))
+        this.mockMvc.perform(get("/api/nodes/path").param("path", "root/dir/file"))
                 .andExpect(status().isOk())
-                .andExpect(content().string(objectMapper.writeValueAsString(expectedNodeList)));
+                .andExpect(content().string(objectMapper.writeValueAsString(List.of(node))));
     }
 
     @Test
-    void getAllNodes_Root_Node_Multiple_ChildNode_Test() throws Exception {
-        List<Node> expectedNodeList = createNodeList(20);
-        when(this.nodeService.readAllNodes()).thenReturn(expectedNodeList);
+    void postBatch_Test() throws Exception {
+        NodeBatchOperationDTO operation = new NodeBatchOperationDTO();
+        operation.setType(NodeBatchOperationDTO.CREATE);
+        operation.setNodeId("1");
+        operation.setName("dir");
 
-        this.mockMvc.perform(get("/api/nodes"))
+        NodeBatchResultDTO result = new NodeBatchResultDTO();
+        result.setType(NodeBatchOperationDTO.CREATE);
+        result.setNodeId("2");
+        result.setSuccess(true);
+
+        when(this.nodeBatchService.executeBatch(List.of(operation))).thenReturn(List.of(result));
+
+        this.mockMvc.perform(post("/api/nodes/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(List.of(operation))))
                 .andExpect(status().isOk())
-                .andExpect(content().string(objectMapper.writeValueAsString(expectedNodeList)));
+                .andExpect(content().string(objectMapper.writeValueAsString(List.of(result))));
+    }
+
+    @Test
+    void postNodeTransfer_Test() throws Exception {
+        NodeTransferDTO transfer = new NodeTransferDTO();
+        transfer.setNodeId("1");
+        transfer.setSourceDataClientConnectionId("2");
+        transfer.setTargetDataClientConnectionId("3");
+        transfer.setChunks(4);
+        transfer.setTransferredChunks(1);
+
+        when(this.nodeChunkService.transferNode("1", "3")).thenReturn(transfer);
+
+        this.mockMvc.perform(post("/api/nodes/1/transfer/3"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(transfer)));
+    }
+
+    @Test
+    void getNodeContent_Range_Test() throws Exception {
+        Node node = createNode("file", null, null);
+        node.setId("1");
+        DefaultDataBufferFactory dataBufferFactory = new DefaultDataBufferFactory();
+        Flux<DataBuffer> content = Flux.just(dataBufferFactory.wrap(new byte[] {1, 2}), dataBufferFactory.wrap(new byte[] {3}));
+
+        when(this.nodeService.readNode("1")).thenReturn(node);
+        when(this.nodeContentService.readContent(node, "bytes=1-3")).thenReturn(Mono.just(ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                .header(HttpHeaders.CONTENT_RANGE, "bytes 1-3/10").contentType(MediaType.APPLICATION_OCTET_STREAM).body(content)));
+
+        MvcResult result = this.mockMvc.perform(get("/api/nodes/1/content").header(HttpHeaders.RANGE, "bytes=1-3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1-3/10"))
+                .andExpect(content().bytes(new byte[] {1, 2, 3}));
     }
 
     @Test
@@ -81,6 +179,27 @@ public class NodeControllerTest {
                 .andExpect(content().string(objectMapper.writeValueAsString(expectednode)));
     }
 
+    @Test
+    void getChildNodes_Test() throws Exception {
+        NodePageDTO expectedPage = new NodePageDTO();
+        expectedPage.getItems().add(Map.of("name", "child"));
+        expectedPage.setNextCursor("cursor");
+
+        when(this.nodeService.readChildNodes("1", "previous", 1, "name")).thenReturn(expectedPage);
+
+        this.mockMvc.perform(get("/api/nodes/1/children").param("cursor", "previous").param("limit", "1").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(objectMapper.writeValueAsString(expectedPage)));
+    }
+
+    @Test
+    void getChildNodes_Invalid_Field_Test() throws Exception {
+        when(this.nodeService.readChildNodes("1", null, 100, "content")).thenThrow(new InvalidNodeQueryException("invalid field"));
+
+        this.mockMvc.perform(get("/api/nodes/1/children").param("fields", "content"))
+                .andExpect(status().isBadRequest());
+    }
+
     private Node createNode(String name, Node parentNode, List<Node> childNodes) {
         Node node = new Node();
         node.setName(name);
@@ -91,18 +210,52 @@ public class NodeControllerTest {
         return node;
     }
 
-    private List<Node> createNodeList(int amount) {
-        List<Node> nodeList = new ArrayList<>();
+    private void assertExport(List<Map<String, Object>> exportedNodes) throws Exception {
+        when(this.nodeService.exportAllNodes(any())).thenAnswer(invocation -> {
+            Consumer<Map<String, Object>> consumer = invocation.getArgument(0);
+            exportedNodes.forEach(consumer);
+
+            return (long) exportedNodes.size();
+        });
+
+        StringBuilder expectedExport = new StringBuilder();
+        for (Map<String, Object> exportedNode: exportedNodes)
+            expectedExport.append(objectMapper.writeValueAsString(exportedNode)).append('\n');
+
+        MvcResult result = this.mockMvc.perform(get("/api/nodes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(expectedExport.toString()));
+    }
 
-        Node parentNode = createNode("root", null, null);
+    private List<Map<String, Object>> createExportedNodeList(int amount) {
+        List<Map<String, Object>> exportedNodes = new ArrayList<>();
+        List<String> childNodeIds = new ArrayList<>();
 
         for (int i = 1; i <= amount; i++) {
-            nodeList.add(createNode(String.format("node-", i), parentNode, null));
+            Map<String, Object> exportedNode = new LinkedHashMap<>();
+            exportedNode.put("id", String.valueOf(i));
+            exportedNode.put("name", String.format("node-%s", i));
+            exportedNode.put("path", String.format("root/node-%s", i));
+            exportedNode.put("parentNode", "0");
+            exportedNode.put("childNodes", List.of());
+            exportedNodes.add(exportedNode);
+            childNodeIds.add(String.valueOf(i));
         }
 
-        parentNode.setChildNodes(nodeList);
+        Map<String, Object> rootNode = new LinkedHashMap<>();
+        rootNode.put("id", "0");
+        rootNode.put("name", "root");
+        rootNode.put("path", "root");
+        rootNode.put("parentNode", null);
+        rootNode.put("childNodes", childNodeIds);
+        exportedNodes.add(0, rootNode);
 
-        return nodeList;
+        return exportedNodes;
     }
 
 }
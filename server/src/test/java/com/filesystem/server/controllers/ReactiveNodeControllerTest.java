@@ -0,0 +1,125 @@
+package com.filesystem.server.controllers;
+
+import com.filesystem.server.entities.DeletedNodesDTO;
+import com.filesystem.server.entities.Node;
+import com.filesystem.server.entities.NodePageDTO;
+import com.filesystem.server.services.NodeBatchService;
+import com.filesystem.server.services.NodeChunkService;
+import com.filesystem.server.services.NodeContentService;
+import com.filesystem.server.services.ReactiveNodeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveNodeController.class)
+@ActiveProfiles("reactive")
+public class ReactiveNodeControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @MockBean
+    private ReactiveNodeService reactiveNodeService;
+    @MockBean
+    private NodeBatchService nodeBatchService;
+    @MockBean
+    private NodeContentService nodeContentService;
+    @MockBean
+    private NodeChunkService nodeChunkService;
+
+    @Test
+    void getNode_Test() {
+        Node expectedNode = createNode("1", "root");
+
+        when(this.reactiveNodeService.readNode(expectedNode.getId())).thenReturn(Mono.just(expectedNode));
+
+        this.webTestClient.get().uri("/api/nodes/1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("1")
+                .jsonPath("$.name").isEqualTo("root");
+    }
+
+    @Test
+    void getChildNodes_Test() {
+        NodePageDTO page = new NodePageDTO();
+        page.getItems().add(Map.of("id", "2", "name", "child"));
+        page.setNextCursor("cursor");
+
+        when(this.reactiveNodeService.readChildNodes("1", null, 1, null)).thenReturn(Mono.just(page));
+
+        this.webTestClient.get().uri("/api/nodes/1/children?limit=1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items[0].name").isEqualTo("child")
+                .jsonPath("$.nextCursor").isEqualTo("cursor");
+    }
+
+    @Test
+    void getNodeContent_Test() {
+        Node node = createNode("1", "file");
+        Flux<DataBuffer> content = Flux.just(new DefaultDataBufferFactory().wrap(new byte[] {1, 2, 3}));
+
+        when(this.reactiveNodeService.readNode("1")).thenReturn(Mono.just(node));
+        when(this.nodeContentService.readContent(node, null)).thenReturn(Mono.just(ResponseEntity.ok().contentType(MediaType.APPLICATION_OCTET_STREAM).body(content)));
+
+        this.webTestClient.get().uri("/api/nodes/1/content").exchange()
+                .expectStatus().isOk()
+                .expectBody(byte[].class).isEqualTo(new byte[] {1, 2, 3});
+    }
+
+    @Test
+    void getAllNodes_Test() {
+        when(this.reactiveNodeService.exportAllNodes()).thenReturn(Flux.just(Map.of("id", "1", "name", "root"), Map.of("id", "2", "name", "child")));
+
+        this.webTestClient.get().uri("/api/nodes").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Map.class).hasSize(2);
+    }
+
+    @Test
+    void getRootNode_Test() {
+        when(this.reactiveNodeService.readRoot()).thenReturn(Flux.just(createNode("1", "root"), createNode("2", "other")));
+
+        this.webTestClient.get().uri("/api/nodes/root").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].name").isEqualTo("other");
+    }
+
+    @Test
+    void deleteNode_Test() {
+        DeletedNodesDTO deletedNodes = new DeletedNodesDTO();
+        deletedNodes.setNodeId("1");
+        deletedNodes.setDeletedNodes(3);
+
+        when(this.reactiveNodeService.deleteNode("1")).thenReturn(Mono.just(deletedNodes));
+
+        this.webTestClient.delete().uri("/api/nodes/1").exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.deletedNodes").isEqualTo(3);
+    }
+
+    private Node createNode(String id, String name) {
+        Node node = new Node();
+        node.setId(id);
+        node.setName(name);
+
+        return node;
+    }
+}
@@ -0,0 +1,60 @@
+package com.filesystem.server.services;
+
+import com.filesystem.server.entities.DataClientConnection;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class DataClientWebClientServiceTest {
+
+    private DataClientWebClientService dataClientWebClientService;
+
+    @BeforeEach
+    void initUseCase() {
+        dataClientWebClientService = new DataClientWebClientService(WebClient.builder(), 4, 16, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void shutdown() {
+        dataClientWebClientService.shutdown();
+    }
+
+    @Test
+    void getWebClient_Cached_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection("8080");
+
+        assertSame(this.dataClientWebClientService.getWebClient(dataClientConnection), this.dataClientWebClientService.getWebClient(dataClientConnection));
+    }
+
+    @Test
+    void getWebClient_Address_Changed_Test() {
+        WebClient webClient = this.dataClientWebClientService.getWebClient(createDataClientConnection("8080"));
+
+        assertNotSame(webClient, this.dataClientWebClientService.getWebClient(createDataClientConnection("8081")));
+    }
+
+    @Test
+    void evictWebClient_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection("8080");
+        WebClient webClient = this.dataClientWebClientService.getWebClient(dataClientConnection);
+
+        this.dataClientWebClientService.evictWebClient(dataClientConnection);
+
+        assertNotSame(webClient, this.dataClientWebClientService.getWebClient(dataClientConnection));
+    }
+
+    private DataClientConnection createDataClientConnection(String port) {
+        DataClientConnection dataClientConnection = new DataClientConnection();
+        dataClientConnection.setId("1");
+        dataClientConnection.setIpv4("127.0.0.1");
+        dataClientConnection.setPort(port);
+
+        return dataClientConnection;
+    }
+}
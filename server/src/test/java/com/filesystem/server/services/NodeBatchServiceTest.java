@@ -0,0 +1,241 @@
+package com.filesystem.server.services;
+
+import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.DataClientOperationDTO;
+import com.filesystem.server.entities.DataClientOperationResultDTO;
+import com.filesystem.server.entities.Node;
+import com.filesystem.server.entities.NodeBatchOperationDTO;
+import com.filesystem.server.entities.NodeBatchResultDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NodeBatchServiceTest {
+
+    private NodeBatchService nodeBatchService;
+    @Mock
+    private DataClientService dataClientService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private DataClientConnection dataClientConnection;
+    private Node rootNode;
+
+    @BeforeEach
+    void initUseCase() {
+        nodeBatchService = new NodeBatchService(mongoTemplate, dataClientService, new NodeCacheService(true, 100, Duration.ofMinutes(1), new SimpleMeterRegistry()), 100, Duration.ofSeconds(1));
+
+        dataClientConnection = new DataClientConnection();
+        dataClientConnection.setId("1");
+        dataClientConnection.setIpv4("111.222.333.444");
+
+        rootNode = new Node();
+        rootNode.setId(new ObjectId().toHexString());
+        rootNode.setName("root");
+        rootNode.addDataClientConnection(dataClientConnection);
+        rootNode.updateMaterializedPath();
+    }
+
+    @Test
+    void executeBatch_Create_Nested_And_Rename_Test() {
+        mockStoredNodes(this.rootNode);
+        when(this.mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Node.class)).thenReturn(this.bulkOperations);
+        when(this.dataClientService.applyBatchAsync(eq(this.dataClientConnection), any())).thenReturn(Mono.just(createOperationResults(true)), Mono.just(createOperationResults(true, true)));
+
+        List<NodeBatchResultDTO> results = this.nodeBatchService.executeBatch(List.of(
+                createOperation(NodeBatchOperationDTO.CREATE, this.rootNode.getId(), "dir"),
+                createOperation(NodeBatchOperationDTO.CREATE, "$0", "file"),
+                createOperation(NodeBatchOperationDTO.RENAME, "$0", "dir2")));
+
+        assertTrue(results.stream().allMatch(NodeBatchResultDTO::isSuccess));
+        assertEquals(results.get(0).getNodeId(), results.get(2).getNodeId());
+
+        // the operations depending on the created directory are sent in the next wave, in their order
+        verify(this.dataClientService).applyBatchAsync(this.dataClientConnection, List.of(
+                createDataClientOperation(DataClientOperationDTO.CREATE_DIRECTORY, "root/dir", null)));
+        verify(this.dataClientService).applyBatchAsync(this.dataClientConnection, List.of(
+                createDataClientOperation(DataClientOperationDTO.CREATE_DIRECTORY, "root/dir/file", null),
+                createDataClientOperation(DataClientOperationDTO.RENAME, "root/dir", "dir2")));
+
+        ArgumentCaptor<Node> insertedNodes = ArgumentCaptor.forClass(Node.class);
+        verify(this.bulkOperations, times(2)).insert(insertedNodes.capture());
+        assertEquals("root/dir2", insertedNodes.getAllValues().get(0).getPath());
+        assertEquals("dir2", insertedNodes.getAllValues().get(0).getName());
+        assertEquals("root/dir2/file", insertedNodes.getAllValues().get(1).getPath());
+        assertEquals(List.of(this.rootNode.getId(), results.get(0).getNodeId()), insertedNodes.getAllValues().get(1).getAncestors());
+        verify(this.bulkOperations).updateOne(new Query(Criteria.where("_id").is(this.rootNode.getId())), new Update().push("childNodes", insertedNodes.getAllValues().get(0)));
+        verify(this.bulkOperations, never()).replaceOne(any(), any());
+        verify(this.bulkOperations).execute();
+    }
+
+    @Test
+    void executeBatch_Failed_Operations_Test() {
+        Node existingNode = createChildNode(this.rootNode, "a");
+
+        mockStoredNodes(this.rootNode, existingNode);
+        when(this.dataClientService.applyBatchAsync(this.dataClientConnection, List.of(
+                createDataClientOperation(DataClientOperationDTO.CREATE_DIRECTORY, "root/b", null)))).thenReturn(Mono.just(createOperationResults(false)));
+
+        List<NodeBatchResultDTO> results = this.nodeBatchService.executeBatch(List.of(
+                createOperation(NodeBatchOperationDTO.CREATE, this.rootNode.getId(), existingNode.getName()),
+                createOperation(NodeBatchOperationDTO.CREATE, "$0", "x"),
+                createOperation(NodeBatchOperationDTO.CREATE, this.rootNode.getId(), "b"),
+                createOperation(NodeBatchOperationDTO.CREATE, "$2", "c"),
+                createOperation(NodeBatchOperationDTO.DELETE, "unknown", null)));
+
+        assertTrue(results.stream().noneMatch(NodeBatchResultDTO::isSuccess));
+        assertEquals("The node root/a already exists!", results.get(0).getError());
+        assertFalse(results.get(2).getReplicaResults().get(0).isSuccess());
+        assertEquals("failed", results.get(2).getReplicaResults().get(0).getError());
+        assertEquals("An earlier operation this operation depends on failed!", results.get(3).getError());
+        // the dependent operation isnt replicated, so the DataClient cant diverge from the stored Nodes
+        assertTrue(results.get(3).getReplicaResults().isEmpty());
+        verify(this.dataClientService, times(1)).applyBatchAsync(any(), any());
+        verify(this.mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Node.class));
+    }
+
+    @Test
+    void executeBatch_Skip_Failed_DataClient_Test() {
+        DataClientConnection failedDataClientConnection = new DataClientConnection();
+        failedDataClientConnection.setId("2");
+        failedDataClientConnection.setIpv4("222.333.444.555");
+        this.rootNode.addDataClientConnection(failedDataClientConnection);
+
+        mockStoredNodes(this.rootNode);
+        when(this.mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Node.class)).thenReturn(this.bulkOperations);
+        List<DataClientOperationDTO> createBatch = List.of(createDataClientOperation(DataClientOperationDTO.CREATE_DIRECTORY, "root/dir", null));
+        when(this.dataClientService.applyBatchAsync(this.dataClientConnection, createBatch)).thenReturn(Mono.just(createOperationResults(true)));
+        when(this.dataClientService.applyBatchAsync(failedDataClientConnection, createBatch)).thenReturn(Mono.just(createOperationResults(false)));
+        when(this.dataClientService.applyBatchAsync(this.dataClientConnection, List.of(
+                createDataClientOperation(DataClientOperationDTO.CREATE_DIRECTORY, "root/dir/file", null)))).thenReturn(Mono.just(createOperationResults(true)));
+
+        List<NodeBatchResultDTO> results = this.nodeBatchService.executeBatch(List.of(
+                createOperation(NodeBatchOperationDTO.CREATE, this.rootNode.getId(), "dir"),
+                createOperation(NodeBatchOperationDTO.CREATE, "$0", "file")));
+
+        assertTrue(results.stream().allMatch(NodeBatchResultDTO::isSuccess));
+        // the DataClient missing the directory doesnt get the file
+        assertEquals(2, results.get(1).getReplicaResults().size());
+        assertFalse(results.get(1).getReplicaResults().stream().filter(replicaResult -> replicaResult.getDataClientConnectionId().equals("2")).findFirst().orElseThrow().isSuccess());
+        verify(this.dataClientService, times(3)).applyBatchAsync(any(), any());
+    }
+
+    @Test
+    void executeBatch_Delete_Test() {
+        Node existingNode = createChildNode(this.rootNode, "a");
+
+        mockStoredNodes(this.rootNode, existingNode);
+        when(this.mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Node.class)).thenReturn(this.bulkOperations);
+        when(this.dataClientService.applyBatchAsync(this.dataClientConnection, List.of(
+                createDataClientOperation(DataClientOperationDTO.DELETE, "root/a", null)))).thenReturn(Mono.just(createOperationResults(true)));
+
+        List<NodeBatchResultDTO> results = this.nodeBatchService.executeBatch(List.of(
+                createOperation(NodeBatchOperationDTO.DELETE, existingNode.getId(), null),
+                createOperation(NodeBatchOperationDTO.RENAME, existingNode.getId(), "b")));
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(this.bulkOperations).updateOne(eq(new Query(Criteria.where("_id").is(this.rootNode.getId()))), update.capture());
+        assertEquals(existingNode.getId(), ((Node) update.getValue().getUpdateObject().get("$pull", Document.class).get("childNodes")).getId());
+        verify(this.bulkOperations).remove(new Query(new Criteria().orOperator(Criteria.where("_id").in(Set.of(existingNode.getId())), Criteria.where("ancestors").in(Set.of(existingNode.getId())))));
+    }
+
+    /**
+     * Stubs the projected reads of the given Nodes, their ChildNodes and their DataClientConnections.
+     */
+    private void mockStoredNodes(Node... nodes) {
+        List<Document> documents = new ArrayList<>();
+        for (Node node: nodes) {
+            Document document = new Document("_id", new ObjectId(node.getId())).append("name", node.getName()).append("path", node.getPath())
+                    .append("ancestors", node.getAncestors())
+                    .append("dataClientConnection", node.getDataClientConnection().stream().map(DataClientConnection::getId).collect(Collectors.toList()));
+            if (node.getParentNode() != null)
+                document.append("parentNode", new ObjectId(node.getParentNode().getId()));
+            documents.add(document);
+        }
+
+        when(this.mongoTemplate.getCollectionName(Node.class)).thenReturn("node");
+        when(this.mongoTemplate.find(any(Query.class), eq(Document.class), eq("node"))).thenAnswer(invocation -> {
+            Document query = ((Query) invocation.getArgument(0)).getQueryObject();
+            return documents.stream()
+                    .filter(document -> query.containsKey("_id") ? query.get("_id", Document.class).getList("$in", Object.class).contains(document.get("_id"))
+                            : Objects.equals(query.get("parentNode"), document.get("parentNode")))
+                    .collect(Collectors.toList());
+        });
+        when(this.mongoTemplate.find(any(Query.class), eq(DataClientConnection.class))).thenReturn(
+                this.rootNode.getDataClientConnection());
+    }
+
+    private Node createChildNode(Node parentNode, String name) {
+        Node node = new Node();
+        node.setId(new ObjectId().toHexString());
+        node.setName(name);
+        node.setParentNode(parentNode);
+        node.addDataClientConnections(parentNode.getDataClientConnection());
+        node.updateMaterializedPath();
+        parentNode.addChildNode(node);
+
+        return node;
+    }
+
+    private NodeBatchOperationDTO createOperation(String type, String nodeId, String name) {
+        NodeBatchOperationDTO operation = new NodeBatchOperationDTO();
+        operation.setType(type);
+        operation.setNodeId(nodeId);
+        operation.setName(name);
+
+        return operation;
+    }
+
+    private DataClientOperationDTO createDataClientOperation(String type, String path, String name) {
+        DataClientOperationDTO operation = new DataClientOperationDTO();
+        operation.setType(type);
+        operation.setPath(path);
+        operation.setName(name);
+
+        return operation;
+    }
+
+    private List<DataClientOperationResultDTO> createOperationResults(boolean... success) {
+        List<DataClientOperationResultDTO> operationResults = new ArrayList<>();
+        for (int index = 0; index < success.length; index++) {
+            DataClientOperationResultDTO operationResult = new DataClientOperationResultDTO();
+            operationResult.setIndex(index);
+            operationResult.setSuccess(success[index]);
+            operationResult.setError(success[index] ? null : "failed");
+            operationResults.add(operationResult);
+        }
+
+        return operationResults;
+    }
+}
@@ -0,0 +1,140 @@
+package com.filesystem.server.services;
+
+import com.filesystem.server.entities.DataClientChunkDTO;
+import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.DataClientFileChunksDTO;
+import com.filesystem.server.entities.Node;
+import com.filesystem.server.entities.NodeTransferDTO;
+import com.filesystem.server.exceptions.InvalidNodeQueryException;
+import com.filesystem.server.repositories.DataClientConnectionRepository;
+import com.filesystem.server.repositories.NodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NodeChunkServiceTest {
+
+    private NodeChunkService nodeChunkService;
+    @Mock
+    private NodeRepository nodeRepository;
+    @Mock
+    private DataClientConnectionRepository dataClientConnectionRepository;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private DataClientService dataClientService;
+    @Mock
+    private NodeCacheService nodeCacheService;
+
+    private DataClientConnection sourceDataClientConnection;
+    private DataClientConnection targetDataClientConnection;
+    private Node node;
+
+    @BeforeEach
+    void initUseCase() {
+        nodeChunkService = new NodeChunkService(nodeRepository, dataClientConnectionRepository, mongoTemplate, dataClientService, nodeCacheService, Duration.ofSeconds(1), 2);
+
+        sourceDataClientConnection = createDataClientConnection("1");
+        targetDataClientConnection = createDataClientConnection("2");
+
+        Node rootNode = new Node();
+        rootNode.setId("0");
+        rootNode.setName("root");
+        rootNode.addDataClientConnection(sourceDataClientConnection);
+        rootNode.updateMaterializedPath();
+
+        node = new Node();
+        node.setId("1");
+        node.setName("file");
+        node.setParentNode(rootNode);
+        node.addDataClientConnection(sourceDataClientConnection);
+        node.updateMaterializedPath();
+    }
+
+    @Test
+    void transferNode_Skips_Present_Chunks_Test() {
+        DataClientFileChunksDTO fileChunks = createFileChunks("a", "b", "a", "c");
+
+        when(this.nodeRepository.findById("1")).thenReturn(Optional.of(this.node));
+        when(this.dataClientConnectionRepository.findById("2")).thenReturn(Optional.of(this.targetDataClientConnection));
+        when(this.dataClientService.getFileChunksAsync(this.sourceDataClientConnection, "root/file")).thenReturn(Mono.just(fileChunks));
+        when(this.dataClientService.findMissingChunksAsync(this.targetDataClientConnection, List.of("a", "b", "a", "c"))).thenReturn(Mono.just(List.of("a", "c")));
+        when(this.dataClientService.copyChunkAsync(eq(this.sourceDataClientConnection), eq(this.targetDataClientConnection), anyString())).thenReturn(Mono.empty());
+        when(this.dataClientService.assembleFileAsync(this.targetDataClientConnection, "root/file", List.of("a", "b", "a", "c"))).thenReturn(Mono.just(new Node()));
+
+        NodeTransferDTO transfer = this.nodeChunkService.transferNode("1", "2");
+
+        assertEquals(4, transfer.getChunks());
+        assertEquals(2, transfer.getTransferredChunks());
+        // the twice appearing chunk is only copied once
+        assertEquals(200, transfer.getTransferredBytes());
+        assertEquals(200, transfer.getSkippedBytes());
+        verify(this.dataClientService).copyChunkAsync(this.sourceDataClientConnection, this.targetDataClientConnection, "a");
+        verify(this.dataClientService).copyChunkAsync(this.sourceDataClientConnection, this.targetDataClientConnection, "c");
+        verify(this.dataClientService, never()).copyChunkAsync(this.sourceDataClientConnection, this.targetDataClientConnection, "b");
+        assertTrue(this.node.getDataClientConnection().contains(this.targetDataClientConnection));
+        assertTrue(this.node.getParentNode().getDataClientConnection().contains(this.targetDataClientConnection));
+        assertEquals("hash", this.node.getContentHash());
+        // the target is added to the Node and its ancestors without overwriting them
+        verify(this.mongoTemplate).updateMulti(new Query(Criteria.where("_id").in(List.of("1", "0"))), new Update().addToSet("dataClientConnection", this.targetDataClientConnection), Node.class);
+        verify(this.nodeRepository, never()).save(any());
+    }
+
+    @Test
+    void transferNode_Already_Held_Test() {
+        this.node.addDataClientConnection(this.targetDataClientConnection);
+
+        when(this.nodeRepository.findById("1")).thenReturn(Optional.of(this.node));
+        when(this.dataClientConnectionRepository.findById("2")).thenReturn(Optional.of(this.targetDataClientConnection));
+
+        assertThrows(InvalidNodeQueryException.class, () -> this.nodeChunkService.transferNode("1", "2"));
+        verify(this.dataClientService, never()).getFileChunksAsync(any(), any());
+    }
+
+    private DataClientFileChunksDTO createFileChunks(String... hashes) {
+        List<DataClientChunkDTO> chunks = new ArrayList<>();
+        for (int i = 0; i < hashes.length; i++) {
+            DataClientChunkDTO chunk = new DataClientChunkDTO();
+            chunk.setHash(hashes[i]);
+            chunk.setOffset(i * 100L);
+            chunk.setLength(100);
+            chunks.add(chunk);
+        }
+
+        DataClientFileChunksDTO fileChunks = new DataClientFileChunksDTO();
+        fileChunks.setPath("file");
+        fileChunks.setSize(hashes.length * 100L);
+        fileChunks.setContentHash("hash");
+        fileChunks.setChunks(chunks);
+
+        return fileChunks;
+    }
+
+    private DataClientConnection createDataClientConnection(String id) {
+        DataClientConnection dataClientConnection = new DataClientConnection();
+        dataClientConnection.setId(id);
+        dataClientConnection.setIpv4("111.222.333.44" + id);
+
+        return dataClientConnection;
+    }
+}
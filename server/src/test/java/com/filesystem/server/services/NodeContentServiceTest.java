@@ -0,0 +1,93 @@
+package com.filesystem.server.services;
+
+import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.Node;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class NodeContentServiceTest {
+
+    private NodeContentService nodeContentService;
+    @Mock
+    private DataClientService dataClientService;
+
+    private DataClientConnection firstDataClientConnection;
+    private DataClientConnection secondDataClientConnection;
+    private Node node;
+
+    @BeforeEach
+    void initUseCase() {
+        nodeContentService = new NodeContentService(dataClientService, Duration.ofSeconds(1));
+
+        firstDataClientConnection = createDataClientConnection("1");
+        secondDataClientConnection = createDataClientConnection("2");
+
+        node = new Node();
+        node.setId("1");
+        node.setName("file");
+        node.addDataClientConnection(firstDataClientConnection);
+        node.addDataClientConnection(secondDataClientConnection);
+        node.updateMaterializedPath();
+    }
+
+    @Test
+    void readContent_Next_DataClient_Test() {
+        Flux<DataBuffer> content = Flux.just(new DefaultDataBufferFactory().wrap(new byte[] {1, 2, 3}));
+
+        when(this.dataClientService.readNodeContentAsync(this.firstDataClientConnection, "file", "bytes=0-2"))
+                .thenReturn(Mono.error(new WebClientRequestException(new IOException("unreachable"), HttpMethod.GET, URI.create("http://1"), HttpHeaders.EMPTY)));
+        when(this.dataClientService.readNodeContentAsync(this.secondDataClientConnection, "file", "bytes=0-2"))
+                .thenReturn(Mono.just(ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).header(HttpHeaders.CONTENT_RANGE, "bytes 0-2/10").header("X-Internal", "1").body(content)));
+
+        ResponseEntity<Flux<DataBuffer>> response = this.nodeContentService.readContent(this.node, "bytes=0-2").block();
+
+        assertEquals(HttpStatus.PARTIAL_CONTENT, response.getStatusCode());
+        assertEquals("bytes 0-2/10", response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE));
+        assertFalse(response.getHeaders().containsKey("X-Internal"));
+        assertEquals(content, response.getBody());
+    }
+
+    @Test
+    void readContent_Not_Found_Test() {
+        when(this.dataClientService.readNodeContentAsync(this.firstDataClientConnection, "file", null))
+                .thenReturn(Mono.error(WebClientResponseException.create(404, "Not Found", HttpHeaders.EMPTY, new byte[0], null)));
+
+        ResponseStatusException exception = assertThrows(ResponseStatusException.class, () -> this.nodeContentService.readContent(this.node, null).block());
+
+        // a missing file is missing on every DataClient
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+        verify(this.dataClientService, never()).readNodeContentAsync(this.secondDataClientConnection, "file", null);
+    }
+
+    private DataClientConnection createDataClientConnection(String id) {
+        DataClientConnection dataClientConnection = new DataClientConnection();
+        dataClientConnection.setId(id);
+        dataClientConnection.setIpv4("111.222.333.44" + id);
+
+        return dataClientConnection;
+    }
+}
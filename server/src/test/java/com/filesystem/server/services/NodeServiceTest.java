@@ -1,21 +1,52 @@
 package com.filesystem.server.services;
 
+import com.filesystem.server.entities.DataClientChangeDTO;
 import com.filesystem.server.entities.DataClientConnection;
+import com.filesystem.server.entities.DeletedNodesDTO;
 import com.filesystem.server.entities.Node;
+import com.filesystem.server.entities.NodeLookupStatsDTO;
+import com.filesystem.server.entities.NodePageDTO;
+import com.filesystem.server.exceptions.DataClientRestApiException;
+import com.filesystem.server.exceptions.InvalidNodeQueryException;
 import com.filesystem.server.exceptions.NodeDoesntExistById;
 import com.filesystem.server.repositories.NodeRepository;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.result.DeleteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
 
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,10 +57,116 @@ public class NodeServiceTest {
     private NodeRepository nodeRepository;
     @Mock
     private DataClientService dataClientService;
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private BulkOperations bulkOperations;
 
     @BeforeEach
     void initUseCase() {
-        nodeService = new NodeService(nodeRepository, dataClientService);
+        nodeService = new NodeService(nodeRepository, dataClientService, mongoTemplate, new NodeCacheService(true, 100, Duration.ofMinutes(1), new SimpleMeterRegistry()), true, 2, false, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void readNode_Cached_Test() {
+        Node expectedNode = createNode("root", null, null);
+        expectedNode.setId("1");
+
+        when(this.nodeRepository.findById(expectedNode.getId())).thenReturn(Optional.of(expectedNode));
+
+        assertEquals(expectedNode, this.nodeService.readNode(expectedNode.getId()));
+        assertEquals(expectedNode, this.nodeService.readNode(expectedNode.getId()));
+        verify(this.nodeRepository, times(1)).findById(expectedNode.getId());
+    }
+
+    @Test
+    void readNode_Invalidated_After_Rename_Test() {
+        Node rootNode = createNode("root", null, null);
+        rootNode.setId("1");
+        Node childNode = createNode("child", rootNode, null);
+        childNode.setId("2");
+        rootNode.addChildNode(childNode);
+
+        when(this.nodeRepository.findById(rootNode.getId())).thenReturn(Optional.of(rootNode));
+        when(this.nodeRepository.findById(childNode.getId())).thenReturn(Optional.of(childNode));
+        when(this.nodeRepository.save(any(Node.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        this.nodeService.readNode(childNode.getId());
+        this.nodeService.updateNodeName(rootNode.getId(), "newRootName");
+        this.nodeService.readNode(childNode.getId());
+
+        verify(this.nodeRepository, times(2)).findById(childNode.getId());
+    }
+
+    @Test
+    void exportAllNodes_Test() {
+        ObjectId rootId = new ObjectId();
+        ObjectId childId = new ObjectId();
+        List<Document> documents = List.of(
+                new Document("_id", rootId).append("name", "root").append("path", "root").append("childNodes", List.of(childId)),
+                new Document("_id", childId).append("name", "child").append("path", "root/child").append("parentNode", rootId).append("childNodes", List.of()));
+
+        when(this.mongoTemplate.getCollectionName(Node.class)).thenReturn("node");
+        when(this.mongoTemplate.stream(any(Query.class), eq(Document.class), eq("node"))).thenReturn(createDocumentIterator(documents));
+
+        List<Map<String, Object>> exportedNodes = new ArrayList<>();
+
+        assertEquals(2, this.nodeService.exportAllNodes(exportedNodes::add));
+        assertEquals(List.of(childId.toHexString()), exportedNodes.get(0).get("childNodes"));
+        assertNull(exportedNodes.get(0).get("parentNode"));
+        assertEquals(rootId.toHexString(), exportedNodes.get(1).get("parentNode"));
+        assertEquals(List.of("id", "name", "path", "parentNode", "childNodes"), new ArrayList<>(exportedNodes.get(1).keySet()));
+    }
+
+    @Test
+    void readChildNodes_Next_Page_Test() {
+        String parentId = new ObjectId().toHexString();
+        ObjectId firstId = new ObjectId();
+        ObjectId secondId = new ObjectId();
+        ObjectId thirdId = new ObjectId();
+        List<Document> documents = List.of(
+                new Document("_id", firstId).append("name", "a").append("path", "root/a"),
+                new Document("_id", secondId).append("name", "b").append("path", "root/b"),
+                new Document("_id", thirdId).append("name", "c").append("path", "root/c"));
+
+        when(this.mongoTemplate.exists(any(Query.class), eq(Node.class))).thenReturn(true);
+        when(this.mongoTemplate.getCollectionName(Node.class)).thenReturn("node");
+        when(this.mongoTemplate.find(any(Query.class), eq(Document.class), eq("node"))).thenReturn(documents);
+
+        NodePageDTO page = this.nodeService.readChildNodes(parentId, null, 2, "id,name");
+
+        assertEquals(2, page.getItems().size());
+        assertEquals(Map.of("id", firstId.toHexString(), "name", "a"), page.getItems().get(0));
+        assertNotNull(page.getNextCursor());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        this.nodeService.readChildNodes(parentId, page.getNextCursor(), 2, "id,name");
+        verify(this.mongoTemplate, times(2)).find(query.capture(), eq(Document.class), eq("node"));
+
+        Query nextPageQuery = query.getAllValues().get(1);
+        assertEquals(3, nextPageQuery.getLimit());
+        assertEquals(new ObjectId(parentId), nextPageQuery.getQueryObject().get("parentNode"));
+        assertEquals(List.of(new Document("name", new Document("$gt", "b")),
+                        new Document("$and", List.of(new Document("name", "b"), new Document("_id", new Document("$gt", secondId))))),
+                nextPageQuery.getQueryObject().get("$or"));
+    }
+
+    @Test
+    void readChildNodes_Last_Page_Test() {
+        when(this.mongoTemplate.exists(any(Query.class), eq(Node.class))).thenReturn(true);
+        when(this.mongoTemplate.getCollectionName(Node.class)).thenReturn("node");
+        when(this.mongoTemplate.find(any(Query.class), eq(Document.class), eq("node"))).thenReturn(List.of(new Document("_id", new ObjectId()).append("name", "a")));
+
+        NodePageDTO page = this.nodeService.readChildNodes("1", null, 2, null);
+
+        assertEquals(1, page.getItems().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void readChildNodes_Invalid_Field_Exception_Test() {
+        assertThrows(InvalidNodeQueryException.class, () -> this.nodeService.readChildNodes("1", null, 2, "name,childNodes"));
+        verifyNoInteractions(this.mongoTemplate);
     }
 
     @Test
@@ -57,6 +194,381 @@ public class NodeServiceTest {
         assertEquals(expectedNode, this.nodeService.updateNodeName(actualNode.getId(), expectedNode.getName()));
     }
 
+    @Test
+    void updateNodeName_Partial_Replica_Failure_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection();
+        DataClientConnection failingDataClientConnection = createDataClientConnection();
+        failingDataClientConnection.setId("2");
+        Node actualNode = createNode("root", null, null, dataClientConnection);
+        actualNode.addDataClientConnection(failingDataClientConnection);
+        actualNode.setId("1");
+
+        when(this.nodeRepository.findById(actualNode.getId())).thenReturn(Optional.of(actualNode));
+        when(this.nodeRepository.save(any(Node.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(this.dataClientService.renameNodeAsync(dataClientConnection, "root", "newRootName")).thenReturn(Mono.just(new Node()));
+        when(this.dataClientService.renameNodeAsync(failingDataClientConnection, "root", "newRootName")).thenReturn(Mono.never());
+
+        Node renamedNode = this.nodeService.updateNodeName(actualNode.getId(), "newRootName");
+
+        assertEquals("newRootName", renamedNode.getName());
+        assertTrue(renamedNode.getReplicaResults().get(0).isSuccess());
+        assertFalse(renamedNode.getReplicaResults().get(1).isSuccess());
+    }
+
+    @Test
+    void updateNodeName_All_Replicas_Failed_Exception_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection();
+        Node actualNode = createNode("root", null, null, dataClientConnection);
+        actualNode.setId("1");
+
+        when(this.nodeRepository.findById(actualNode.getId())).thenReturn(Optional.of(actualNode));
+        when(this.dataClientService.renameNodeAsync(dataClientConnection, "root", "newRootName")).thenReturn(Mono.error(new RuntimeException("unreachable")));
+
+        assertThrows(DataClientRestApiException.class, () -> this.nodeService.updateNodeName(actualNode.getId(), "newRootName"));
+        assertEquals("root", actualNode.getName());
+        verify(this.nodeRepository, never()).save(any(Node.class));
+    }
+
+    @Test
+    void applyDataClientChanges_Created_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection();
+        Document rootDocument = createDocument("1", "/", "/", null);
+        Document dirDocument = createDocument("2", "dir", "//dir", "1");
+
+        when(this.mongoTemplate.getCollectionName(Node.class)).thenReturn("node");
+        when(this.mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("node"))).thenAnswer(invocation -> findDocument(invocation.getArgument(0), rootDocument, dirDocument));
+        when(this.nodeRepository.save(any(Node.class))).thenAnswer(invocation -> {
+            Node node = invocation.getArgument(0);
+            node.setId("3");
+            return node;
+        });
+
+        assertTrue(this.nodeService.applyDataClientChanges(dataClientConnection, List.of(createChange(DataClientChangeDTO.CREATED, "/dir/file"))));
+
+        ArgumentCaptor<Node> nodeCaptor = ArgumentCaptor.forClass(Node.class);
+        verify(this.nodeRepository).save(nodeCaptor.capture());
+        assertEquals("file", nodeCaptor.getValue().getName());
+        assertEquals("//dir/file", nodeCaptor.getValue().getPath());
+        assertEquals(List.of("1", "2"), nodeCaptor.getValue().getAncestors());
+        assertEquals(List.of(dataClientConnection), nodeCaptor.getValue().getDataClientConnection());
+        // only the reference to the new node is added to the parent node
+        verify(this.mongoTemplate).updateFirst(new Query(Criteria.where("_id").is("2")), new Update().push("childNodes", nodeCaptor.getValue()), Node.class);
+        verify(this.nodeRepository, never()).findAllByDataClientConnectionAndParentNodeIsNull(any(DataClientConnection.class));
+    }
+
+    @Test
+    void applyDataClientChanges_Created_Existing_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection();
+        Document rootDocument = createDocument("1", "/", "/", null);
+        Document fileDocument = createDocument("2", "file", "//file", "1");
+
+        when(this.mongoTemplate.getCollectionName(Node.class)).thenReturn("node");
+        when(this.mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("node"))).thenAnswer(invocation -> findDocument(invocation.getArgument(0), rootDocument, fileDocument));
+        Node cachedNode = createNode("file", null, null);
+        cachedNode.setId("2");
+        when(this.nodeRepository.findById("2")).thenReturn(Optional.of(cachedNode));
+        this.nodeService.readNode("2");
+
+        this.nodeService.applyDataClientChanges(dataClientConnection, List.of(createChange(DataClientChangeDTO.CREATED, "/file")));
+        this.nodeService.readNode("2");
+
+        verify(this.mongoTemplate).updateFirst(new Query(Criteria.where("_id").is("2")), new Update().addToSet("dataClientConnection", dataClientConnection), Node.class);
+        verify(this.nodeRepository, never()).save(any(Node.class));
+        // the cached node doesnt know the new connection and is read again
+        verify(this.nodeRepository, times(2)).findById("2");
+    }
+
+    @Test
+    void applyDataClientChanges_Deleted_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection();
+        Document rootDocument = createDocument("1", "/", "/", null);
+        Document dirDocument = createDocument("2", "dir", "//dir", "1");
+
+        when(this.mongoTemplate.getCollectionName(Node.class)).thenReturn("node");
+        when(this.mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("node"))).thenAnswer(invocation -> findDocument(invocation.getArgument(0), rootDocument, dirDocument));
+        when(this.mongoTemplate.find(any(Query.class), eq(Document.class), eq("node"))).thenReturn(
+                List.of(new Document("_id", "2"), new Document("_id", "3")),
+                List.of(new Document("_id", "2").append("parentNode", "1"), new Document("_id", "3").append("parentNode", "2")));
+
+        this.nodeService.applyDataClientChanges(dataClientConnection, List.of(createChange(DataClientChangeDTO.DELETED, "/dir")));
+
+        verify(this.mongoTemplate).updateMulti(new Query(Criteria.where("_id").in(List.of("2", "3"))), new Update().pull("dataClientConnection", dataClientConnection), Node.class);
+        // the deleted child of the deleted directory doesnt have to be pulled from it
+        verify(this.mongoTemplate).updateFirst(eq(new Query(Criteria.where("_id").is("1"))), any(Update.class), eq(Node.class));
+        verify(this.mongoTemplate, never()).updateFirst(eq(new Query(Criteria.where("_id").is("2"))), any(Update.class), eq(Node.class));
+        verify(this.mongoTemplate).remove(new Query(Criteria.where("_id").in(List.of("2", "3"))), Node.class);
+        verify(this.nodeRepository, never()).save(any(Node.class));
+    }
+
+    @Test
+    void applyDataClientChanges_Modified_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection();
+        Document rootDocument = createDocument("1", "/", "/", null);
+        Document fileDocument = createDocument("2", "file", "//file", "1").append("contentHash", "hash").append("chunkHashes", List.of("a"));
+
+        when(this.mongoTemplate.getCollectionName(Node.class)).thenReturn("node");
+        when(this.mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("node"))).thenAnswer(invocation -> findDocument(invocation.getArgument(0), rootDocument, fileDocument));
+
+        this.nodeService.applyDataClientChanges(dataClientConnection, List.of(createChange(DataClientChangeDTO.MODIFIED, "/file")));
+
+        // the hashes of the former content are removed, the file is chunked again when it is indexed next
+        verify(this.mongoTemplate).updateFirst(new Query(Criteria.where("_id").is("2")), new Update().unset("contentHash").set("chunkHashes", List.of()), Node.class);
+        verify(this.nodeRepository, never()).save(any(Node.class));
+    }
+
+    @Test
+    void applyDataClientChanges_No_Structure_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection();
+
+        when(this.mongoTemplate.getCollectionName(Node.class)).thenReturn("node");
+        when(this.mongoTemplate.findOne(any(Query.class), eq(Document.class), eq("node"))).thenReturn(null);
+
+        assertFalse(this.nodeService.applyDataClientChanges(dataClientConnection, List.of(createChange(DataClientChangeDTO.CREATED, "/file"))));
+        verify(this.nodeRepository, never()).save(any(Node.class));
+    }
+
+    @Test
+    void resyncDataStructure_Missing_Nodes_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection();
+        Node rootNode = createNode("/", null, null);
+        rootNode.addChildNode(createNode("dir", rootNode, null));
+
+        when(this.mongoTemplate.getCollectionName(Node.class)).thenReturn("node");
+        when(this.mongoTemplate.stream(any(Query.class), eq(Document.class), eq("node"))).thenReturn(createDocumentIterator(List.of(
+                new Document("_id", "1").append("path", "/"), new Document("_id", "2").append("path", "//dir"), new Document("_id", "3").append("path", "//gone"))));
+        when(this.mongoTemplate.find(any(Query.class), eq(Document.class), eq("node"))).thenReturn(List.of(new Document("_id", "3").append("parentNode", "1")));
+        when(this.nodeRepository.findFirstByParentNodeIsNullAndName("/")).thenReturn(null);
+        when(this.mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Node.class)).thenReturn(this.bulkOperations);
+
+        this.nodeService.resyncDataStructure(rootNode, dataClientConnection);
+
+        // only the node missing in the structure of the DataClient loses the connection
+        verify(this.mongoTemplate).updateMulti(new Query(Criteria.where("_id").in(List.of("3"))), new Update().pull("dataClientConnection", dataClientConnection), Node.class);
+        verify(this.mongoTemplate).remove(new Query(Criteria.where("_id").in(List.of("3"))), Node.class);
+        verify(this.bulkOperations, times(2)).replaceOne(any(Query.class), any(Node.class), any(FindAndReplaceOptions.class));
+    }
+
+    @Test
+    void initDataStructure_New_Structure_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection();
+        Node rootNode = createNode("/", null, null);
+        Node dirNode = createNode("dir", rootNode, null);
+        rootNode.addChildNode(dirNode);
+        dirNode.addChildNode(createNode("file", dirNode, null));
+
+        when(this.nodeRepository.findFirstByParentNodeIsNullAndName("/")).thenReturn(null);
+        when(this.mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Node.class)).thenReturn(this.bulkOperations);
+
+        Node importedNode = this.nodeService.initDataStructure(rootNode, dataClientConnection);
+
+        assertEquals(rootNode, importedNode);
+        assertEquals(List.of(dataClientConnection), dirNode.getChildNodes().get(0).getDataClientConnection());
+        assertEquals("//dir/file", dirNode.getChildNodes().get(0).getPath());
+        assertEquals(List.of(rootNode.getId(), dirNode.getId()), dirNode.getChildNodes().get(0).getAncestors());
+        verify(this.bulkOperations, times(3)).replaceOne(any(Query.class), any(Node.class), any(FindAndReplaceOptions.class));
+        verify(this.bulkOperations, times(2)).execute();
+        verify(this.nodeRepository, never()).save(any(Node.class));
+    }
+
+    @Test
+    void initDataStructure_Existing_Structure_Test() {
+        DataClientConnection existingDataClientConnection = createDataClientConnection();
+        Node existingRootNode = createNode("/", null, null, existingDataClientConnection);
+        Node existingDirNode = createNode("dir", existingRootNode, null, existingDataClientConnection);
+        Node existingOtherNode = createNode("other", existingRootNode, null, existingDataClientConnection);
+        existingRootNode.setChildNodes(new ArrayList<>(List.of(existingDirNode, existingOtherNode)));
+
+        DataClientConnection dataClientConnection = createDataClientConnection();
+        dataClientConnection.setId("2");
+        Node rootNode = createNode("/", null, null);
+        rootNode.addChildNode(createNode("dir", rootNode, null));
+        rootNode.addChildNode(createNode("new", rootNode, null));
+
+        when(this.nodeRepository.findFirstByParentNodeIsNullAndName("/")).thenReturn(existingRootNode);
+        when(this.mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Node.class)).thenReturn(this.bulkOperations);
+
+        Node importedNode = this.nodeService.initDataStructure(rootNode, dataClientConnection);
+
+        assertEquals(existingRootNode, importedNode);
+        assertEquals(3, existingRootNode.getChildNodes().size());
+        assertEquals(2, existingDirNode.getDataClientConnection().size());
+        assertEquals(1, existingOtherNode.getDataClientConnection().size());
+        verify(this.bulkOperations, times(3)).replaceOne(any(Query.class), any(Node.class), any(FindAndReplaceOptions.class));
+    }
+
+    @Test
+    void initDataStructure_Child_Lookup_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection();
+        Node existingRootNode = createNode("/", null, null);
+        existingRootNode.setId("1");
+        Node rootNode = createNode("/", null, null);
+        Node dirNode = createNode("dir", rootNode, null);
+        rootNode.addChildNode(dirNode);
+
+        NodeService nodeService = new NodeService(this.nodeRepository, this.dataClientService, this.mongoTemplate, new NodeCacheService(true, 100, Duration.ofMinutes(1), new SimpleMeterRegistry()), false, 2, false, Duration.ofSeconds(1));
+        when(this.nodeRepository.findFirstByParentNodeIsNullAndName("/")).thenReturn(existingRootNode);
+        when(this.nodeRepository.save(any(Node.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals(existingRootNode, nodeService.initDataStructure(rootNode, dataClientConnection));
+        assertEquals(existingRootNode, dirNode.getParentNode());
+        verify(this.nodeRepository, atLeastOnce()).findFirstByParentNodeAndName(existingRootNode, "dir");
+        verify(this.nodeRepository, never()).findAllByName(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void explainChildNodeLookup_Test() {
+        Node parentNode = createNode("/", null, null);
+        parentNode.setId(new ObjectId().toHexString());
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        FindIterable<Document> legacyFind = mock(FindIterable.class);
+        FindIterable<Document> find = mock(FindIterable.class);
+
+        when(this.mongoTemplate.getCollectionName(Node.class)).thenReturn("node");
+        when(this.mongoTemplate.getCollection("node")).thenReturn(collection);
+        when(collection.find(new Document("name", "dir"))).thenReturn(legacyFind);
+        when(collection.find(new Document("parentNode", new ObjectId(parentNode.getId())).append("name", "dir"))).thenReturn(find);
+        when(legacyFind.limit(0)).thenReturn(legacyFind);
+        when(find.limit(1)).thenReturn(find);
+        when(legacyFind.explain(ExplainVerbosity.EXECUTION_STATS)).thenReturn(new Document("executionStats", new Document("totalDocsExamined", 250)));
+        when(find.explain(ExplainVerbosity.EXECUTION_STATS)).thenReturn(new Document("executionStats", new Document("totalDocsExamined", 1)));
+
+        NodeLookupStatsDTO stats = this.nodeService.explainChildNodeLookup(parentNode, "dir");
+
+        assertEquals(1, stats.getLookups());
+        assertEquals(250, stats.getLegacyExaminedDocuments());
+        assertEquals(1, stats.getExaminedDocuments());
+    }
+
+    @Test
+    void deleteNode_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection();
+        Node rootNode = createNode("/", null, null, dataClientConnection);
+        rootNode.setId("1");
+        rootNode.updateMaterializedPath();
+        Node dirNode = createNode("dir", rootNode, null, dataClientConnection);
+        dirNode.setId("2");
+        dirNode.updateMaterializedPath();
+        rootNode.addChildNode(dirNode);
+
+        when(this.nodeRepository.findById("2")).thenReturn(Optional.of(dirNode));
+        when(this.mongoTemplate.remove(any(Query.class), eq(Node.class))).thenReturn(DeleteResult.acknowledged(3));
+        when(this.dataClientService.deleteNodeAsync(dataClientConnection, "//dir")).thenReturn(Mono.just(true));
+
+        DeletedNodesDTO deletedNodes = this.nodeService.deleteNode("2");
+
+        assertEquals("2", deletedNodes.getNodeId());
+        assertEquals(3, deletedNodes.getDeletedNodes());
+        assertTrue(deletedNodes.getReplicaResults().get(0).isSuccess());
+        assertEquals(0, rootNode.getChildNodes().size());
+        verify(this.dataClientService).deleteNodeAsync(dataClientConnection, "//dir");
+        verify(this.nodeRepository).save(rootNode);
+        verify(this.nodeRepository, never()).delete(any(Node.class));
+    }
+
+    @Test
+    void deleteNode_NodeDoesntExistById_Exception_Test() {
+        when(this.nodeRepository.findById("2")).thenReturn(Optional.empty());
+
+        assertThrows(NodeDoesntExistById.class, () -> this.nodeService.deleteNode("2"));
+    }
+
+    @Test
+    void deleteNode_All_Replicas_Failed_Exception_Test() {
+        DataClientConnection dataClientConnection = createDataClientConnection();
+        Node rootNode = createNode("/", null, null, dataClientConnection);
+        rootNode.setId("1");
+        Node dirNode = createNode("dir", rootNode, null, dataClientConnection);
+        dirNode.setId("2");
+        rootNode.addChildNode(dirNode);
+
+        when(this.nodeRepository.findById("2")).thenReturn(Optional.of(dirNode));
+        when(this.dataClientService.deleteNodeAsync(dataClientConnection, "//dir")).thenReturn(Mono.error(new RuntimeException("unreachable")));
+
+        assertThrows(DataClientRestApiException.class, () -> this.nodeService.deleteNode("2"));
+        assertEquals(1, rootNode.getChildNodes().size());
+        verify(this.nodeRepository, never()).save(any(Node.class));
+        verify(this.mongoTemplate, never()).remove(any(Query.class), eq(Node.class));
+    }
+
+    @Test
+    void migrateMaterializedPaths_Test() {
+        Document rootDocument = new Document("_id", "1").append("name", "/");
+        Document dirDocument = new Document("_id", "2").append("name", "dir").append("parentNode", "1");
+        Document fileDocument = new Document("_id", "3").append("name", "file").append("parentNode", "2")
+                .append("path", "//dir/file").append("ancestors", List.of("1", "2")).append("nameTrigrams", List.of("fil", "ile"));
+
+        when(this.mongoTemplate.getCollectionName(Node.class)).thenReturn("node");
+        // the nodes are streamed level by level, starting with the root nodes
+        when(this.mongoTemplate.stream(any(Query.class), eq(Document.class), eq("node"))).thenReturn(
+                createDocumentIterator(List.of(rootDocument)),
+                createDocumentIterator(List.of(dirDocument)),
+                createDocumentIterator(List.of(fileDocument)),
+                createDocumentIterator(List.of()));
+        when(this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Node.class)).thenReturn(this.bulkOperations);
+
+        assertEquals(2, this.nodeService.migrateMaterializedPaths());
+        verify(this.mongoTemplate, times(4)).stream(any(Query.class), eq(Document.class), eq("node"));
+        verify(this.bulkOperations).updateOne(new Query(Criteria.where("_id").is("1")), Update.update("path", "/").set("ancestors", List.of()).set("nameTrigrams", List.of()));
+        verify(this.bulkOperations).updateOne(new Query(Criteria.where("_id").is("2")), Update.update("path", "//dir").set("ancestors", List.of("1")).set("nameTrigrams", List.of("dir")));
+        verify(this.bulkOperations).execute();
+    }
+
+    private CloseableIterator<Document> createDocumentIterator(List<Document> documents) {
+        return new CloseableIterator<>() {
+            private final Iterator<Document> iterator = documents.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return this.iterator.hasNext();
+            }
+
+            @Override
+            public Document next() {
+                return this.iterator.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private Document findDocument(Query query, Document rootDocument, Document document) {
+        if (!query.getQueryObject().containsKey("path"))
+            return rootDocument;
+
+        Object path = query.getQueryObject().get("path");
+        if (path.equals(rootDocument.get("path")))
+            return rootDocument;
+
+        return path.equals(document.get("path")) ? document : null;
+    }
+
+    private Document createDocument(String id, String name, String path, String parentNodeId) {
+        Document document = new Document("_id", id).append("name", name).append("path", path);
+        if (parentNodeId != null)
+            document.append("parentNode", parentNodeId).append("ancestors", List.of(parentNodeId));
+
+        return document;
+    }
+
+    private DataClientConnection createDataClientConnection() {
+        DataClientConnection dataClientConnection = new DataClientConnection();
+        dataClientConnection.setId("1");
+        dataClientConnection.setIpv4("111.222.333.444");
+
+        return dataClientConnection;
+    }
+
+    private DataClientChangeDTO createChange(String type, String path) {
+        DataClientChangeDTO change = new DataClientChangeDTO();
+        change.setType(type);
+        change.setPath(path);
+
+        return change;
+    }
+
     private Node createNode(String name, Node parentNode, List<Node> childNodes) {
         Node node = new Node();
         node.setName(name);